@@ -4,6 +4,7 @@ import java.io.IOException;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Plugin;
+import org.eclipse.swt.widgets.Display;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -49,4 +50,15 @@ public class Activator extends Plugin {
 		}
 		return null;
 	}
+
+	/**
+	 * Create the SWT display in the current thread, unless running in headless mode
+	 * ({@link Constants#HEADLESS}). This is required to work in OSX systems: the
+	 * display must be created in the main thread.
+	 */
+	public static void initDisplay() {
+		if (!Constants.HEADLESS) {
+			Display.getDefault();
+		}
+	}
 }
@@ -4,25 +4,60 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.equinox.app.IApplication;
 import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
-import org.eclipse.swt.widgets.Display;
 import com.google.gson.Gson;
 
+import neo.reducecognitivecomplexity.algorithms.Sequence;
 import neo.reducecognitivecomplexity.algorithms.Solution;
 import neo.reducecognitivecomplexity.algorithms.exhaustivesearch.EnumerativeSearch;
+import neo.reducecognitivecomplexity.diff.DiffScope;
+import neo.reducecognitivecomplexity.diff.UnifiedDiff;
+import neo.reducecognitivecomplexity.jdt.AnalysisCache;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityScanner;
+import neo.reducecognitivecomplexity.jdt.CompilationUnitCache;
+import neo.reducecognitivecomplexity.jdt.DeadlineProgressMonitor;
 import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.jdt.WorkspaceBatch;
+import neo.reducecognitivecomplexity.journal.ProgressJournal;
+import neo.reducecognitivecomplexity.profiling.MethodProfile;
+import neo.reducecognitivecomplexity.profiling.MethodProfile.Phase;
+import neo.reducecognitivecomplexity.refactoringcache.OracleRecording;
 import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
 import neo.reducecognitivecomplexity.refactoringcache.RefactoringCacheFiller;
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.scheduling.MethodScheduler;
+import neo.reducecognitivecomplexity.scheduling.MethodScheduler.ScheduledMethod;
+import neo.reducecognitivecomplexity.sharding.Shard;
 import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.CognitiveComplexMethod;
 import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.ProjectIssues;
 
@@ -32,19 +67,81 @@ import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.ProjectIssues;
  * has been previously analyzed, (3) the token to use the SONAR API REST, (4)
  * the name of the Eclipse project in the Eclipse workspace, and (5) algorithm to
  * run for the search of refactoring opportunities.
+ * <p>
+ * When issues are computed locally ({@link Constants#ISSUES_SOURCE}), the SONAR
+ * server and token are not used and the cognitive complex methods are found in
+ * the files of the project in the workspace.
+ * <p>
+ * The arguments can be followed by "--shard i/n" to process only the classes
+ * of shard i (from 0 to n - 1) of n (see {@link Shard}). Each shard writes its
+ * own results file, and they can be combined with
+ * {@link neo.reducecognitivecomplexity.sharding.ShardMerger}.
  */
 public class Application implements IApplication {
 	private static final Logger LOGGER = Logger.getLogger(Application.class.getName());
+	private static final String SHARD_OPTION = "--shard";
+
+	protected String projectNameInWorkspace;
+	protected String algorithmName;
+	protected BufferedWriter bf;
+
+	/**
+	 * Refactoring caches kept between runs (null if they are not kept).
+	 */
+	protected AnalysisCache analysisCache;
+
+	/**
+	 * Order in which methods are processed and time budget.
+	 */
+	private MethodScheduler scheduler;
+
+	/**
+	 * Methods completed in this run (and in the interrupted run it resumes).
+	 */
+	private ProgressJournal journal;
+
+	/**
+	 * Classes processed by this run (null for all classes).
+	 */
+	protected Shard shard;
 
 	@Override
 	public Object start(IApplicationContext arg) throws Exception {
 
-		Display.getDefault(); // This is required to work in OSX systems: the display must be created in the
+		Activator.initDisplay(); // This is required to work in OSX systems: the display must be created in the
 		// main thread
 
-		String sonarServer, projectNameInSonar, projectNameInWorkspace, token, uri;
 		String[] args = (String[]) arg.getArguments().get("application.args");
 
+		return run(args);
+	}
+
+	/**
+	 * Search refactoring opportunities for the cognitive complex methods of a
+	 * project.
+	 * 
+	 * @param args Arguments of the application.
+	 * @return Exit code of the application.
+	 */
+	public int run(String[] args) {
+		String sonarServer, projectNameInSonar, token, uri;
+
+		// Read the shard to process, if any
+		shard = null;
+		int shardOption = Arrays.asList(args).indexOf(SHARD_OPTION);
+		if (shardOption >= 0 && shardOption + 1 < args.length) {
+			try {
+				shard = Shard.parse(args[shardOption + 1]);
+			} catch (IllegalArgumentException e) {
+				LOGGER.severe(e.getMessage());
+				return -1;
+			}
+
+			List<String> otherArgs = new ArrayList<>(Arrays.asList(args));
+			otherArgs.subList(shardOption, shardOption + 2).clear();
+			args = otherArgs.toArray(new String[0]);
+		}
+
 		// Check the number of arguments given
 		if (args.length != Constants.ARGS) {
 			LOGGER.severe("Number of arguments must be " + Constants.ARGS + "!");
@@ -56,189 +153,502 @@ public class Application implements IApplication {
 		projectNameInSonar = args[1];
 		token = args[2];
 		projectNameInWorkspace = args[3];
-		String algorithmName = args[4];
+		algorithmName = args[4];
 
 		try {
 			// ensure output folder exists, then create and add information to the results file
-			new File(Constants.OUTPUT_FOLDER).mkdirs();
-			BufferedWriter bf = new BufferedWriter(new FileWriter(Constants.OUTPUT_FOLDER
-					+ projectNameInWorkspace.replace('/', '.') + "-" + algorithmName + "-" + Constants.FILE, false));
-			bf.append("algorithm;class;method;initialComplexity;solution;extractions;fitness;"
-					+ "reductionComplexity;finalComplexity;"
-					+ "minExtractedLOC;maxExtractedLOC;meanExtractedLOC;totalExtractedLOC;"
-					+ "minParamsExtractedMethods;maxParamsExtractedMethods;meanParamsExtractedMethods;totalParamsExtractedMethods;"
-					+ "minReductionOfCC;maxReductionOfCC;meanReductionOfCC;totalReductionOfCC;" + "optimo;");
-			bf.append("runTimeToFillRefactoringCache;");
-			bf.append("executionTime\n");
-
-			// By default Sonar paginates queries to 100 elements per page. We have to
-			// paginate the content.
-			boolean allPagesProccessed = false;
-			int currentPage = 1;
-			while (!allPagesProccessed) {
-				String json = null;
-
-				// Compose SONAR server URI
-				uri = neo.reducecognitivecomplexity.sonar.Utils.composeSonarUri(sonarServer, projectNameInSonar,
-						currentPage);
-
-				// Query cognitive complexity issues in project through the Sonar Web API
-				LOGGER.info("Querying complexy issues from Sonar: " + uri);
-				json = neo.reducecognitivecomplexity.sonar.Utils.GETRequest(uri, token);
-
-				// Parse json to get project issues
-				Gson gson = new Gson();
-				ProjectIssues issues = gson.fromJson(json, ProjectIssues.class);
-
-				int totalPagesInSonar = (int) Math.ceil(issues.getTotal() / 100.0);
-				LOGGER.info("Proccesing issues in page " + currentPage + " (over " + totalPagesInSonar + " pages)");
-
-				// Read cognitive complex methods from issues reported by SONAR
-				Map<String, List<CognitiveComplexMethod>> methodsWithIssues = ProjectIssues
-						.getCognitiveComplexity(issues);
-
-				// Iterate over classes containing cognitive complex methods
-				int classWithIssuesCounter = 0;
-				LOGGER.info("#classes:" + methodsWithIssues.keySet().size());
-				for (String classWithIssues : methodsWithIssues.keySet()) {
-					classWithIssuesCounter++;
-
-			// Build workspace-absolute path (Eclipse resource path) for the file
-			String normalizedClassPath = classWithIssues.replace('\\', '/');
-			if (normalizedClassPath.startsWith("/")) {
-				normalizedClassPath = normalizedClassPath.substring(1);
+			createResultsFile();
+
+			// Record completed methods. When resuming, results of the methods completed
+			// by the interrupted run are kept
+			journal = new ProgressJournal(Paths.get(Constants.OUTPUT_FOLDER + getOutputPrefix() + Constants.JOURNAL_FILE),
+					Constants.RESUME);
+			for (String row : journal.getRows()) {
+				bf.append(row + "\n");
 			}
-			String relativePathForFileToProcess = "/" + projectNameInWorkspace + "/" + normalizedClassPath;
 
-					List<Solution> solutions = new ArrayList<>();
+			IResource project = ResourcesPlugin.getWorkspace().getRoot().findMember(projectNameInWorkspace);
+			Path projectLocation = (project != null && project.getLocation() != null)
+					? project.getLocation().toFile().toPath()
+					: null;
+
+			// Decide the order of methods and which ones fit in the time budget
+			boolean prioritizeMethods = Constants.PRIORITIZE_METHODS;
+			if (prioritizeMethods && projectLocation == null) {
+				LOGGER.warning("Project '" + projectNameInWorkspace
+						+ "' not found in the workspace: methods are not prioritized");
+				prioritizeMethods = false;
+			}
+			scheduler = new MethodScheduler(projectLocation, prioritizeMethods, Constants.TIME_BUDGET * 1000);
+
+			// When a diff is given, only the methods it changes are processed
+			UnifiedDiff diff = null;
+			if (Constants.DIFF != null) {
+				if (projectLocation == null) {
+					LOGGER.severe("Project '" + projectNameInWorkspace + "' not found in the workspace!");
+					bf.close();
+					return -1;
+				}
+				diff = Files.isRegularFile(Paths.get(Constants.DIFF)) ? UnifiedDiff.read(Paths.get(Constants.DIFF))
+						: UnifiedDiff.fromGit(projectLocation, Constants.DIFF);
+			}
 
-					// Read compilation unit
-					CompilationUnit compilationUnit = Utils
-							.createCompilationUnitFromFileInWorkspace(relativePathForFileToProcess);
+			if (Constants.ISSUES_SOURCE.equals(Constants.ISSUES_FROM_JDT)) {
+				// Compute cognitive complexity issues from the files of the project (no SONAR
+				// server is queried)
+				if (projectLocation == null) {
+					LOGGER.severe("Project '" + projectNameInWorkspace + "' not found in the workspace!");
+					bf.close();
+					return -1;
+				}
 
-				// Validate if compilation unit is accessible and valid
-				if (compilationUnit == null || compilationUnit.getLength() == 0) {
-					LOGGER.warning("ERROR WITH COMPILATION UNIT (empty AST). File: " + relativePathForFileToProcess);
-				} else if (compilationUnit.getTypeRoot() == null) {
-					LOGGER.warning("WARN: TypeRoot is null (parsed from file). Proceeding. File: " + relativePathForFileToProcess);
-				} else {
-						int methodsWithIssuesInClassCounter = 0;
-
-						// Iterate over cognitive complex methods in current class
-						for (CognitiveComplexMethod complexMethod : methodsWithIssues.get(classWithIssues)) {
-							String methodName;
-							methodsWithIssuesInClassCounter++;
-							RefactoringCache refactoringCache = new RefactoringCache(compilationUnit);
-							List<ASTNode> auxList = new ArrayList<ASTNode>();
-							
-							// Get AST of the method, including contribution to complexity reported by SONAR
-							 ASTNode ast = neo.reducecognitivecomplexity.sonar.Utils
-									.getASTForMethodAnnotatingContributionToCognitiveComplexity(compilationUnit,
-											complexMethod, auxList);
-							
-							LOGGER.info("Processing class " + classWithIssuesCounter + " of "
-									+ methodsWithIssues.keySet().size() + " [" + currentPage + " (over "
-									+ totalPagesInSonar + " pages)");
-							LOGGER.info("Processing class '" + classWithIssues + "' ...");
-
-							// Get method name: this is the method name plus their signature
-							// joined by dashes. We do this because could exist several methods with similar
-							// names (but different signature)
-							methodName = ((MethodDeclaration) ast).getName().toString();
-
-							LOGGER.info("Processing method " + methodsWithIssuesInClassCounter + " of "
-									+ methodsWithIssues.get(classWithIssues).size());
-							LOGGER.info("Processing method '" + methodName + "' ...");
-							String composedMethodName = new String(methodName);
-							if ((((MethodDeclaration) ast).parameters() != null)
-									&& ((MethodDeclaration) ast).parameters().size() > 0) {
-								composedMethodName = methodName + "-"
-										+ String.join("-", Utils.getTypesInSignature((MethodDeclaration) ast));
-							}
-							// We reduce composed method name length to avoid problems with the operative
-							// system
-							// replace special characters in composed method name
-							composedMethodName = composedMethodName.replace('<', '-');
-							composedMethodName = composedMethodName.replace('>', '-');
-							composedMethodName = composedMethodName.replace('?', '-');
-							composedMethodName = composedMethodName.replace(':', '-');
-							composedMethodName = composedMethodName.replace('\\', '-');
-							composedMethodName = composedMethodName.replace('/', '-');
-							composedMethodName = composedMethodName.replace('*', '-');
-							composedMethodName = composedMethodName.replace('|', '-');
-							composedMethodName = composedMethodName.replace('"', '-');
-							LOGGER.info("Composed method name: '" + composedMethodName + "'");
-
-							// define path for output files
-							String prefixForFileNames = projectNameInWorkspace.replace('/', '.') + "-" + algorithmName
-									+ "-" + classWithIssues.replace('/', '.') + "." + methodName;
-							String fileNameForRefactoringCacheInfo = new String(prefixForFileNames + ".csv");
-							String fileNameForSolution = new String(
-									Constants.OUTPUT_FOLDER + prefixForFileNames + ".solution.txt");
-
-							// Compute and annotate accumulated complexity in AST nodes
-							int methodComplexity = Utils
-									.computeAndAnnotateAccumulativeCognitiveComplexity((MethodDeclaration) ast);
-
-							// Report the cognitive complexity of the method
-							LOGGER.info("CognitiveComplexity (" + methodName + ")=" + methodComplexity);
-
-							// Compute refactoring cache of current method
-							LOGGER.info("Computing refactoring cache ...");
-							long startTime = System.currentTimeMillis();
-							RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(refactoringCache, ast);
-							long runtime = System.currentTimeMillis() - startTime;
-							LOGGER.info("Refactoring cache for method '" + methodName + "' succesfully generated in "
-									+ runtime + "ms.");
-							refactoringCache.writeToCSV(Constants.OUTPUT_FOLDER, fileNameForRefactoringCacheInfo);
-							LOGGER.info("Refactoring cache for method '" + methodName + "' succesfully generated in '"
-									+ fileNameForRefactoringCacheInfo + "'!");
-
-							// Solve cognitive complexity reduction problem
-							LOGGER.info("Solving cognitive complexity reduction problem ...");
-							Solution solution = new Solution(compilationUnit, ast);
-							switch (algorithmName) {
-							case Constants.EXHAUSTIVE_SEARCH_LONG_SEQUENCES_FIRST:
-								solution = new EnumerativeSearch().run(APPROACH.LONG_SEQUENCE_FIRST, bf,
-										classWithIssues, compilationUnit, refactoringCache, runtime, auxList, ast,
-										methodComplexity);
-								break;
-							case Constants.EXHAUSTIVE_SEARCH_SHORT_SEQUENCES_FIRST:
-								solution = new EnumerativeSearch().run(APPROACH.SHORT_SEQUENCE_FIRST, bf,
-										classWithIssues, compilationUnit, refactoringCache, runtime, auxList, ast,
-										methodComplexity);
-								break;
-							default:
-								LOGGER.severe("No algorithm with name " + algorithmName);
-							}
-							
-							if (solution != null) {
-								solution.writeInFile(fileNameForSolution);
-								LOGGER.info(solution.toString());
-								if (!solution.getSequenceList().isEmpty())
-									solutions.add(neo.reducecognitivecomplexity.sonar.Utils
-											.indexOfInsertionToKeepListSorted(solution, solutions), solution);
-							}
-						}
+				LOGGER.info("Computing complexity issues from project location: " + projectLocation);
+				IJavaProject javaProject = (project instanceof IProject) ? JavaCore.create((IProject) project) : null;
+				Map<String, List<CognitiveComplexMethod>> methodsWithIssues = CognitiveComplexityScanner
+						.scan(projectNameInSonar, projectLocation, javaProject);
+				if (diff != null) {
+					methodsWithIssues = DiffScope.filter(methodsWithIssues, diff, projectLocation);
+				}
+				if (shard != null) {
+					methodsWithIssues = shard.filter(methodsWithIssues);
+				}
+
+				processClassesWithIssuesInWorkspaceBatch(methodsWithIssues, 1, 1);
+			} else {
+				// By default Sonar paginates queries to 100 elements per page. We have to
+				// paginate the content.
+				boolean allPagesProccessed = false;
+				int currentPage = 1;
+				while (!allPagesProccessed) {
+					String json = null;
+
+					// Compose SONAR server URI
+					uri = neo.reducecognitivecomplexity.sonar.Utils.composeSonarUri(sonarServer, projectNameInSonar,
+							currentPage);
+
+					// Query cognitive complexity issues in project through the Sonar Web API
+					LOGGER.info("Querying complexy issues from Sonar: " + uri);
+					json = neo.reducecognitivecomplexity.sonar.Utils.GETRequest(uri, token);
+
+					// Parse json to get project issues
+					Gson gson = new Gson();
+					ProjectIssues issues = gson.fromJson(json, ProjectIssues.class);
+
+					int totalPagesInSonar = (int) Math.ceil(issues.getTotal() / 100.0);
+					LOGGER.info("Proccesing issues in page " + currentPage + " (over " + totalPagesInSonar + " pages)");
+
+					// Read cognitive complex methods from issues reported by SONAR
+					Map<String, List<CognitiveComplexMethod>> methodsWithIssues = ProjectIssues
+							.getCognitiveComplexity(issues);
+					if (diff != null) {
+						methodsWithIssues = DiffScope.filter(methodsWithIssues, diff, projectLocation);
+					}
+					if (shard != null) {
+						methodsWithIssues = shard.filter(methodsWithIssues);
 					}
 
-					LOGGER.info("Refactoring operations to apply in class " + classWithIssues + ":\n" + solutions);
-				}
-				currentPage++;
-				allPagesProccessed = currentPage > totalPagesInSonar;
-			} // end while loop to paginating issues in Sonar
+					processClassesWithIssuesInWorkspaceBatch(methodsWithIssues, currentPage, totalPagesInSonar);
+
+					currentPage++;
+					allPagesProccessed = currentPage > totalPagesInSonar;
+				} // end while loop to paginating issues in Sonar
+			}
 
 			bf.close();
 		} catch (SocketTimeoutException e) {
 			LOGGER.severe("Wrong communication with SONAR server '" + sonarServer + "'!");
 			e.printStackTrace();
-		} catch (IOException e) {
+		} catch (IOException | CoreException e) {
 			e.printStackTrace();
+		} finally {
+			closeJournal();
 		}
 
 		return IApplication.EXIT_OK;
 	}
 
+	private void closeJournal() {
+		if (journal != null) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			journal = null;
+		}
+	}
+
+	/**
+	 * Create the results file (in the output folder) and write its header.
+	 * 
+	 * @throws IOException when writing the results file
+	 */
+	protected void createResultsFile() throws IOException {
+		new File(Constants.OUTPUT_FOLDER).mkdirs();
+		bf = new BufferedWriter(new FileWriter(Constants.OUTPUT_FOLDER + getOutputPrefix() + Constants.FILE, false));
+		bf.append("algorithm;class;method;initialComplexity;solution;extractions;fitness;"
+				+ "reductionComplexity;finalComplexity;"
+				+ "minExtractedLOC;maxExtractedLOC;meanExtractedLOC;totalExtractedLOC;"
+				+ "minParamsExtractedMethods;maxParamsExtractedMethods;meanParamsExtractedMethods;totalParamsExtractedMethods;"
+				+ "minReductionOfCC;maxReductionOfCC;meanReductionOfCC;totalReductionOfCC;" + "optimo;");
+		bf.append("runTimeToFillRefactoringCache;");
+		bf.append("executionTime;");
+		bf.append("timeout\n");
+	}
+
+	/**
+	 * Prefix of the names of the results file and journal of a run: project,
+	 * algorithm and shard (if any).
+	 */
+	private String getOutputPrefix() {
+		return projectNameInWorkspace.replace('/', '.') + "-" + algorithmName + "-"
+				+ ((shard != null) ? shard + "-" : "");
+	}
+
+	/**
+	 * Run {@link #processClassesWithIssues} in a workspace batch (see
+	 * {@link WorkspaceBatch}) locking the project under processing.
+	 */
+	private void processClassesWithIssuesInWorkspaceBatch(Map<String, List<CognitiveComplexMethod>> methodsWithIssues,
+			int currentPage, int totalPages) throws IOException, CoreException {
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		IResource project = root.findMember(projectNameInWorkspace);
+
+		try {
+			WorkspaceBatch.run(project != null ? project : root, monitor -> {
+				try {
+					processClassesWithIssues(methodsWithIssues, currentPage, totalPages);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Search refactoring opportunities for the cognitive complex methods of the
+	 * given classes, writing results to the results file.
+	 * 
+	 * @param methodsWithIssues Cognitive complex methods of each class.
+	 * @param currentPage       Page of issues under processing (for logging).
+	 * @param totalPages        Number of pages of issues (for logging).
+	 * @throws IOException when writing output files
+	 */
+	private void processClassesWithIssues(Map<String, List<CognitiveComplexMethod>> methodsWithIssues,
+			int currentPage, int totalPages) throws IOException {
+		// Methods in the order they will be processed (see MethodScheduler)
+		List<ScheduledMethod> scheduledMethods = scheduler.schedule(methodsWithIssues);
+
+		// Number of methods of each class still to process
+		Map<String, Integer> pendingMethods = new HashMap<>();
+		for (ScheduledMethod scheduledMethod : scheduledMethods) {
+			pendingMethods.merge(scheduledMethod.getClassWithIssues(), 1, Integer::sum);
+		}
+
+		// Classes parsed at once whose methods are being processed. Compilation units
+		// are not kept here but taken from the cache on each use, so those of classes
+		// out of the window can be discarded (and parsed again if needed)
+		Set<String> parseWindow = new LinkedHashSet<>();
+		Map<String, Integer> classWithIssuesCounters = new HashMap<>();
+		Map<String, Integer> methodsWithIssuesInClassCounters = new HashMap<>();
+
+		// Solutions of each class by the offset of their first code extraction (as
+		// text, so they do not keep compilation units)
+		Map<String, TreeMap<Integer, String>> solutions = new HashMap<>();
+
+		// Iterate over cognitive complex methods
+		LOGGER.info("#classes:" + methodsWithIssues.keySet().size());
+		for (int i = 0; i < scheduledMethods.size(); i++) {
+			ScheduledMethod scheduledMethod = scheduledMethods.get(i);
+			String classWithIssues = scheduledMethod.getClassWithIssues();
+			String relativePathForFileToProcess = getPathInWorkspace(classWithIssues);
+			int classWithIssuesCounter = classWithIssuesCounters.computeIfAbsent(classWithIssues,
+					k -> classWithIssuesCounters.size() + 1);
+			int methodsWithIssuesInClassCounter = methodsWithIssuesInClassCounters.merge(classWithIssues, 1,
+					Integer::sum);
+			boolean lastMethodInClass = pendingMethods.merge(classWithIssues, -1, Integer::sum) == 0;
+			TreeMap<Integer, String> solutionsInClass = solutions.computeIfAbsent(classWithIssues,
+					k -> new TreeMap<>());
+
+			String journalKey = ProgressJournal.key(algorithmName, classWithIssues,
+					scheduledMethod.getMethod().getTextRange().getStartLine());
+			if (journal != null && journal.isCompleted(journalKey)) {
+				LOGGER.info("Method at " + scheduledMethod.getMethod().getTextRange() + " in " + classWithIssues
+						+ " completed in a previous run: skipping");
+			} else if (scheduler.fitsInBudget(scheduledMethod)) {
+				long startTime = System.currentTimeMillis();
+				MethodProfile profile = new MethodProfile();
+				profile.start(Phase.PARSE);
+
+				// Once out of the parse window, parse the files of the next classes at once,
+				// sharing bindings
+				if (!parseWindow.contains(classWithIssues)) {
+					parseWindow.clear();
+					for (int j = i; j < scheduledMethods.size()
+							&& parseWindow.size() < Constants.PARSING_BATCH_SIZE; j++) {
+						parseWindow.add(scheduledMethods.get(j).getClassWithIssues());
+					}
+
+					List<String> nextPaths = parseWindow.stream().map(this::getPathInWorkspace)
+							.collect(Collectors.toList());
+					CompilationUnitCache.getShared().getCompilationUnits(nextPaths);
+				}
+
+				// Read compilation unit (from the cache, parsing it again if discarded)
+				CompilationUnit compilationUnit = CompilationUnitCache.getShared()
+						.getCompilationUnit(relativePathForFileToProcess);
+
+				// Validate if compilation unit is accessible and valid
+				if (compilationUnit == null || compilationUnit.getLength() == 0) {
+					LOGGER.warning("ERROR WITH COMPILATION UNIT (empty AST). File: " + relativePathForFileToProcess);
+				} else if (compilationUnit.getTypeRoot() == null) {
+					LOGGER.warning("WARN: TypeRoot is null (parsed from file). Proceeding. File: "
+							+ relativePathForFileToProcess);
+				} else {
+					CognitiveComplexMethod complexMethod = scheduledMethod.getMethod();
+					List<ASTNode> auxList = new ArrayList<ASTNode>();
+
+					// Get AST of the method, including contribution to complexity reported by SONAR
+					// (or computed locally)
+					profile.start(Phase.ANNOTATION);
+					ASTNode ast;
+					if (Constants.ISSUES_SOURCE.equals(Constants.ISSUES_FROM_JDT)) {
+						ast = CognitiveComplexityScanner.getASTForMethodAnnotatingContributionToCognitiveComplexity(
+								compilationUnit, complexMethod, auxList);
+					} else {
+						ast = neo.reducecognitivecomplexity.sonar.Utils
+								.getASTForMethodAnnotatingContributionToCognitiveComplexity(compilationUnit,
+										complexMethod, auxList);
+					}
+					RefactoringCache refactoringCache = (analysisCache != null)
+							? analysisCache.getRefactoringCache(compilationUnit, ast)
+							: new RefactoringCache(compilationUnit);
+
+					LOGGER.info("Processing class " + classWithIssuesCounter + " of "
+							+ methodsWithIssues.keySet().size() + " [" + currentPage + " (over "
+							+ totalPages + " pages)");
+					LOGGER.info("Processing class '" + classWithIssues + "' ...");
+
+					LOGGER.info("Processing method " + methodsWithIssuesInClassCounter + " of "
+							+ methodsWithIssues.get(classWithIssues).size());
+					Solution solution = processMethod(classWithIssues, compilationUnit, ast, auxList,
+							refactoringCache, profile);
+					scheduler.processed(scheduledMethod, System.currentTimeMillis() - startTime);
+					if (solution != null && !solution.getSequenceList().isEmpty()) {
+						solutionsInClass.put(solution.getSequenceList().get(0).getSiblingNodes().get(0)
+								.getStartPosition(), solution.toString());
+					}
+				}
+			}
+
+			if (lastMethodInClass) {
+				LOGGER.info("Refactoring operations to apply in class " + classWithIssues + ":\n"
+						+ new ArrayList<>(solutions.remove(classWithIssues).values()));
+			}
+		}
+	}
+
+	/**
+	 * Build the workspace-absolute path (Eclipse resource path) for the file of a
+	 * class.
+	 */
+	private String getPathInWorkspace(String classWithIssues) {
+		String normalizedClassPath = classWithIssues.replace('\\', '/');
+		if (normalizedClassPath.startsWith("/")) {
+			normalizedClassPath = normalizedClassPath.substring(1);
+		}
+
+		return "/" + projectNameInWorkspace + "/" + normalizedClassPath;
+	}
+
+	/**
+	 * Search refactoring opportunities for a cognitive complex method, writing
+	 * results to the results file and the refactoring cache and solution to their
+	 * own files.
+	 * 
+	 * @param classWithIssues  Class (file) of the method.
+	 * @param compilationUnit  The compilation unit of the class.
+	 * @param ast              The AST of the method (annotated with its
+	 *                         contribution to complexity).
+	 * @param auxList          Nodes contributing to complexity.
+	 * @param refactoringCache Refactoring cache to fill.
+	 * @param profile          Profile of the method, with the phases before this
+	 *                         one (parsing and annotation of contributions).
+	 * @return The best solution found or null if the algorithm is unknown.
+	 * @throws IOException when writing output files
+	 */
+	protected Solution processMethod(String classWithIssues, CompilationUnit compilationUnit, ASTNode ast,
+			List<ASTNode> auxList, RefactoringCache refactoringCache, MethodProfile profile) throws IOException {
+		// Get method name: this is the method name plus their signature
+		// joined by dashes. We do this because could exist several methods with similar
+		// names (but different signature)
+		String methodName = ((MethodDeclaration) ast).getName().toString();
+
+		LOGGER.info("Processing method '" + methodName + "' ...");
+		String composedMethodName = new String(methodName);
+		if ((((MethodDeclaration) ast).parameters() != null)
+				&& ((MethodDeclaration) ast).parameters().size() > 0) {
+			composedMethodName = methodName + "-"
+					+ String.join("-", Utils.getTypesInSignature((MethodDeclaration) ast));
+		}
+		// We reduce composed method name length to avoid problems with the operative
+		// system
+		// replace special characters in composed method name
+		composedMethodName = composedMethodName.replace('<', '-');
+		composedMethodName = composedMethodName.replace('>', '-');
+		composedMethodName = composedMethodName.replace('?', '-');
+		composedMethodName = composedMethodName.replace(':', '-');
+		composedMethodName = composedMethodName.replace('\\', '-');
+		composedMethodName = composedMethodName.replace('/', '-');
+		composedMethodName = composedMethodName.replace('*', '-');
+		composedMethodName = composedMethodName.replace('|', '-');
+		composedMethodName = composedMethodName.replace('"', '-');
+		LOGGER.info("Composed method name: '" + composedMethodName + "'");
+
+		// define path for output files
+		String prefixForFileNames = projectNameInWorkspace.replace('/', '.') + "-" + algorithmName
+				+ "-" + classWithIssues.replace('/', '.') + "." + methodName;
+		String fileNameForRefactoringCacheInfo = new String(prefixForFileNames + ".csv");
+		String fileNameForSolution = new String(
+				Constants.OUTPUT_FOLDER + prefixForFileNames + ".solution.txt");
+
+		// Compute and annotate accumulated complexity in AST nodes
+		profile.start(Phase.ANNOTATION);
+		int methodComplexity = Utils
+				.computeAndAnnotateAccumulativeCognitiveComplexity((MethodDeclaration) ast);
+
+		// Report the cognitive complexity of the method
+		LOGGER.info("CognitiveComplexity (" + methodName + ")=" + methodComplexity);
+
+		// Compute refactoring cache of current method
+		LOGGER.info("Computing refactoring cache ...");
+		profile.start(Phase.CACHE_FILL);
+		long startTime = System.currentTimeMillis();
+		DeadlineProgressMonitor monitor = new DeadlineProgressMonitor(Constants.METHOD_TIMEOUT * 1000);
+		refactoringCache.setMonitor(monitor);
+		if (journal != null) {
+			// Entries are written as they are evaluated, so an interrupted run can reuse
+			// them
+			File cacheFile = new File(Constants.OUTPUT_FOLDER + fileNameForRefactoringCacheInfo);
+			if (Constants.RESUME && cacheFile.exists()) {
+				int entries = refactoringCache.addFromCSV(Constants.OUTPUT_FOLDER, fileNameForRefactoringCacheInfo);
+				LOGGER.info("Reusing " + entries + " entries of the refactoring cache of an interrupted run");
+			} else {
+				Files.deleteIfExists(cacheFile.toPath());
+			}
+			refactoringCache.setCheckpoint(Constants.OUTPUT_FOLDER, fileNameForRefactoringCacheInfo);
+		}
+		try {
+			profile.start(Phase.SELECTOR_VISIT);
+			List<Sequence> sentences = RefactoringCacheFiller.selectSentences(refactoringCache, ast);
+			profile.start(Phase.CACHE_FILL);
+			RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(refactoringCache, sentences, monitor);
+		} finally {
+			refactoringCache.closeCheckpoint();
+		}
+		long runtime = System.currentTimeMillis() - startTime;
+		profile.start(Phase.OUTPUT);
+		LOGGER.info("Refactoring cache for method '" + methodName + "' succesfully generated in "
+				+ runtime + "ms.");
+		refactoringCache.writeToCSV(Constants.OUTPUT_FOLDER, fileNameForRefactoringCacheInfo);
+		LOGGER.info("Refactoring cache for method '" + methodName + "' succesfully generated in '"
+				+ fileNameForRefactoringCacheInfo + "'!");
+
+		// Solve cognitive complexity reduction problem
+		LOGGER.info("Solving cognitive complexity reduction problem ...");
+		profile.start(Phase.SEARCH);
+		Solution solution = new Solution(compilationUnit, ast);
+		StringWriter row = new StringWriter();
+		BufferedWriter rowWriter = new BufferedWriter(row);
+		switch (algorithmName) {
+		case Constants.EXHAUSTIVE_SEARCH_LONG_SEQUENCES_FIRST:
+			solution = new EnumerativeSearch().run(APPROACH.LONG_SEQUENCE_FIRST, rowWriter,
+					classWithIssues, compilationUnit, refactoringCache, runtime, auxList, ast,
+					methodComplexity, monitor);
+			break;
+		case Constants.EXHAUSTIVE_SEARCH_SHORT_SEQUENCES_FIRST:
+			solution = new EnumerativeSearch().run(APPROACH.SHORT_SEQUENCE_FIRST, rowWriter,
+					classWithIssues, compilationUnit, refactoringCache, runtime, auxList, ast,
+					methodComplexity, monitor);
+			break;
+		default:
+			LOGGER.severe("No algorithm with name " + algorithmName);
+		}
+
+		if (monitor.hasExpired()) {
+			LOGGER.warning("Deadline reached for method '" + methodName + "': the best solution found so far is kept");
+		}
+		refactoringCache.setMonitor(new NullProgressMonitor());
+
+		profile.start(Phase.OUTPUT);
+		rowWriter.flush();
+		bf.append(row.toString());
+
+		if (Constants.RECORD) {
+			record(classWithIssues, compilationUnit, (MethodDeclaration) ast, methodComplexity, refactoringCache,
+					Constants.OUTPUT_FOLDER + prefixForFileNames + OracleRecording.EXTENSION);
+		}
+
+		if (solution != null) {
+			solution.writeInFile(fileNameForSolution);
+			LOGGER.info(solution.toString());
+		}
+
+		// The method is recorded as completed once all its output files are written
+		if (journal != null && row.getBuffer().length() > 0) {
+			journal.completed(ProgressJournal.key(algorithmName, classWithIssues,
+					compilationUnit.getLineNumber(((MethodDeclaration) ast).getName().getStartPosition())),
+					row.toString());
+		}
+
+		profile.finish(classWithIssues, methodName, algorithmName);
+		if (Constants.PROFILE) {
+			profile.write(Paths.get(Constants.OUTPUT_FOLDER + prefixForFileNames + MethodProfile.EXTENSION));
+		}
+
+		return solution;
+	}
+
+	/**
+	 * Record the answers of the oracle for a method (see {@link OracleRecording}).
+	 */
+	private void record(String classWithIssues, CompilationUnit compilationUnit, MethodDeclaration method,
+			int methodComplexity, RefactoringCache refactoringCache, String fileName) {
+		String source = getSource(classWithIssues, compilationUnit);
+		if (source == null) {
+			LOGGER.warning("The source of class " + classWithIssues + " is not available: method '"
+					+ method.getName() + "' is not recorded");
+			return;
+		}
+
+		try {
+			OracleRecording.record(classWithIssues, source, method, methodComplexity, refactoringCache)
+					.write(Paths.get(fileName));
+		} catch (IOException e) {
+			LOGGER.warning("The recording of method '" + method.getName() + "' could not be written: " + e);
+		}
+	}
+
+	/**
+	 * Get the source of a class, as parsed in its compilation unit.
+	 *
+	 * @param classWithIssues Class (file) of the compilation unit.
+	 * @param compilationUnit The compilation unit.
+	 * @return The source, or null if it is not available.
+	 */
+	protected String getSource(String classWithIssues, CompilationUnit compilationUnit) {
+		if (compilationUnit.getJavaElement() instanceof ICompilationUnit) {
+			try {
+				return ((ICompilationUnit) compilationUnit.getJavaElement()).getSource();
+			} catch (JavaModelException e) {
+				e.printStackTrace();
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public void stop() {
 		// TODO Auto-generated method stub
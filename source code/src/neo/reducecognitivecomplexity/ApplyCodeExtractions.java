@@ -4,18 +4,25 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.StringJoiner;
 import java.util.logging.Logger;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.equinox.app.IApplication;
 import org.eclipse.equinox.app.IApplicationContext;
 import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.eclipse.swt.widgets.Display;
 import neo.reducecognitivecomplexity.algorithms.Solution;
+import neo.reducecognitivecomplexity.jdt.CompilationUnitCache;
 import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.jdt.WorkspaceBatch;
 
 /**
  * This is a main procedure of the Eclipse plug-in.
@@ -36,11 +43,24 @@ public class ApplyCodeExtractions implements IApplication {
 
 	@Override
 	public Object start(IApplicationContext arg) throws Exception {
-		Display.getDefault(); // This is required to work in OSX systems: the display must be created in the
+		Activator.initDisplay(); // This is required to work in OSX systems: the display must be created in the
 
-		String pathToFileWithSolutions, outputFolder, pathForOutputFile;
 		String[] args = (String[]) arg.getArguments().get("application.args");
 
+		return run(args);
+	}
+
+	/**
+	 * Apply the solutions in a file.
+	 * 
+	 * @param args Arguments of the application.
+	 * @return Exit code of the application.
+	 * @throws IOException   when writing the summary
+	 * @throws CoreException when applying code extractions
+	 */
+	public int run(String[] args) throws IOException, CoreException {
+		String pathToFileWithSolutions, outputFolder, pathForOutputFile;
+
 		// Check the number of arguments given
 		if (args.length != ARGS) {
 			LOGGER.severe("Number of arguments must be " + ARGS + "!");
@@ -54,11 +74,58 @@ public class ApplyCodeExtractions implements IApplication {
 
 		// Read solutions from file
 		List<String> solutionsFromFile = readFile(pathToFileWithSolutions, true);
-		FileWriter fw = new FileWriter(pathForOutputFile);
+		Writer fw = createSummary(pathForOutputFile);
 
-		// Iterate over solutions
+		// Apply solutions (in a workspace batch if enabled)
+		try {
+			WorkspaceBatch.run(ResourcesPlugin.getWorkspace().getRoot(), monitor -> {
+				try {
+					applySolutions(solutionsFromFile, fw);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		fw.close();
+
+		return IApplication.EXIT_OK;
+	}
+
+	/**
+	 * Create the writer for the summary file.
+	 * 
+	 * @param pathForOutputFile Path of the summary file.
+	 * @return The writer.
+	 * @throws IOException when creating the file
+	 */
+	protected Writer createSummary(String pathForOutputFile) throws IOException {
+		return new FileWriter(pathForOutputFile);
+	}
+
+	/**
+	 * Apply the given solutions, writing a line in the summary for each one.
+	 * 
+	 * @param solutionsFromFile Solutions read from file.
+	 * @param fw                Writer for the summary file.
+	 * @throws IOException   when writing the summary
+	 * @throws CoreException when applying code extractions
+	 */
+	private void applySolutions(List<String> solutionsFromFile, Writer fw) throws IOException, CoreException {
+		// Files of the solutions in order
+		List<String> pathsToFilesInWorkspace = new ArrayList<>();
 		for (String s : solutionsFromFile) {
 			String[] tokens = s.split(";");
+			pathsToFilesInWorkspace.add(tokens[0] + File.separatorChar + tokens[2]);
+		}
+		Set<String> parsedFiles = new LinkedHashSet<>();
+
+		// Iterate over solutions
+		for (int i = 0; i < solutionsFromFile.size(); i++) {
+			String s = solutionsFromFile.get(i);
+			String[] tokens = s.split(";");
 
 			String projectNameInWorkspace = tokens[0];
 			String className = tokens[2];
@@ -67,7 +134,22 @@ public class ApplyCodeExtractions implements IApplication {
 
 			String pathToFileInWorkspace = projectNameInWorkspace + File.separatorChar + className;
 			System.out.println("Processing (solution) in file " + pathToFileInWorkspace + " ...");
-			CompilationUnit cu = Utils.createCompilationUnitFromFileInWorkspace(pathToFileInWorkspace);
+
+			// Once the files parsed are used up, parse the files of the next solutions at
+			// once, sharing bindings, keeping them in the cache. Once a solution is
+			// applied, its file is parsed again for the next solution of the file
+			// (compilation units of files not modified are reused, see
+			// CompilationUnitCache)
+			if (!parsedFiles.contains(pathToFileInWorkspace)) {
+				parsedFiles.clear();
+				for (int j = i; j < pathsToFilesInWorkspace.size()
+						&& parsedFiles.size() < Constants.PARSING_BATCH_SIZE; j++) {
+					parsedFiles.add(pathsToFilesInWorkspace.get(j));
+				}
+				CompilationUnitCache.getShared().getCompilationUnits(parsedFiles);
+			}
+
+			CompilationUnit cu = CompilationUnitCache.getShared().getCompilationUnit(pathToFileInWorkspace);
 
 			boolean error = Utils.builtWithCompilationErrors(cu);
 			System.out.println("Built with compilation errors? " + error);
@@ -93,9 +175,7 @@ public class ApplyCodeExtractions implements IApplication {
 			sj.add(methodName);
 
 			boolean wasApplied = solution.applyExtractMethodsRefactoring(true);
-			if (wasApplied) {
-				cu = Utils.createCompilationUnitFromFileInWorkspace(pathToFileInWorkspace);
-			}
+			CompilationUnitCache.getShared().invalidate(pathToFileInWorkspace);
 
 			String applied = (wasApplied) ? "YES" : "NO";
 			fw.write(applied);
@@ -106,10 +186,6 @@ public class ApplyCodeExtractions implements IApplication {
 			fw.write("\n");
 			fw.flush();
 		}
-
-		fw.close();
-
-		return IApplication.EXIT_OK;
 	}
 
 	private List<String> readFile(String file, boolean hasHeader) {
@@ -18,6 +18,15 @@ public class Constants {
 
 	public static final String TEXT_RANGE = "textRange";
 
+	// Slot of a node in the table of accumulated components of complexity of its method (see ComplexityTable)
+	public static final String COMPLEXITY_TABLE_SLOT = "complexityTableSlot";
+
+	// Position of a sentence in the prefix sums of metrics of its block (see BlockMetrics)
+	public static final String BLOCK_METRICS_SLOT = "blockMetricsSlot";
+
+	// Index from offsets to the nodes of a compilation unit (see OffsetIndex)
+	public static final String OFFSET_INDEX = "offsetIndex";
+
 	public static final String COMPLEXITY_WHEN_EXTRACTING = "complexityWhenExtracting";
 	// Output folder for generated reports. You can override with -Dreducecc.output=<path>
 	public static final String OUTPUT_FOLDER = System.getProperty(
@@ -25,6 +34,76 @@ public class Constants {
 			System.getProperty("user.home").replace('\\', '/') + "/ReduceCognitiveComplexity/experiments/");
 	public static final String FILE = "results.txt";
 	public static final String FILE_VALIDATION = "validation-results.txt";
+	public static final String JOURNAL_FILE = "journal.txt";
+
+	// Resume an interrupted run: methods in its journal are not processed again (their results are kept) and
+	// the refactoring caches it wrote are reused. You can enable it with -Dreducecc.resume=true
+	public static final boolean RESUME = Boolean.getBoolean("reducecc.resume");
+
+	// Record the answers of the oracle for each method (see OracleRecording), so its search can be replayed
+	// without Eclipse by ReplayApplication. You can enable it with -Dreducecc.record=true
+	public static final boolean RECORD = Boolean.getBoolean("reducecc.record");
+
+	// Write the time of each phase and the resources (CPU time, allocated bytes and garbage collections) spent
+	// processing each method to a JSON file next to its solution (see MethodProfile). You can enable it with
+	// -Dreducecc.profile=true
+	public static final boolean PROFILE = Boolean.getBoolean("reducecc.profile");
+
+	// Source of cognitive complexity issues: "sonar" queries the SONAR Web API and "local" computes them
+	// from the AST of the files in the workspace project. You can override with -Dreducecc.issues=<source>
+	public static final String ISSUES_FROM_SONAR = "sonar";
+	public static final String ISSUES_FROM_JDT = "local";
+	public static final String ISSUES_SOURCE = System.getProperty("reducecc.issues", ISSUES_FROM_SONAR);
+
+	// Run the phases performing code extractions in a single workspace operation, with auto-building
+	// turned off. You can enable it with -Dreducecc.workspaceBatch=true
+	public static final boolean WORKSPACE_BATCH = Boolean.getBoolean("reducecc.workspaceBatch");
+
+	// Check compilation errors after a code extraction only in the edited methods (instead of resolving the
+	// whole compilation unit). You can enable it with -Dreducecc.focalVerification=true
+	public static final boolean FOCAL_VERIFICATION = Boolean.getBoolean("reducecc.focalVerification");
+
+	// Diff restricting the methods to process to the ones it changes: a file in unified format or revisions
+	// of the local git repository of the project (as given to "git diff", e.g. main..HEAD). You can set it
+	// with -Dreducecc.diff=<diff>
+	public static final String DIFF = System.getProperty("reducecc.diff");
+
+	// Process methods by decreasing benefit (complexity above MAX_COMPLEXITY) per estimated cost, instead of in
+	// the order they are reported. You can enable it with -Dreducecc.prioritize=true
+	public static final boolean PRIORITIZE_METHODS = Boolean.getBoolean("reducecc.prioritize");
+
+	// Time budget in seconds to process methods (0 for no budget): methods not fitting in the remaining time
+	// are skipped. You can set it with -Dreducecc.budget=<seconds>
+	public static final long TIME_BUDGET = Long.getLong("reducecc.budget", 0);
+
+	// Deadlines in seconds (0 for no deadline) to process a method (fill its refactoring cache and search) and
+	// for each call to the oracle. When the deadline of a method is reached, the best solution found so far is
+	// kept. You can set them with -Dreducecc.methodTimeout=<seconds> and -Dreducecc.oracleTimeout=<seconds>
+	public static final long METHOD_TIMEOUT = Long.getLong("reducecc.methodTimeout", 0);
+	public static final long ORACLE_TIMEOUT = Long.getLong("reducecc.oracleTimeout", 0);
+
+	// Number of files parsed at once (sharing bindings) when processing classes with issues
+	public static final int PARSING_BATCH_SIZE = 100;
+
+	// Run without creating the SWT display (e.g. machines without a display), although the UI bundles are still
+	// loaded. You can enable it with -Dreducecc.headless=true
+	public static final boolean HEADLESS = Boolean.getBoolean("reducecc.headless");
+
+	// Milliseconds to wait for more changes after a file is saved in watch mode
+	public static final int WATCH_DELAY = 300;
+
+	// Local port where the daemon application accepts jobs. You can override with -Dreducecc.daemonPort=<port>
+	public static final int DAEMON_PORT = Integer.getInteger("reducecc.daemonPort", 7777);
+
+	// Maximum number of files whose refactoring caches the daemon keeps between jobs (least recently used ones
+	// are discarded). You can override with -Dreducecc.analysisCacheFiles=<files>
+	public static final int ANALYSIS_CACHE_FILES = Integer.getInteger("reducecc.analysisCacheFiles", 1000);
+
+	// Maximum estimated size in MB of the ASTs of the parsed compilation units kept between uses (0 to keep
+	// none), by default a quarter of the maximum heap. Bindings are not estimated, so the heap used can be
+	// larger. You can override with -Dreducecc.astCacheMB=<MB>
+	public static final long AST_CACHE_BUDGET = Long.getLong("reducecc.astCacheMB",
+			Runtime.getRuntime().maxMemory() / 4 / (1024 * 1024)) * 1024 * 1024;
 
 	public static final String EXHAUSTIVE_SEARCH_LONG_SEQUENCES_FIRST = "ES-LSF";
 	public static final String EXHAUSTIVE_SEARCH_SHORT_SEQUENCES_FIRST = "ES-SSF";
@@ -0,0 +1,212 @@
+package neo.reducecognitivecomplexity;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import neo.reducecognitivecomplexity.algorithms.Solution;
+import neo.reducecognitivecomplexity.jdt.AnalysisCache;
+import neo.reducecognitivecomplexity.profiling.MethodProfile;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+
+/**
+ * This is a main procedure of the Eclipse plug-in that stays resident and runs
+ * jobs of the other applications, so the workspace, parsed compilation units
+ * (see {@link neo.reducecognitivecomplexity.jdt.CompilationUnitCache}) and
+ * refactoring caches (see {@link AnalysisCache}) are reused between jobs.
+ * <p>
+ * The application has 1 optional argument: the local port where jobs are
+ * accepted ({@link Constants#DAEMON_PORT} by default). Each connection sends a
+ * single ";"-separated line with a job:
+ * <ul>
+ * <li>analyze;sonarServer;projectNameInSonar;token;projectNameInWorkspace;algorithm
+ * (arguments of {@link Application})</li>
+ * <li>apply;fileWithSolutions;outputFolder (arguments of
+ * {@link ApplyCodeExtractions})</li>
+ * <li>shutdown</li>
+ * </ul>
+ * The lines written to the results file (or to the summary file) are streamed
+ * back as they are produced. The last line is "OK;exitCode" or "ERROR;message".
+ * Jobs are run one after another.
+ */
+public class DaemonApplication implements IApplication {
+	private static final Logger LOGGER = Logger.getLogger(DaemonApplication.class.getName());
+
+	private final AnalysisCache analysisCache = new AnalysisCache(Constants.ANALYSIS_CACHE_FILES);
+	private ServerSocket serverSocket;
+
+	@Override
+	public Object start(IApplicationContext arg) throws Exception {
+		Activator.initDisplay(); // This is required to work in OSX systems: the display must be created in the
+		// main thread
+
+		String[] args = (String[]) arg.getArguments().get("application.args");
+		int port = (args != null && args.length > 0) ? Integer.parseInt(args[0]) : Constants.DAEMON_PORT;
+
+		serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		LOGGER.info("Waiting for jobs on port " + serverSocket.getLocalPort() + " ...");
+
+		boolean shutdown = false;
+		while (!shutdown) {
+			try (Socket socket = serverSocket.accept()) {
+				shutdown = serve(socket);
+			} catch (SocketException e) {
+				// The server socket was closed by stop()
+				shutdown = serverSocket.isClosed();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		if (!serverSocket.isClosed()) {
+			serverSocket.close();
+		}
+		analysisCache.clear();
+
+		return IApplication.EXIT_OK;
+	}
+
+	/**
+	 * Run the job sent through a connection.
+	 *
+	 * @return true if the daemon must shut down.
+	 */
+	private boolean serve(Socket socket) throws IOException {
+		BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+		Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+		String line = in.readLine();
+		if (line == null) {
+			return false;
+		}
+
+		String[] tokens = line.trim().split(";", -1);
+		String[] args = Arrays.copyOfRange(tokens, 1, tokens.length);
+		LOGGER.info("Running job '" + tokens[0] + "' ...");
+
+		boolean shutdown = false;
+		try {
+			int exitCode;
+			switch (tokens[0]) {
+			case "analyze":
+				exitCode = analyze(args, out);
+				break;
+			case "apply":
+				exitCode = apply(args, out);
+				break;
+			case "shutdown":
+				exitCode = IApplication.EXIT_OK;
+				shutdown = true;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown job '" + tokens[0] + "'");
+			}
+			out.write("OK;" + exitCode + "\n");
+		} catch (Exception e) {
+			e.printStackTrace();
+			out.write("ERROR;" + String.valueOf(e.getMessage()).replace('\n', ' ') + "\n");
+		}
+		out.flush();
+
+		return shutdown;
+	}
+
+	/**
+	 * Run {@link Application}, streaming the lines of the results file.
+	 */
+	private int analyze(String[] args, Writer out) {
+		Application application = new Application() {
+			@Override
+			protected void createResultsFile() throws IOException {
+				super.createResultsFile();
+				bf = new BufferedWriter(new TeeWriter(bf, out));
+			}
+
+			@Override
+			protected Solution processMethod(String classWithIssues, CompilationUnit compilationUnit, ASTNode ast,
+					List<ASTNode> auxList, RefactoringCache refactoringCache, MethodProfile profile)
+					throws IOException {
+				Solution result = super.processMethod(classWithIssues, compilationUnit, ast, auxList,
+						refactoringCache, profile);
+				bf.flush();
+				return result;
+			}
+		};
+		application.analysisCache = analysisCache;
+
+		return application.run(args);
+	}
+
+	/**
+	 * Run {@link ApplyCodeExtractions}, streaming the lines of the summary file.
+	 */
+	private int apply(String[] args, Writer out) throws Exception {
+		ApplyCodeExtractions application = new ApplyCodeExtractions() {
+			@Override
+			protected Writer createSummary(String pathForOutputFile) throws IOException {
+				return new TeeWriter(super.createSummary(pathForOutputFile), out);
+			}
+		};
+
+		return application.run(args);
+	}
+
+	@Override
+	public void stop() {
+		try {
+			if (serverSocket != null) {
+				serverSocket.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write to a file and copy everything to the connection. Closing it only
+	 * closes the file.
+	 */
+	private static class TeeWriter extends Writer {
+		private final Writer file;
+		private final Writer copy;
+
+		TeeWriter(Writer file, Writer copy) {
+			this.file = file;
+			this.copy = copy;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			file.write(cbuf, off, len);
+			copy.write(cbuf, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			file.flush();
+			copy.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			file.close();
+			copy.flush();
+		}
+	}
+}
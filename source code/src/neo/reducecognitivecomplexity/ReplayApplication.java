@@ -0,0 +1,124 @@
+package neo.reducecognitivecomplexity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import neo.reducecognitivecomplexity.jdt.ComplexityTable;
+import neo.reducecognitivecomplexity.profiling.MethodProfile;
+import neo.reducecognitivecomplexity.profiling.MethodProfile.Phase;
+import neo.reducecognitivecomplexity.refactoringcache.OracleRecording;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+import neo.reducecognitivecomplexity.refactoringcache.ReplayOracle;
+
+/**
+ * Main procedure to replay the search of recorded methods (see
+ * {@link OracleRecording} and {@link Constants#RECORD}) without Eclipse (no
+ * OSGi framework nor workspace, only the JDT parser). The application has 2
+ * arguments: (1) the folder containing the recordings, and (2) algorithm to run
+ * for the search of refactoring opportunities. Optionally, (3) the name of the
+ * project used in output files ("replay" by default).
+ * <p>
+ * The recorded source is parsed and annotated again, and the oracle answers
+ * with the recorded answers (see {@link ReplayOracle}), so the search of the
+ * same algorithm gives the same results than the recorded run. Other
+ * algorithms can be evaluated on the same inputs, although code extractions
+ * not evaluated by the recorded run are unfeasible. Results are written to the
+ * same files than {@link Application}.
+ */
+public class ReplayApplication extends Application {
+	private static final Logger LOGGER = Logger.getLogger(ReplayApplication.class.getName());
+	private static final int MIN_ARGS = 2;
+
+	private OracleRecording recording;
+
+	public static void main(String[] args) throws IOException {
+		// Check the number of arguments given
+		if (args.length < MIN_ARGS) {
+			LOGGER.severe("Usage: ReplayApplication <recordingsFolder> <algorithm> [projectName]");
+			System.exit(-1);
+		}
+
+		ReplayApplication application = new ReplayApplication();
+		application.algorithmName = args[1];
+		application.projectNameInWorkspace = (args.length > MIN_ARGS) ? args[2] : "replay";
+
+		application.createResultsFile();
+		application.run(Paths.get(args[0]));
+		application.bf.close();
+	}
+
+	/**
+	 * Replay the search of all recordings in a folder (in the order of their
+	 * file names).
+	 *
+	 * @param recordingsFolder Folder containing the recordings.
+	 * @throws IOException when reading recordings or writing output files
+	 */
+	public void run(Path recordingsFolder) throws IOException {
+		List<Path> recordings;
+		try (Stream<Path> paths = Files.list(recordingsFolder)) {
+			recordings = paths.filter(p -> p.getFileName().toString().endsWith(OracleRecording.EXTENSION)).sorted()
+					.collect(Collectors.toList());
+		}
+		LOGGER.info("Replaying " + recordings.size() + " recorded methods in " + recordingsFolder + " ...");
+
+		for (Path file : recordings) {
+			replay(file);
+		}
+	}
+
+	/**
+	 * Replay the search of a recorded method.
+	 */
+	private void replay(Path file) throws IOException {
+		recording = OracleRecording.read(file);
+		MethodProfile profile = new MethodProfile();
+		profile.start(Phase.PARSE);
+		CompilationUnit compilationUnit = recording.parse();
+		profile.start(Phase.ANNOTATION);
+		List<ASTNode> contributors = new ArrayList<>();
+		MethodDeclaration method = recording.annotate(compilationUnit, contributors);
+		if (method == null) {
+			LOGGER.severe("Method '" + recording.getMethodName() + "' of recording " + file
+					+ " is not found in the recorded source");
+			return;
+		}
+
+		ReplayOracle oracle = new ReplayOracle(recording);
+		processMethod(recording.getClassWithIssues(), compilationUnit, method, contributors,
+				new RefactoringCache(compilationUnit, oracle), profile);
+
+		// The AST is the recorded one if its complexity and blocks of sentences are
+		// the same
+		List<int[][]> blocks = OracleRecording.getBlocks(method);
+		if (ComplexityTable.getAccumulatedComplexity(method) != recording.getComplexity()
+				|| !Arrays.deepEquals(blocks.toArray(), recording.getBlocks().toArray())) {
+			LOGGER.warning("The AST of method '" + recording.getMethodName()
+					+ "' is not the recorded one: the replay could differ from the recorded run");
+		}
+		if (oracle.getMisses() > 0) {
+			LOGGER.warning(oracle.getMisses() + " of " + oracle.getCalls() + " code extractions of method '"
+					+ recording.getMethodName() + "' were not recorded (they are considered unfeasible)");
+		}
+	}
+
+	/**
+	 * Get the recorded source.
+	 */
+	@Override
+	protected String getSource(String classWithIssues, CompilationUnit compilationUnit) {
+		return (recording != null) ? recording.getSource() : null;
+	}
+}
@@ -0,0 +1,175 @@
+package neo.reducecognitivecomplexity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityVisitor;
+import neo.reducecognitivecomplexity.jdt.StructuralExtractionOracle;
+import neo.reducecognitivecomplexity.profiling.MethodProfile;
+import neo.reducecognitivecomplexity.profiling.MethodProfile.Phase;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+
+/**
+ * Main procedure to run without Eclipse (no OSGi framework nor workspace). The
+ * application has 3 arguments: (1) the folder containing the source code, (2)
+ * the classpath of the source code (entries separated by the path separator of
+ * the system, it can be empty), and (3) algorithm to run for the search of
+ * refactoring opportunities. Optionally, (4) the name of the project used in
+ * output files (the name of the source folder by default).
+ * <p>
+ * Files are parsed with {@link ASTParser#setEnvironment}, so bindings are
+ * resolved, and cognitive complexity issues are computed locally. As
+ * refactorings can not be performed without a workspace, the feasibility of
+ * code extractions is decided by the {@link StructuralExtractionOracle}.
+ * Results are written to the same files than {@link Application}.
+ */
+public class StandaloneApplication extends Application {
+	private static final Logger LOGGER = Logger.getLogger(StandaloneApplication.class.getName());
+	private static final int MIN_ARGS = 3;
+
+	private Path sourceFolder;
+
+	/**
+	 * Profile of the next method processed (files are parsed as they are
+	 * requested)
+	 */
+	private MethodProfile profile;
+
+	public static void main(String[] args) throws IOException {
+		// Check the number of arguments given
+		if (args.length < MIN_ARGS) {
+			LOGGER.severe("Usage: StandaloneApplication <sourceFolder> <classpath> <algorithm> [projectName]");
+			System.exit(-1);
+		}
+
+		Path sourceFolder = Paths.get(args[0]).toAbsolutePath();
+		String[] classpath = args[1].isEmpty() ? new String[0] : args[1].split(File.pathSeparator);
+
+		StandaloneApplication application = new StandaloneApplication();
+		application.algorithmName = args[2];
+		application.projectNameInWorkspace = (args.length > MIN_ARGS) ? args[3]
+				: sourceFolder.getFileName().toString();
+
+		application.createResultsFile();
+		application.run(sourceFolder, classpath);
+		application.bf.close();
+	}
+
+	/**
+	 * Search refactoring opportunities for the cognitive complex methods of all
+	 * Java files in a folder.
+	 *
+	 * @param sourceFolder Folder containing the source code.
+	 * @param classpath    Classpath entries needed to resolve bindings.
+	 * @throws IOException when reading files or writing output files
+	 */
+	public void run(Path sourceFolder, String[] classpath) throws IOException {
+		this.sourceFolder = sourceFolder;
+
+		List<String> javaFiles;
+		try (Stream<Path> paths = Files.walk(sourceFolder)) {
+			javaFiles = paths.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".java"))
+					.map(Path::toString).collect(Collectors.toList());
+		}
+		LOGGER.info("Parsing " + javaFiles.size() + " Java files under " + sourceFolder + " ...");
+
+		Map<String, String> options = JavaCore.getOptions();
+		JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), options);
+
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setCompilerOptions(options);
+		parser.setResolveBindings(true);
+		parser.setBindingsRecovery(true);
+		parser.setEnvironment(classpath, new String[] { sourceFolder.toString() }, null, true);
+
+		profile = new MethodProfile();
+		profile.start(Phase.PARSE);
+		try {
+			parser.createASTs(javaFiles.toArray(new String[0]), null, new String[0], new FileASTRequestor() {
+				@Override
+				public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
+					String classWithIssues = sourceFolder.relativize(Paths.get(sourceFilePath)).toString()
+							.replace('\\', '/');
+					try {
+						processClass(classWithIssues, compilationUnit);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+			}, null);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Search refactoring opportunities for the cognitive complex methods of a
+	 * class.
+	 */
+	private void processClass(String classWithIssues, CompilationUnit compilationUnit) throws IOException {
+		List<MethodDeclaration> methods = new ArrayList<>();
+		List<List<ASTNode>> contributors = new ArrayList<>();
+
+		// Find cognitive complex methods (methods declared inside are part of their
+		// complexity)
+		profile.start(Phase.ANNOTATION);
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration method) {
+				List<ASTNode> auxList = new ArrayList<>();
+				if (CognitiveComplexityVisitor.annotate(method, auxList) > Constants.MAX_COMPLEXITY) {
+					methods.add(method);
+					contributors.add(auxList);
+				}
+				return false;
+			}
+		});
+
+		if (!methods.isEmpty()) {
+			LOGGER.info("Processing class '" + classWithIssues + "' ...");
+		}
+
+		for (int i = 0; i < methods.size(); i++) {
+			RefactoringCache refactoringCache = new RefactoringCache(compilationUnit,
+					new StructuralExtractionOracle());
+			processMethod(classWithIssues, compilationUnit, methods.get(i), contributors.get(i), refactoringCache,
+					profile);
+			profile = new MethodProfile();
+		}
+		profile.start(Phase.PARSE);
+	}
+
+	/**
+	 * Get the source of a class from its file (compilation units are not
+	 * elements of a workspace).
+	 */
+	@Override
+	protected String getSource(String classWithIssues, CompilationUnit compilationUnit) {
+		try {
+			return new String(Files.readAllBytes(sourceFolder.resolve(classWithIssues)));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+}
@@ -0,0 +1,374 @@
+package neo.reducecognitivecomplexity;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityVisitor;
+import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.jdt.WorkspaceBatch;
+import neo.reducecognitivecomplexity.profiling.MethodProfile;
+import neo.reducecognitivecomplexity.profiling.MethodProfile.Phase;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+
+/**
+ * This is a main procedure of the Eclipse plug-in that watches the files of a
+ * project and searches refactoring opportunities for the cognitive complex
+ * methods that change. The application has 2 arguments: (1) the name of the
+ * Eclipse project in the Eclipse workspace, and (2) algorithm to run for the
+ * search of refactoring opportunities.
+ * <p>
+ * When the application starts, the source of the cognitive complex methods of
+ * the project is recorded (no search is run). Then, each time a Java file is
+ * saved, complexity is computed locally and only the cognitive complex methods
+ * whose source is not the recorded one are processed. Files are watched with a
+ * {@link WatchService}, so changes made out of Eclipse are noticed. Results are
+ * appended to the results file as methods are processed.
+ */
+public class WatchApplication extends Application {
+	private static final Logger LOGGER = Logger.getLogger(WatchApplication.class.getName());
+	private static final int ARGS = 2;
+
+	private Path projectLocation;
+	private WatchService watchService;
+	private final Map<WatchKey, Path> watchedFolders = new HashMap<>();
+
+	/**
+	 * Source of each file, as it was last processed.
+	 */
+	private final Map<String, String> fileSources = new ConcurrentHashMap<>();
+
+	/**
+	 * Source of the cognitive complex methods of each file, as they were last
+	 * processed.
+	 */
+	private final Map<String, Map<String, String>> methodSources = new ConcurrentHashMap<>();
+
+	@Override
+	public Object start(IApplicationContext arg) throws Exception {
+		Activator.initDisplay(); // This is required to work in OSX systems: the display must be created in the
+		// main thread
+
+		String[] args = (String[]) arg.getArguments().get("application.args");
+
+		// Check the number of arguments given
+		if (args.length != ARGS) {
+			LOGGER.severe("Number of arguments must be " + ARGS + "!");
+			return -1;
+		}
+
+		// Read app arguments
+		projectNameInWorkspace = args[0];
+		algorithmName = args[1];
+
+		IResource project = ResourcesPlugin.getWorkspace().getRoot().findMember(projectNameInWorkspace);
+		if (project == null || project.getLocation() == null) {
+			LOGGER.severe("Project '" + projectNameInWorkspace + "' not found in the workspace!");
+			return -1;
+		}
+		projectLocation = project.getLocation().toFile().toPath();
+
+		createResultsFile();
+		bf.flush();
+
+		watchService = FileSystems.getDefault().newWatchService();
+		try {
+			recordProject(project);
+			LOGGER.info("Watching " + projectLocation + " ...");
+
+			// Run until the application is stopped (the watch service is closed)
+			while (true) {
+				Set<String> changedFiles = waitForChanges();
+				if (changedFiles.isEmpty()) {
+					continue;
+				}
+				WorkspaceBatch.run(project, monitor -> {
+					try {
+						for (String classWithIssues : changedFiles) {
+							processChangedFile(classWithIssues);
+						}
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		} catch (ClosedWatchServiceException e) {
+			// The application was stopped
+		} catch (IOException | UncheckedIOException | CoreException e) {
+			e.printStackTrace();
+		} finally {
+			watchService.close();
+			bf.close();
+		}
+
+		return IApplication.EXIT_OK;
+	}
+
+	@Override
+	public void stop() {
+		try {
+			if (watchService != null) {
+				watchService.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Register the folders of the project in the watch service and record the
+	 * source of all cognitive complex methods. Sources are the ones of the Java
+	 * model (as when changed files are processed), so offsets in their ASTs are
+	 * offsets in the recorded sources.
+	 */
+	private void recordProject(IResource project) throws IOException, CoreException {
+		project.refreshLocal(IResource.DEPTH_INFINITE, null);
+
+		List<Path> javaFiles;
+		try (Stream<Path> paths = Files.walk(projectLocation)) {
+			javaFiles = paths.filter(p -> !isHidden(p)).peek(this::register)
+					.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".java"))
+					.collect(Collectors.toList());
+		}
+		LOGGER.info("Recording " + javaFiles.size() + " Java files under " + projectLocation + " ...");
+
+		javaFiles.parallelStream().forEach(file -> {
+			String classWithIssues = projectLocation.relativize(file).toString().replace('\\', '/');
+			IFile resource = project.getWorkspace().getRoot()
+					.getFile(new org.eclipse.core.runtime.Path("/" + projectNameInWorkspace + "/" + classWithIssues));
+			ICompilationUnit element = JavaCore.createCompilationUnitFrom(resource);
+			if (element == null) {
+				return;
+			}
+
+			try {
+				String source = element.getSource();
+
+				// Parsed with the compiler options of the project
+				ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+				parser.setKind(ASTParser.K_COMPILATION_UNIT);
+				parser.setSource(element);
+				CompilationUnit compilationUnit = (CompilationUnit) parser.createAST(null);
+
+				Map<String, String> sources = new HashMap<>();
+				findCognitiveComplexMethods(compilationUnit)
+						.forEach((method, contributors) -> sources.put(key(method), sourceOf(method, source)));
+
+				fileSources.put(classWithIssues, source);
+				methodSources.put(classWithIssues, sources);
+			} catch (JavaModelException e) {
+				e.printStackTrace();
+			}
+		});
+	}
+
+	/**
+	 * Wait until some Java file changes. Changes notified during
+	 * {@link Constants#WATCH_DELAY} milliseconds after a change are gathered, so
+	 * files are processed once they have been completely saved.
+	 *
+	 * @return Changed files (relative to the project location).
+	 */
+	private Set<String> waitForChanges() throws InterruptedIOException {
+		Set<String> result = new TreeSet<>();
+
+		try {
+			WatchKey key = watchService.take();
+			while (key != null) {
+				Path folder = watchedFolders.get(key);
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW || folder == null) {
+						continue;
+					}
+
+					Path path = folder.resolve((Path) event.context());
+					if (isHidden(path)) {
+						continue;
+					}
+					if (Files.isDirectory(path)) {
+						// New folders are watched too (files saved in them are notified later)
+						try (Stream<Path> paths = Files.walk(path)) {
+							paths.filter(p -> Files.isDirectory(p) && !isHidden(p)).forEach(this::register);
+						} catch (IOException e) {
+							e.printStackTrace();
+						}
+					} else if (path.toString().endsWith(".java")) {
+						result.add(projectLocation.relativize(path).toString().replace('\\', '/'));
+					}
+				}
+				if (!key.reset()) {
+					watchedFolders.remove(key);
+				}
+
+				key = watchService.poll(Constants.WATCH_DELAY, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Search refactoring opportunities for the cognitive complex methods of a file
+	 * which changed since they were last processed.
+	 *
+	 * @param classWithIssues Path of the file relative to the project location.
+	 */
+	private void processChangedFile(String classWithIssues) throws IOException {
+		Path file = projectLocation.resolve(classWithIssues);
+		if (!Files.isRegularFile(file)) {
+			fileSources.remove(classWithIssues);
+			methodSources.remove(classWithIssues);
+			return;
+		}
+
+		String relativePathForFileToProcess = "/" + projectNameInWorkspace + "/" + classWithIssues;
+		MethodProfile profile = new MethodProfile();
+		profile.start(Phase.PARSE);
+		CompilationUnit compilationUnit = Utils.createCompilationUnitFromFileInWorkspace(relativePathForFileToProcess);
+		if (compilationUnit == null || compilationUnit.getLength() == 0
+				|| !(compilationUnit.getJavaElement() instanceof ICompilationUnit)) {
+			LOGGER.warning("ERROR WITH COMPILATION UNIT (empty AST). File: " + relativePathForFileToProcess);
+			return;
+		}
+
+		// The source the AST was parsed from (offsets of its nodes are offsets in it).
+		// Code extractions evaluated by the oracle are undone, so the file can be
+		// notified with the same source
+		String source;
+		try {
+			source = ((ICompilationUnit) compilationUnit.getJavaElement()).getSource();
+		} catch (JavaModelException e) {
+			e.printStackTrace();
+			return;
+		}
+		if (source == null || source.equals(fileSources.get(classWithIssues))) {
+			return;
+		}
+
+		Map<String, String> previousSources = methodSources.getOrDefault(classWithIssues, new HashMap<>());
+		Map<String, String> sources = new HashMap<>();
+		profile.start(Phase.ANNOTATION);
+		Map<MethodDeclaration, List<ASTNode>> methods = findCognitiveComplexMethods(compilationUnit);
+		for (Map.Entry<MethodDeclaration, List<ASTNode>> entry : methods.entrySet()) {
+			MethodDeclaration method = entry.getKey();
+			String methodSource = sourceOf(method, source);
+			sources.put(key(method), methodSource);
+
+			if (!methodSource.equals(previousSources.get(key(method)))) {
+				LOGGER.info("Processing changed method '" + key(method) + "' in class '" + classWithIssues + "' ...");
+				processMethod(classWithIssues, compilationUnit, method, entry.getValue(),
+						new RefactoringCache(compilationUnit), profile);
+				bf.flush();
+				profile = new MethodProfile();
+			}
+		}
+
+		fileSources.put(classWithIssues, source);
+		methodSources.put(classWithIssues, sources);
+	}
+
+	/**
+	 * Find the cognitive complex methods of a compilation unit, annotating their
+	 * contribution to complexity.
+	 *
+	 * @return Nodes contributing to complexity of each method.
+	 */
+	private static Map<MethodDeclaration, List<ASTNode>> findCognitiveComplexMethods(
+			CompilationUnit compilationUnit) {
+		Map<MethodDeclaration, List<ASTNode>> result = new LinkedHashMap<>();
+
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration method) {
+				List<ASTNode> contributors = new ArrayList<>();
+				if (CognitiveComplexityVisitor.annotate(method, contributors) > Constants.MAX_COMPLEXITY) {
+					result.put(method, contributors);
+				}
+
+				// Methods declared inside are part of the complexity of this one
+				return false;
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Identify a method in its file: declaring type, name and types in its
+	 * signature.
+	 */
+	private static String key(MethodDeclaration method) {
+		String result = method.getName().getIdentifier() + "(" + String.join(",", Utils.getTypesInSignature(method))
+				+ ")";
+
+		if (method.getParent() instanceof AbstractTypeDeclaration) {
+			result = ((AbstractTypeDeclaration) method.getParent()).getName().getIdentifier() + "." + result;
+		}
+
+		return result;
+	}
+
+	private static String sourceOf(MethodDeclaration method, String source) {
+		return source.substring(method.getStartPosition(), method.getStartPosition() + method.getLength());
+	}
+
+	private void register(Path folder) {
+		if (!Files.isDirectory(folder)) {
+			return;
+		}
+
+		try {
+			watchedFolders.put(folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), folder);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Hidden folders (e.g. .git, .settings) are not watched.
+	 */
+	private boolean isHidden(Path path) {
+		return projectLocation.relativize(path).toString().replace('\\', '/').matches("(.*/)?\\..*");
+	}
+}
@@ -9,8 +9,11 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.Statement;
 
-import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.core.Pair;
+import neo.reducecognitivecomplexity.jdt.BlockMetrics;
 import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
+import neo.reducecognitivecomplexity.jdt.ComplexityTable;
+import neo.reducecognitivecomplexity.jdt.OffsetIndex;
 import neo.reducecognitivecomplexity.jdt.Utils;
 import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
 
@@ -48,9 +51,8 @@ public class Sequence {
 	public Sequence(CompilationUnit compilationUnit, Pair pair) {
 		this.compilationUnit = compilationUnit;
 		
-		this.siblingNodes = new Utils.NodeFinderVisitorForGivenSelection(
-				compilationUnit.getRoot(), pair.getA().intValue(), pair.getB() - pair.getA())
-				.getNodes();
+		this.siblingNodes = OffsetIndex.of(compilationUnit).getSiblingNodes(pair.getA().intValue(),
+				pair.getB() - pair.getA());
 	}
 	
 	/**
@@ -116,7 +118,7 @@ public class Sequence {
 		if (siblingNodes.size() == 0) {
 			return -1;
 		}
-		return Utils.computeNesting(siblingNodes.get(0));
+		return ComplexityTable.getNesting(siblingNodes.get(0));
 	}
 
 	public List<ASTNode> getSiblingNodes() {
@@ -145,8 +147,12 @@ public class Sequence {
 	 * @return Accumulated cognitive complexity of the Sequence
 	 */
 	public int getAccumulatedCognitiveComplexity() {
+		BlockMetrics.Range range = BlockMetrics.getRange(siblingNodes);
+		if (range != null) {
+			return range.getAccumulatedComplexity();
+		}
 		return siblingNodes.stream()
-				.mapToInt(node -> Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_COMPLEXITY)).sum();
+				.mapToInt(ComplexityTable::getAccumulatedComplexity).sum();
 	}
 
 	/**
@@ -166,9 +172,11 @@ public class Sequence {
 	 *         Sequence
 	 */
 	public int getAccumulatedInherentComponent() {
-		return siblingNodes.stream().mapToInt(
-				node -> Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_INHERENT_COMPLEXITY_COMPONENT))
-				.sum();
+		BlockMetrics.Range range = BlockMetrics.getRange(siblingNodes);
+		if (range != null) {
+			return range.getAccumulatedInherentComponent();
+		}
+		return siblingNodes.stream().mapToInt(ComplexityTable::getAccumulatedInherentComponent).sum();
 	}
 
 	/**
@@ -177,8 +185,11 @@ public class Sequence {
 	 * @return Accumulated nesting component of cognitive complexity of the Sequence
 	 */
 	public int getAccumulatedNestingComponent() {
-		return siblingNodes.stream().mapToInt(
-				node -> Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_NESTING_COMPLEXITY_COMPONENT)).sum();
+		BlockMetrics.Range range = BlockMetrics.getRange(siblingNodes);
+		if (range != null) {
+			return range.getAccumulatedNestingComponent();
+		}
+		return siblingNodes.stream().mapToInt(ComplexityTable::getAccumulatedNestingComponent).sum();
 	}
 
 	/**
@@ -187,8 +198,11 @@ public class Sequence {
 	 * @return Number of nesting contributors of the Sequence
 	 */
 	public int getNumberNestingContributors() {
-		return siblingNodes.stream().mapToInt(node -> Utils.getIntegerPropertyOfNode(node,
-				Constants.ACCUMULATED_NUMBER_NESTING_COMPLEXITY_CONTRIBUTORS)).sum();
+		BlockMetrics.Range range = BlockMetrics.getRange(siblingNodes);
+		if (range != null) {
+			return range.getNumberNestingContributors();
+		}
+		return siblingNodes.stream().mapToInt(ComplexityTable::getNumberNestingContributors).sum();
 	}
 
 	/**
@@ -16,13 +16,16 @@ import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
-import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.ltk.core.refactoring.Change;
 
 import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.core.Fitness;
+import neo.reducecognitivecomplexity.core.Pair;
 import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
 import neo.reducecognitivecomplexity.jdt.CodeExtractionMetricsStats;
+import neo.reducecognitivecomplexity.jdt.ComplexityTable;
+import neo.reducecognitivecomplexity.jdt.OffsetIndex;
 import neo.reducecognitivecomplexity.jdt.Utils;
 import neo.reducecognitivecomplexity.jdt.Utils.MethodDeclarationFinderVisitor;
 import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
@@ -94,7 +97,7 @@ public class Solution {
 		this.compilationUnit = compilationUnit;
 		this.method = methodDeclarationNode;
 		this.methodName = ((MethodDeclaration) this.method).getName().toString();
-		this.initialComplexity = Utils.getIntegerPropertyOfNode(method, Constants.ACCUMULATED_COMPLEXITY);
+		this.initialComplexity = ComplexityTable.getAccumulatedComplexity(method);
 		this.fitness = Double.MAX_VALUE;
 	}
 
@@ -110,7 +113,7 @@ public class Solution {
 		this.compilationUnit = compilationUnit;
 		this.method = methodDeclarationNode;
 		this.methodName = ((MethodDeclaration) this.method).getName().toString();
-		this.initialComplexity = Utils.getIntegerPropertyOfNode(method, Constants.ACCUMULATED_COMPLEXITY);
+		this.initialComplexity = ComplexityTable.getAccumulatedComplexity(method);
 		this.fitness = Double.MAX_VALUE;
 	}
 	
@@ -142,8 +145,7 @@ public class Solution {
 			// Create a sequence
 			List<ASTNode> l = new ArrayList<ASTNode>();
 			for (String nodeStartPosition : sequence) {
-				NodeFinder finder = new NodeFinder(compilationUnit, Integer.parseInt(nodeStartPosition), 0);
-				ASTNode node = finder.getCoveringNode();
+				ASTNode node = OffsetIndex.of(compilationUnit).getCoveringNode(Integer.parseInt(nodeStartPosition));
 				l.add(node);
 			}
 			this.sequenceList.add(new Sequence(compilationUnit, l));
@@ -184,84 +186,26 @@ public class Solution {
 	 * @return Metrics of the solution
 	 */
 	public CodeExtractionMetrics evaluate(RefactoringCache rf) {
-		int complexityOfNewExtractedMethod;
 		CodeExtractionMetrics[] metrics = new CodeExtractionMetrics[sequenceList.size()];
+		Fitness result = Fitness.evaluate(this.initialComplexity, Constants.MAX_COMPLEXITY, metrics,
+				i -> sequenceList.get(i).getOffsetAsPair(), i -> sequenceList.get(i).evaluate(rf));
+		fitness = result.getValue();
+		reducedComplexity = result.getReducedComplexity();
+
+		// If a sequence is not feasible, return its metrics
+		if (!result.isFeasible()) {
+			feasible = false;
+			return metrics[result.getUnfeasibleExtraction()];
+		}
+
+		// Accumulate solution metrics (from right to left)
 		CodeExtractionMetrics results = new CodeExtractionMetrics(true, "", false, 0, 0, new ArrayList<Change>(),
 				new ArrayList<Change>());
-		Pair current = null, last = null;
-		fitness = sequenceList.size();
-		reducedComplexity = 0;
-					
-		// The list of sequences is processed from right to left
-		for (int i = sequenceList.size() - 1; i >= 0; i--) {
-			// Evaluate the fitness of the current sequence if not evaluated yet
-			if (metrics[i]==null)
-				metrics[i] = sequenceList.get(i).evaluate(rf);
-
-			// If the sequence is not feasible, return MAX_FITNESS
-			if (!metrics[i].isFeasible()) {
-				fitness = Double.MAX_VALUE;
-				feasible = false;
-				reducedComplexity = 0;
-				return metrics[i];
-			}
-
-			current = sequenceList.get(i).getOffsetAsPair();
-			
-			// Another extraction was applied (we update code extraction offsets if needed)
-			if (last != null) {				
-				// loop for next code extractions in the list
-				int indexOfExtractionWhenUpdatingOffsets = i;
-				Pair currentInNextExtractions = current;
-				
-				while (indexOfExtractionWhenUpdatingOffsets >= 0) {
-					// Check if the current extraction length (second offset) must be adapted
-					if (Pair.isContained(last, currentInNextExtractions)) {
-						if (metrics[indexOfExtractionWhenUpdatingOffsets] == null) 
-							metrics[indexOfExtractionWhenUpdatingOffsets] = sequenceList.get(indexOfExtractionWhenUpdatingOffsets).evaluate(rf);
-
-						//update reduction of cognitive complexity of sequence containing previous sequence
-						metrics[indexOfExtractionWhenUpdatingOffsets].setReductionOfCognitiveComplexity(metrics[indexOfExtractionWhenUpdatingOffsets].getReductionOfCognitiveComplexity()-metrics[i+1].getReductionOfCognitiveComplexity());
-						//update accumulated inherent component of sequence containing previous sequence
-						metrics[indexOfExtractionWhenUpdatingOffsets].setAccumulatedInherentComponent(metrics[indexOfExtractionWhenUpdatingOffsets].getAccumulatedInherentComponent()-metrics[i+1].getAccumulatedInherentComponent());
-						//update number nesting contributors of sequence containing previous sequence
-						metrics[indexOfExtractionWhenUpdatingOffsets].setNumberNestingContributors(metrics[indexOfExtractionWhenUpdatingOffsets].getNumberNestingContributors()-metrics[i+1].getNumberNestingContributors());						
-						//update accumulated nesting components of sequence containing previous sequence
-						metrics[indexOfExtractionWhenUpdatingOffsets].setAccumulatedNestingComponent(metrics[i+1].getNesting()-metrics[indexOfExtractionWhenUpdatingOffsets].getNesting());						
-					} 
-					
-					// moving to next code extraction for next iteration
-					if (indexOfExtractionWhenUpdatingOffsets > 0)
-						currentInNextExtractions = sequenceList.get(indexOfExtractionWhenUpdatingOffsets - 1).getOffsetAsPair();
-					
-					indexOfExtractionWhenUpdatingOffsets--;
-				}
-			}
-			
-			// The sequence might exceed the complexity
-			complexityOfNewExtractedMethod = metrics[i].getCognitiveComplexityOfNewExtractedMethod();
-			// We penalize if the sequence exceeds complexity
-			if (complexityOfNewExtractedMethod > Constants.MAX_COMPLEXITY) {
-				fitness += (complexityOfNewExtractedMethod - Constants.MAX_COMPLEXITY) * 10;
-			}
-			
-			//Accumulate reduced complexity from the initial one so far
-			reducedComplexity += metrics[i].getReductionOfCognitiveComplexity();
-			
-			// Accumulate solution metrics
+		for (int i = metrics.length - 1; i >= 0; i--) {
 			results.joinMetrics(metrics[i]);
-			
-			last = current;
 		}
 
 		this.extractionMetricsStats = new CodeExtractionMetricsStats(metrics);
-		int finalMethodComplexity = this.initialComplexity - reducedComplexity;
-
-		// We penalize when the main method still have more than MAX_COMPLEXITY
-		if (finalMethodComplexity > Constants.MAX_COMPLEXITY) {
-			fitness += (finalMethodComplexity - Constants.MAX_COMPLEXITY) * 10;
-		}
-		
 		feasible = results.isFeasible();
 
 		return results;
@@ -365,7 +309,10 @@ public class Solution {
 		result = "Solution [methodName=" + methodName + ", sequenceList=" + sequenceList + ", isFeasible=" + feasible
 				+ ", fitness=" + fitness + ", reducedComplexity=" + reducedComplexity + "]\n";
 
-		result = result + "COMPILATION UNIT " + this.compilationUnit.getJavaElement().getPath() + "\n";
+		// Compilation units parsed from files out of the workspace have no Java element
+		if (this.compilationUnit.getJavaElement() != null) {
+			result = result + "COMPILATION UNIT " + this.compilationUnit.getJavaElement().getPath() + "\n";
+		}
 		result = result + "Printing sequence list (AST nodes) [" + sequenceList.size() + " code extraction(s)] ...\n";
 
 		int count = 0;
@@ -426,7 +373,7 @@ public class Solution {
 	}
 
 	private int complexityOfSubtreeAfterExtraction(ASTNode root) {
-		final int nodeNesting = Utils.computeNesting(root);
+		final int nodeNesting = ComplexityTable.getNesting(root);
 		CCSubtreeComputer ccSubtreeComputer = new CCSubtreeComputer(nodeNesting, root);
 		root.accept(ccSubtreeComputer);
 		return ccSubtreeComputer.getComplexity();
@@ -458,7 +405,7 @@ public class Solution {
 				return false;
 			}
 
-			int totalCC = Utils.getIntegerPropertyOfNode(node, Constants.CONTRIBUTION_TO_COMPLEXITY);
+			int totalCC = ComplexityTable.getContribution(node);
 			if (totalCC != 0) {
 				if (totalCC > nodeNesting) {
 					complexity += totalCC - nodeNesting;
@@ -564,7 +511,7 @@ public class Solution {
 						// Find call to last code extraction in compilation unit
 						if (lastExtractionCall == null) {
 							// We search for the call to the last code extraction
-							lastExtractionCall = new NodeFinder(compilationUnit, last.getA(), 0).getCoveringNode();
+							lastExtractionCall = OffsetIndex.of(compilationUnit).getCoveringNode(last.getA());
 							while (!(lastExtractionCall instanceof SimpleName)
 									|| (lastExtractionCall instanceof SimpleName)
 											&& !((SimpleName) lastExtractionCall).getIdentifier().equals(methodName)) {
@@ -572,8 +519,8 @@ public class Solution {
 								// etc.). In order to control this, we use the auxiliarLenght variable to store
 								// the number of additional characters added.
 								auxiliarLenght++;
-								lastExtractionCall = new NodeFinder(compilationUnit, last.getA() + auxiliarLenght, 0)
-										.getCoveringNode();
+								lastExtractionCall = OffsetIndex.of(compilationUnit)
+										.getCoveringNode(last.getA() + auxiliarLenght);
 							}
 							if (((SimpleName) lastExtractionCall).getIdentifier().equals(methodName))
 								lastExtractionCall = lastExtractionCall.getParent();
@@ -753,7 +700,7 @@ public class Solution {
 						// Find call to last code extraction in compilation unit
 						if (lastExtractionCall == null) {
 							// We search for the call to the last code extraction
-							lastExtractionCall = new NodeFinder(compilationUnit, last.getA(), 0).getCoveringNode();
+							lastExtractionCall = OffsetIndex.of(compilationUnit).getCoveringNode(last.getA());
 							while (!(lastExtractionCall instanceof SimpleName)
 									|| (lastExtractionCall instanceof SimpleName)
 											&& !((SimpleName) lastExtractionCall).getIdentifier().equals(methodName)) {
@@ -761,8 +708,8 @@ public class Solution {
 								// etc.). In order to control this, we use the auxiliarLenght variable to store
 								// the number of additional characters added.
 								auxiliarLenght++;
-								lastExtractionCall = new NodeFinder(compilationUnit, last.getA() + auxiliarLenght, 0)
-										.getCoveringNode();
+								lastExtractionCall = OffsetIndex.of(compilationUnit)
+										.getCoveringNode(last.getA() + auxiliarLenght);
 							}
 							if (((SimpleName) lastExtractionCall).getIdentifier().equals(methodName))
 								lastExtractionCall = lastExtractionCall.getParent();
@@ -907,8 +854,7 @@ public class Solution {
 			// Create a sequence
 			List<ASTNode> l = new ArrayList<ASTNode>();
 			for (String nodeStartPosition : sequence) {
-				NodeFinder finder = new NodeFinder(cu, Integer.parseInt(nodeStartPosition), 0);
-				ASTNode node = finder.getCoveringNode();
+				ASTNode node = OffsetIndex.of(cu).getCoveringNode(Integer.parseInt(nodeStartPosition));
 				l.add(node);
 			}
 			sequenceList.add(new Sequence(cu, l));
@@ -2,43 +2,63 @@ package neo.reducecognitivecomplexity.algorithms.exhaustivesearch;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 
 import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.algorithms.Sequence;
 import neo.reducecognitivecomplexity.algorithms.Solution;
+import neo.reducecognitivecomplexity.jdt.MethodModelAdapter;
 import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.core.ModelSearch;
+import neo.reducecognitivecomplexity.core.Pair;
 
 /**
  * Enumerative search for finding solutions ({@link Solution}) to reduce methods
- * cognitive complexity
+ * cognitive complexity. The search is run by {@link ModelSearch} on the model
+ * of the method (see {@link MethodModelAdapter}), asking the refactoring cache
+ * for the feasibility of code extractions.
  */
 public class EnumerativeSearch {
 	private Solution bestSolution;
+	private long evaluations;
 
 	public Solution run(APPROACH approach, BufferedWriter bf, String classWithIssues, CompilationUnit compilationUnit,
-			RefactoringCache refactoringCache, long runtimeToFillRefactoringCache, List<ASTNode> auxList, ASTNode ast, int methodComplexity)
-			throws IOException {
-		bestSolution = null;
+			RefactoringCache refactoringCache, long runtimeToFillRefactoringCache, List<ASTNode> auxList, ASTNode ast, int methodComplexity,
+			IProgressMonitor monitor) throws IOException {
 		int optimo = 0;
 
 		long startTime = System.currentTimeMillis();
-		ExhaustiveEnumerationAlgorithm eea = new ExhaustiveEnumerationAlgorithm(refactoringCache, ast, approach);
+		ModelSearch search = new ModelSearch(MethodModelAdapter.build((MethodDeclaration) ast),
+				MethodModelAdapter.oracle(refactoringCache), approach, Constants.MAX_COMPLEXITY);
+		List<Pair> offsets;
 		try {
-			eea.run(solution -> {
-				Solution sol = new Solution(solution, compilationUnit, ast);
-				sol.evaluate(refactoringCache);
-				if (bestSolution == null || sol.getFitness() < bestSolution.getFitness()) {
-					bestSolution = sol;
-				}
-			}, Constants.MAX_EVALS);
+			offsets = search.run(Constants.MAX_EVALS, monitor::isCanceled);
 		} catch (RuntimeException e) {
-			System.out.print("Optimal " + bestSolution.toString());
+			offsets = search.getBestSolution();
+			System.out.print("Optimal " + offsets);
 			optimo = 1;
 		}
+		evaluations = search.getEvaluations();
+
+		// When the search is stopped before finding any solution, no extraction is
+		// proposed
+		List<Sequence> sequences = new ArrayList<>();
+		if (offsets != null) {
+			for (Pair pair : offsets) {
+				sequences.add(new Sequence(compilationUnit, pair));
+			}
+		}
+		bestSolution = new Solution(sequences, compilationUnit, ast);
+		bestSolution.evaluate(refactoringCache);
+
+		// A deadline reached while filling the refactoring cache or searching
+		int timeout = monitor.isCanceled() ? 1 : 0;
 
 		long runtime = System.currentTimeMillis() - startTime;
 
@@ -66,11 +86,19 @@ public class EnumerativeSearch {
 		bf.append(bestSolution.getExtractionMetricsStats().getTotalNumberOfReductionOfCognitiveComplexity() + ";");
 		bf.append("" + optimo + ";");
 		bf.append(Long.toString(runtimeToFillRefactoringCache) + ";");
-		bf.append(Long.toString(runtime) + "\n");
+		bf.append(Long.toString(runtime) + ";");
+		bf.append(timeout + "\n");
 
 		bf.flush();
 
 		return bestSolution;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Get the number of solutions evaluated by the last run
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+}
@@ -6,13 +6,15 @@ import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.dom.ASTNode;
 
 import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.core.ExhaustiveEnumeration;
 import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
 import neo.reducecognitivecomplexity.refactoringcache.SentenceSequenceIterator;
 import neo.reducecognitivecomplexity.refactoringcache.SentencesSelectorVisitor;
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
 
 public class ExhaustiveEnumerationAlgorithm {
 	private ASTNode method;
@@ -28,7 +30,7 @@ public class ExhaustiveEnumerationAlgorithm {
 		method.accept(sentencesSelectorVisitor);
 	}
 
-	public void run(Consumer<List<Sequence>> consumer, long maxElements) {
+	public void run(Consumer<List<Sequence>> consumer, long maxElements, IProgressMonitor monitor) {
 		List<Iterable<List<Sequence>>> elementsToIterate = sentencesSelectorVisitor.getSentencesToIterate().stream()
 				.map(sequence -> new SentenceSequenceIterator(sequence, refactoringCache, approach))
 				.collect(Collectors.toList());
@@ -41,7 +43,7 @@ public class ExhaustiveEnumerationAlgorithm {
 				return a;
 			});
 			consumer.accept(result);
-		}, maxElements);
+		}, maxElements, monitor::isCanceled);
 
 	}
 
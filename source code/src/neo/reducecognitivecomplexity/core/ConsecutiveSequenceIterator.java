@@ -1,4 +1,4 @@
-package neo.reducecognitivecomplexity.refactoringcache;
+package neo.reducecognitivecomplexity.core;
 
 import java.util.Stack;
 
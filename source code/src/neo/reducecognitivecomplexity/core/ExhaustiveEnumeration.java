@@ -1,12 +1,19 @@
-package neo.reducecognitivecomplexity.algorithms.exhaustivesearch;
+package neo.reducecognitivecomplexity.core;
 
 import java.math.BigInteger;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+/**
+ * Enumeration of all combinations of one element of each iterable, in the
+ * order of the iterables. It has no dependency on Eclipse: the search is
+ * stopped when the given condition holds (e.g. the progress monitor of the
+ * method is canceled).
+ */
 public class ExhaustiveEnumeration<T> {
 
 	private List<Iterable<T>> elementsToIterate;
@@ -21,7 +28,7 @@ public class ExhaustiveEnumeration<T> {
 
 	}
 
-	public void run(Consumer<Stack<T>> consumer, long maxElements) {
+	public void run(Consumer<Stack<T>> consumer, long maxElements, BooleanSupplier canceled) {
 		iterators = new Stack<>();
 		currentElement = new Stack<>();
 		long count = 0;
@@ -34,6 +41,10 @@ public class ExhaustiveEnumeration<T> {
 		}
 
 		while (!iterators.isEmpty()) {
+			// Stop when the search is canceled (at least one element is consumed)
+			if (count > 0 && canceled.getAsBoolean()) {
+				return;
+			}
 			if (iterators.peek().hasNext()) {
 				iterateOverTopIterator();
 				if (validity.test(currentElement)) {
@@ -0,0 +1,80 @@
+package neo.reducecognitivecomplexity.core;
+
+/**
+ * Metrics of a code extraction of a {@link MethodModel}: its feasibility (as
+ * decided by the oracle) and its components of cognitive complexity (as read
+ * from the model).
+ */
+public class Extraction implements ExtractionMetrics {
+	private boolean feasible;
+	private int reductionOfCognitiveComplexity;
+	private int accumulatedInherentComponent;
+	private int accumulatedNestingComponent;
+	private int numberNestingContributors;
+	private int nesting;
+
+	public Extraction(boolean feasible, int reductionOfCognitiveComplexity, int accumulatedInherentComponent,
+			int accumulatedNestingComponent, int numberNestingContributors, int nesting) {
+		this.feasible = feasible;
+		this.reductionOfCognitiveComplexity = reductionOfCognitiveComplexity;
+		this.accumulatedInherentComponent = accumulatedInherentComponent;
+		this.accumulatedNestingComponent = accumulatedNestingComponent;
+		this.numberNestingContributors = numberNestingContributors;
+		this.nesting = nesting;
+	}
+
+	public Extraction(Extraction extraction) {
+		this(extraction.feasible, extraction.reductionOfCognitiveComplexity, extraction.accumulatedInherentComponent,
+				extraction.accumulatedNestingComponent, extraction.numberNestingContributors, extraction.nesting);
+	}
+
+	@Override
+	public boolean isFeasible() {
+		return feasible;
+	}
+
+	@Override
+	public int getReductionOfCognitiveComplexity() {
+		return reductionOfCognitiveComplexity;
+	}
+
+	@Override
+	public void setReductionOfCognitiveComplexity(int reductionOfCognitiveComplexity) {
+		this.reductionOfCognitiveComplexity = reductionOfCognitiveComplexity;
+	}
+
+	@Override
+	public int getAccumulatedInherentComponent() {
+		return accumulatedInherentComponent;
+	}
+
+	@Override
+	public void setAccumulatedInherentComponent(int accumulatedInherentComponent) {
+		this.accumulatedInherentComponent = accumulatedInherentComponent;
+	}
+
+	@Override
+	public int getAccumulatedNestingComponent() {
+		return accumulatedNestingComponent;
+	}
+
+	@Override
+	public void setAccumulatedNestingComponent(int accumulatedNestingComponent) {
+		this.accumulatedNestingComponent = accumulatedNestingComponent;
+	}
+
+	@Override
+	public int getNumberNestingContributors() {
+		return numberNestingContributors;
+	}
+
+	@Override
+	public void setNumberNestingContributors(int numberNestingContributors) {
+		this.numberNestingContributors = numberNestingContributors;
+	}
+
+	@Override
+	public int getNesting() {
+		return nesting;
+	}
+}
@@ -0,0 +1,37 @@
+package neo.reducecognitivecomplexity.core;
+
+/**
+ * Metrics of a code extraction used to compute the fitness of a solution (see
+ * {@link Fitness}). The components of cognitive complexity of an extraction
+ * are updated when it contains another extraction of the solution.
+ */
+public interface ExtractionMetrics {
+	boolean isFeasible();
+
+	int getReductionOfCognitiveComplexity();
+
+	void setReductionOfCognitiveComplexity(int reductionOfCognitiveComplexity);
+
+	int getAccumulatedInherentComponent();
+
+	void setAccumulatedInherentComponent(int accumulatedInherentComponent);
+
+	int getAccumulatedNestingComponent();
+
+	void setAccumulatedNestingComponent(int accumulatedNestingComponent);
+
+	int getNumberNestingContributors();
+
+	void setNumberNestingContributors(int numberNestingContributors);
+
+	int getNesting();
+
+	/**
+	 * Get the cognitive complexity of the method extracted.
+	 *
+	 * @return Accumulated inherent component plus accumulated nesting component.
+	 */
+	default int getCognitiveComplexityOfNewExtractedMethod() {
+		return getAccumulatedInherentComponent() + getAccumulatedNestingComponent();
+	}
+}
@@ -0,0 +1,158 @@
+package neo.reducecognitivecomplexity.core;
+
+import java.util.function.IntFunction;
+
+/**
+ * Fitness of a solution: a list of code extractions sorted by their offsets
+ * (the greater the value the worst).
+ * <p>
+ * The fitness is the number of code extractions, plus a penalty of 10 for each
+ * unit of cognitive complexity over the threshold, both in the extracted
+ * methods and in the method after all extractions. Extractions are processed
+ * from right to left: when an extraction contains the previous one, its
+ * components of cognitive complexity are updated (the code of the previous
+ * one is already extracted). Unfeasible solutions have the maximum fitness.
+ */
+public class Fitness {
+	private double value;
+	private int reducedComplexity;
+	private int unfeasibleExtraction = -1;
+
+	private Fitness() {
+	}
+
+	/**
+	 * Compute the fitness of a solution. Metrics of the extractions are
+	 * evaluated when needed and kept in an array (they are updated, so they must
+	 * not be shared with other solutions).
+	 *
+	 * @param initialComplexity Cognitive complexity of the method.
+	 * @param maxComplexity     Threshold of cognitive complexity.
+	 * @param metrics           Array (one element per extraction) where metrics of
+	 *                          the extractions are kept.
+	 * @param offsets           Offsets of each extraction.
+	 * @param evaluator         Metrics of each extraction.
+	 * @return The fitness of the solution.
+	 */
+	public static <M extends ExtractionMetrics> Fitness evaluate(int initialComplexity, int maxComplexity,
+			M[] metrics, IntFunction<Pair> offsets, IntFunction<M> evaluator) {
+		Fitness result = new Fitness();
+		int complexityOfNewExtractedMethod;
+		Pair current = null, last = null;
+		result.value = metrics.length;
+		result.reducedComplexity = 0;
+
+		// The list of extractions is processed from right to left
+		for (int i = metrics.length - 1; i >= 0; i--) {
+			// Evaluate the current extraction if not evaluated yet
+			if (metrics[i] == null)
+				metrics[i] = evaluator.apply(i);
+
+			// If the extraction is not feasible, return MAX_FITNESS
+			if (!metrics[i].isFeasible()) {
+				result.value = Double.MAX_VALUE;
+				result.reducedComplexity = 0;
+				result.unfeasibleExtraction = i;
+				return result;
+			}
+
+			current = offsets.apply(i);
+
+			// Another extraction was applied (we update code extraction offsets if needed)
+			if (last != null) {
+				// loop for next code extractions in the list
+				int indexOfExtractionWhenUpdatingOffsets = i;
+				Pair currentInNextExtractions = current;
+
+				while (indexOfExtractionWhenUpdatingOffsets >= 0) {
+					// Check if the current extraction length (second offset) must be adapted
+					if (Pair.isContained(last, currentInNextExtractions)) {
+						M metricsToUpdate = metrics[indexOfExtractionWhenUpdatingOffsets];
+						if (metricsToUpdate == null) {
+							metricsToUpdate = evaluator.apply(indexOfExtractionWhenUpdatingOffsets);
+							metrics[indexOfExtractionWhenUpdatingOffsets] = metricsToUpdate;
+						}
+
+						// update reduction of cognitive complexity of extraction containing previous extraction
+						metricsToUpdate.setReductionOfCognitiveComplexity(metricsToUpdate.getReductionOfCognitiveComplexity()
+								- metrics[i + 1].getReductionOfCognitiveComplexity());
+						// update accumulated inherent component of extraction containing previous extraction
+						metricsToUpdate.setAccumulatedInherentComponent(metricsToUpdate.getAccumulatedInherentComponent()
+								- metrics[i + 1].getAccumulatedInherentComponent());
+						// update number nesting contributors of extraction containing previous extraction
+						metricsToUpdate.setNumberNestingContributors(metricsToUpdate.getNumberNestingContributors()
+								- metrics[i + 1].getNumberNestingContributors());
+						// update accumulated nesting components of extraction containing previous extraction
+						metricsToUpdate.setAccumulatedNestingComponent(
+								metrics[i + 1].getNesting() - metricsToUpdate.getNesting());
+					}
+
+					// moving to next code extraction for next iteration
+					if (indexOfExtractionWhenUpdatingOffsets > 0)
+						currentInNextExtractions = offsets.apply(indexOfExtractionWhenUpdatingOffsets - 1);
+
+					indexOfExtractionWhenUpdatingOffsets--;
+				}
+			}
+
+			// The extraction might exceed the complexity
+			complexityOfNewExtractedMethod = metrics[i].getCognitiveComplexityOfNewExtractedMethod();
+			// We penalize if the extraction exceeds complexity
+			if (complexityOfNewExtractedMethod > maxComplexity) {
+				result.value += (complexityOfNewExtractedMethod - maxComplexity) * 10;
+			}
+
+			// Accumulate reduced complexity from the initial one so far
+			result.reducedComplexity += metrics[i].getReductionOfCognitiveComplexity();
+
+			last = current;
+		}
+
+		int finalMethodComplexity = initialComplexity - result.reducedComplexity;
+
+		// We penalize when the main method still have more than maxComplexity
+		if (finalMethodComplexity > maxComplexity) {
+			result.value += (finalMethodComplexity - maxComplexity) * 10;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get the fitness value
+	 *
+	 * @return the quality of the solution (the greater the value the worst)
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	/**
+	 * Get the cognitive complexity reduction if the solution is applied
+	 *
+	 * @return the cognitive complexity reduction (0 if the solution is not
+	 *         feasible)
+	 */
+	public int getReducedComplexity() {
+		return reducedComplexity;
+	}
+
+	/**
+	 * Check if all code extractions of the solution are feasible
+	 *
+	 * @return true if all code extractions are feasible
+	 */
+	public boolean isFeasible() {
+		return unfeasibleExtraction < 0;
+	}
+
+	/**
+	 * Get the first unfeasible code extraction found (from right to left)
+	 *
+	 * @return index of the unfeasible code extraction, or -1 if the solution is
+	 *         feasible
+	 */
+	public int getUnfeasibleExtraction() {
+		return unfeasibleExtraction;
+	}
+}
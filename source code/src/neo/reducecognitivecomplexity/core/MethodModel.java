@@ -0,0 +1,149 @@
+package neo.reducecognitivecomplexity.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model of a method for the search of code extractions, with no dependency on
+ * JDT: the blocks of sibling sentences which can be extracted, given by their
+ * offsets in the source code and the components of cognitive complexity of
+ * each sentence.
+ * <p>
+ * Components of consecutive sentences are kept as prefix sums, so the
+ * components of any code extraction of a block are computed in constant time.
+ */
+public class MethodModel {
+	private final int initialComplexity;
+	private final List<Block> blocks = new ArrayList<>();
+
+	/**
+	 * Block of sibling sentences. Sentences are numbered from 0.
+	 */
+	public static class Block {
+		private final int[] start;
+		private final int[] end;
+		private final boolean[] empty;
+		private final int[] nesting;
+		private final int[] accumulatedComplexity;
+		private final int[] accumulatedInherentComponent;
+		private final int[] accumulatedNestingComponent;
+		private final int[] numberNestingContributors;
+		private int size;
+
+		/**
+		 * Create an empty block
+		 *
+		 * @param capacity Number of sentences of the block.
+		 */
+		public Block(int capacity) {
+			start = new int[capacity];
+			end = new int[capacity];
+			empty = new boolean[capacity];
+			nesting = new int[capacity];
+			accumulatedComplexity = new int[capacity + 1];
+			accumulatedInherentComponent = new int[capacity + 1];
+			accumulatedNestingComponent = new int[capacity + 1];
+			numberNestingContributors = new int[capacity + 1];
+		}
+
+		/**
+		 * Add the next sentence of the block.
+		 *
+		 * @param start                        Offset where the sentence starts.
+		 * @param end                          Offset where the sentence ends.
+		 * @param empty                        If it is an empty statement (it can
+		 *                                     not start or end an extraction).
+		 * @param accumulatedComplexity        Accumulated cognitive complexity.
+		 * @param accumulatedInherentComponent Accumulated inherent component.
+		 * @param accumulatedNestingComponent  Accumulated nesting component.
+		 * @param numberNestingContributors    Number of nesting contributors.
+		 * @param nesting                      Nesting of the sentence.
+		 * @return This block.
+		 */
+		public Block addSentence(int start, int end, boolean empty, int accumulatedComplexity,
+				int accumulatedInherentComponent, int accumulatedNestingComponent, int numberNestingContributors,
+				int nesting) {
+			this.start[size] = start;
+			this.end[size] = end;
+			this.empty[size] = empty;
+			this.nesting[size] = nesting;
+			this.accumulatedComplexity[size + 1] = this.accumulatedComplexity[size] + accumulatedComplexity;
+			this.accumulatedInherentComponent[size + 1] = this.accumulatedInherentComponent[size]
+					+ accumulatedInherentComponent;
+			this.accumulatedNestingComponent[size + 1] = this.accumulatedNestingComponent[size]
+					+ accumulatedNestingComponent;
+			this.numberNestingContributors[size + 1] = this.numberNestingContributors[size]
+					+ numberNestingContributors;
+			size++;
+			return this;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public boolean isEmptyStatement(int sentence) {
+			return empty[sentence];
+		}
+
+		/**
+		 * Get the accumulated cognitive complexity of a sentence
+		 */
+		public int getComplexity(int sentence) {
+			return getAccumulatedComplexity(sentence, sentence);
+		}
+
+		/**
+		 * Get the offsets of the code extraction of sentences from one to another
+		 * (both included)
+		 */
+		public Pair getOffsets(int from, int to) {
+			return new Pair(start[from], end[to]);
+		}
+
+		public int getAccumulatedComplexity(int from, int to) {
+			return accumulatedComplexity[to + 1] - accumulatedComplexity[from];
+		}
+
+		public int getAccumulatedInherentComponent(int from, int to) {
+			return accumulatedInherentComponent[to + 1] - accumulatedInherentComponent[from];
+		}
+
+		public int getAccumulatedNestingComponent(int from, int to) {
+			return accumulatedNestingComponent[to + 1] - accumulatedNestingComponent[from];
+		}
+
+		public int getNumberNestingContributors(int from, int to) {
+			return numberNestingContributors[to + 1] - numberNestingContributors[from];
+		}
+
+		/**
+		 * Get the nesting of the code extraction of sentences from one to another
+		 * (the nesting of the first one)
+		 */
+		public int getNesting(int from, int to) {
+			return nesting[from];
+		}
+	}
+
+	/**
+	 * Create a model with no blocks
+	 *
+	 * @param initialComplexity Cognitive complexity of the method.
+	 */
+	public MethodModel(int initialComplexity) {
+		this.initialComplexity = initialComplexity;
+	}
+
+	public void addBlock(Block block) {
+		blocks.add(block);
+	}
+
+	public List<Block> getBlocks() {
+		return blocks;
+	}
+
+	public int getInitialComplexity() {
+		return initialComplexity;
+	}
+}
@@ -0,0 +1,180 @@
+package neo.reducecognitivecomplexity.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+import java.util.function.BooleanSupplier;
+
+import neo.reducecognitivecomplexity.Utils;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.SentenceSequenceInfo;
+
+/**
+ * Enumerative search of the best solution (list of code extractions) of a
+ * {@link MethodModel}, with no dependency on JDT. It enumerates the same
+ * solutions in the same order as
+ * {@link neo.reducecognitivecomplexity.algorithms.exhaustivesearch.ExhaustiveEnumerationAlgorithm}
+ * does on the AST and evaluates them with the same {@link Fitness}, so it finds
+ * the same best solution when the oracle gives the same answers.
+ * <p>
+ * The oracle is called at most once for each code extraction.
+ */
+public class ModelSearch {
+	/**
+	 * Oracle deciding if the code extraction of the sentences between two offsets
+	 * is feasible.
+	 */
+	@FunctionalInterface
+	public interface FeasibilityOracle {
+		boolean isFeasible(Pair offsets);
+	}
+
+	private final MethodModel model;
+	private final FeasibilityOracle oracle;
+	private final APPROACH approach;
+	private final int maxComplexity;
+	private final Map<Pair, Extraction> cache = new HashMap<>();
+	private int oracleCalls;
+	private long evaluations;
+
+	private List<Pair> bestSolution;
+	private Fitness bestFitness;
+
+	public ModelSearch(MethodModel model, FeasibilityOracle oracle, APPROACH approach, int maxComplexity) {
+		this.model = model;
+		this.oracle = oracle;
+		this.approach = approach;
+		this.maxComplexity = maxComplexity;
+	}
+
+	/**
+	 * Run the search.
+	 *
+	 * @param maxEvaluations Maximum number of solutions evaluated.
+	 * @param canceled       Condition to stop the search (at least one solution is
+	 *                       evaluated).
+	 * @return The best solution found: the offsets of its code extractions.
+	 */
+	public List<Pair> run(long maxEvaluations, BooleanSupplier canceled) {
+		bestSolution = null;
+		bestFitness = null;
+		evaluations = 0;
+
+		List<Iterable<List<Pair>>> elementsToIterate = new ArrayList<>();
+		for (MethodModel.Block block : model.getBlocks()) {
+			ConsecutiveSequenceIterator csi = new ConsecutiveSequenceIterator(info(block), approach);
+			elementsToIterate.add(Utils.adapt(csi.getIterable(), stack -> adapt(block, stack)));
+		}
+
+		ExhaustiveEnumeration<List<Pair>> ee = new ExhaustiveEnumeration<>(elementsToIterate, t -> true);
+		List<Pair> offsets = new ArrayList<>();
+		ee.run(solution -> {
+			offsets.clear();
+			for (List<Pair> blockOffsets : solution) {
+				offsets.addAll(blockOffsets);
+			}
+			evaluate(offsets);
+			evaluations++;
+		}, maxEvaluations, canceled);
+
+		// When the search is stopped before finding any solution, no extraction is
+		// proposed
+		if (bestSolution == null) {
+			evaluate(new ArrayList<>());
+		}
+
+		return bestSolution;
+	}
+
+	private void evaluate(List<Pair> offsets) {
+		// Metrics are copied, the fitness updates them
+		Fitness fitness = Fitness.evaluate(model.getInitialComplexity(), maxComplexity,
+				new Extraction[offsets.size()], offsets::get, i -> new Extraction(cache.get(offsets.get(i))));
+		if (bestFitness == null || fitness.getValue() < bestFitness.getValue()) {
+			bestFitness = fitness;
+			bestSolution = new ArrayList<>(offsets);
+		}
+	}
+
+	/**
+	 * Sentences of a block, as seen by {@link ConsecutiveSequenceIterator}
+	 * (numbered from 1).
+	 */
+	private SentenceSequenceInfo info(MethodModel.Block block) {
+		return new SentenceSequenceInfo() {
+			@Override
+			public int numberOfSentences() {
+				return block.size();
+			}
+
+			@Override
+			public int cognitiveComplexityOfSentence(int sentence) {
+				return block.getComplexity(sentence - 1);
+			}
+
+			@Override
+			public boolean validSequence(int from, int to) {
+				if (block.isEmptyStatement(from - 1) || block.isEmptyStatement(to - 1)) {
+					return false;
+				}
+				return getExtraction(block, from - 1, to - 1).isFeasible();
+			}
+		};
+	}
+
+	private List<Pair> adapt(MethodModel.Block block, Stack<Integer> stack) {
+		List<Pair> result = new ArrayList<>();
+		for (int i = 0; i < stack.size(); i = i + 2) {
+			result.add(block.getOffsets(stack.get(i) - 1, stack.get(i + 1) - 1));
+		}
+		return result;
+	}
+
+	/**
+	 * Get the metrics of the code extraction of sentences from one to another
+	 * (both included), calling the oracle on a miss.
+	 */
+	private Extraction getExtraction(MethodModel.Block block, int from, int to) {
+		Pair key = block.getOffsets(from, to);
+		Extraction result = cache.get(key);
+		if (result == null) {
+			oracleCalls++;
+			result = new Extraction(oracle.isFeasible(key), block.getAccumulatedComplexity(from, to),
+					block.getAccumulatedInherentComponent(from, to), block.getAccumulatedNestingComponent(from, to),
+					block.getNumberNestingContributors(from, to), block.getNesting(from, to));
+			cache.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Get the best solution found so far: the offsets of its code extractions
+	 * (null if no solution was evaluated)
+	 */
+	public List<Pair> getBestSolution() {
+		return bestSolution;
+	}
+
+	/**
+	 * Get the fitness of the best solution found
+	 */
+	public Fitness getBestFitness() {
+		return bestFitness;
+	}
+
+	/**
+	 * Get the number of calls to the oracle
+	 */
+	public int getOracleCalls() {
+		return oracleCalls;
+	}
+
+	/**
+	 * Get the number of solutions evaluated by the last run
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+}
@@ -1,4 +1,4 @@
-package neo.reducecognitivecomplexity.algorithms;
+package neo.reducecognitivecomplexity.core;
 
 /**
  * A pair contains to integers modeling the starting and ending point (offset in
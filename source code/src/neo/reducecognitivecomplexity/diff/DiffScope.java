@@ -0,0 +1,83 @@
+package neo.reducecognitivecomplexity.diff;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityScanner;
+import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.CognitiveComplexMethod;
+
+/**
+ * Restrict the cognitive complex methods to process to the ones changed by a
+ * diff (see {@link UnifiedDiff}).
+ */
+public class DiffScope {
+	private static final Logger LOGGER = Logger.getLogger(DiffScope.class.getName());
+
+	/**
+	 * Keep the cognitive complex methods with some line changed by a diff. Only
+	 * files in the diff are parsed (without bindings) to find the lines of their
+	 * methods.
+	 *
+	 * @param methodsWithIssues Cognitive complex methods of each class (as
+	 *                          returned by
+	 *                          {@link neo.reducecognitivecomplexity.sonar.cognitivecomplexity.ProjectIssues#getCognitiveComplexity}).
+	 * @param diff              The lines changed by the diff.
+	 * @param sourceRoot        Folder where paths of classes are relative to
+	 *                          (usually the project location).
+	 * @return Cognitive complex methods of each class changed by the diff.
+	 * @throws IOException when reading files
+	 */
+	public static Map<String, List<CognitiveComplexMethod>> filter(
+			Map<String, List<CognitiveComplexMethod>> methodsWithIssues, UnifiedDiff diff, Path sourceRoot)
+			throws IOException {
+		Map<String, List<CognitiveComplexMethod>> result = new TreeMap<>();
+		int total = 0, changed = 0;
+
+		for (Map.Entry<String, List<CognitiveComplexMethod>> entry : methodsWithIssues.entrySet()) {
+			total += entry.getValue().size();
+			if (diff.getChangedLines(entry.getKey()).isEmpty()) {
+				continue;
+			}
+
+			CompilationUnit compilationUnit = CognitiveComplexityScanner.parseFile(sourceRoot.resolve(stripLeadingSlash(entry.getKey())));
+			List<CognitiveComplexMethod> methods = new ArrayList<>();
+			for (CognitiveComplexMethod method : entry.getValue()) {
+				// Issues are located at the name of the method
+				ASTNode node = Utils.findNode(compilationUnit, method.getTextRange().getStartLine(),
+						method.getTextRange().getStartOffset());
+				ASTNode declaration = (node != null) ? node.getParent() : null;
+
+				// If the method is not found, the issue is kept (it can not be discarded)
+				if (declaration == null || diff.changed(entry.getKey(),
+						compilationUnit.getLineNumber(declaration.getStartPosition()),
+						compilationUnit.getLineNumber(declaration.getStartPosition() + declaration.getLength() - 1))) {
+					methods.add(method);
+				}
+			}
+
+			if (!methods.isEmpty()) {
+				result.put(entry.getKey(), methods);
+				changed += methods.size();
+			}
+		}
+
+		LOGGER.info("Cognitive complex methods changed by the diff: " + changed + " (over " + total + ")");
+
+		return result;
+	}
+
+	private static String stripLeadingSlash(String path) {
+		String result = path.replace('\\', '/');
+
+		return result.startsWith("/") ? result.substring(1) : result;
+	}
+}
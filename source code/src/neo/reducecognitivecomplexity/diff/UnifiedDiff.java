@@ -0,0 +1,186 @@
+package neo.reducecognitivecomplexity.diff;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Lines changed by a diff in unified format (the format of "git diff"), given
+ * by their line number in the new version of each file.
+ * <p>
+ * Added lines are changed lines. When lines are removed, the line following
+ * them is considered changed, so removing code from a method changes the
+ * method.
+ */
+public class UnifiedDiff {
+	private static final Pattern HUNK_HEADER = Pattern
+			.compile("^@@ -\\d+(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+
+	private final Map<String, BitSet> changedLines;
+
+	private UnifiedDiff(Map<String, BitSet> changedLines) {
+		this.changedLines = changedLines;
+	}
+
+	/**
+	 * Parse a diff in unified format.
+	 *
+	 * @param lines Lines of the diff.
+	 * @return The lines changed by the diff.
+	 */
+	public static UnifiedDiff parse(List<String> lines) {
+		Map<String, BitSet> result = new TreeMap<>();
+		BitSet currentFile = null;
+		int newLine = 0, oldRemaining = 0, newRemaining = 0;
+
+		for (String line : lines) {
+			if (oldRemaining > 0 || newRemaining > 0) {
+				// Line in the body of a hunk
+				if (line.startsWith("+")) {
+					markChanged(currentFile, newLine);
+					newLine++;
+					newRemaining--;
+				} else if (line.startsWith("-")) {
+					markChanged(currentFile, newLine);
+					oldRemaining--;
+				} else if (!line.startsWith("\\")) {
+					// Context line ("\ No newline at end of file" is not a line)
+					newLine++;
+					oldRemaining--;
+					newRemaining--;
+				}
+				continue;
+			}
+
+			Matcher hunk = HUNK_HEADER.matcher(line);
+			if (line.startsWith("+++ ")) {
+				String path = line.substring(4).split("\t")[0].trim();
+				// Deleted files have no lines in the new version
+				currentFile = path.equals("/dev/null") ? null : result.computeIfAbsent(path, k -> new BitSet());
+			} else if (hunk.matches()) {
+				oldRemaining = count(hunk.group(1));
+				newLine = Integer.parseInt(hunk.group(2));
+				newRemaining = count(hunk.group(3));
+				if (newRemaining == 0) {
+					// Only removed lines: the hunk is located after the given line
+					newLine++;
+				}
+			}
+		}
+
+		return new UnifiedDiff(result);
+	}
+
+	private static int count(String group) {
+		return (group == null) ? 1 : Integer.parseInt(group);
+	}
+
+	private static void markChanged(BitSet file, int line) {
+		if (file != null) {
+			file.set(line);
+		}
+	}
+
+	/**
+	 * Read a diff in unified format from a file.
+	 *
+	 * @param file The file containing the diff.
+	 * @return The lines changed by the diff.
+	 * @throws IOException when reading the file
+	 */
+	public static UnifiedDiff read(Path file) throws IOException {
+		return parse(Files.readAllLines(file));
+	}
+
+	/**
+	 * Compute the diff between revisions of the local git repository containing
+	 * a folder. Paths are relative to that folder and changes out of it are
+	 * ignored.
+	 *
+	 * @param folder    A folder of the repository (usually the project
+	 *                  location).
+	 * @param revisions Revisions to compare as given to "git diff" (e.g.
+	 *                  "main..HEAD", or a single revision to compare with the
+	 *                  working tree).
+	 * @return The lines changed between the revisions.
+	 * @throws IOException when git can not be run or fails
+	 */
+	public static UnifiedDiff fromGit(Path folder, String revisions) throws IOException {
+		Process process = new ProcessBuilder("git", "diff", "--relative", "--no-color", "--unified=0", revisions)
+				.directory(folder.toFile()).redirectErrorStream(true).start();
+
+		List<String> lines;
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+			lines = reader.lines().collect(Collectors.toList());
+		}
+
+		try {
+			if (process.waitFor() != 0) {
+				throw new IOException("git diff " + revisions + " failed: " + String.join("\n", lines));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while running git diff " + revisions, e);
+		}
+
+		return parse(lines);
+	}
+
+	/**
+	 * Get the lines changed in a file.
+	 *
+	 * @param file Path of the file. As paths in a diff can be prefixed (e.g. "b/"
+	 *             or the path of the project in the repository), a file matches
+	 *             any path in the diff ending with it.
+	 * @return The numbers of the changed lines (empty if the file did not change).
+	 */
+	public BitSet getChangedLines(String file) {
+		String normalizedFile = file.replace('\\', '/');
+		if (normalizedFile.startsWith("/")) {
+			normalizedFile = normalizedFile.substring(1);
+		}
+
+		BitSet result = new BitSet();
+		for (Map.Entry<String, BitSet> entry : changedLines.entrySet()) {
+			if (entry.getKey().equals(normalizedFile) || entry.getKey().endsWith("/" + normalizedFile)) {
+				result.or(entry.getValue());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Check if any line in a range has changed.
+	 *
+	 * @param file      Path of the file (see {@link #getChangedLines}).
+	 * @param startLine First line of the range.
+	 * @param endLine   Last line of the range (included).
+	 * @return true if some line in the range changed.
+	 */
+	public boolean changed(String file, int startLine, int endLine) {
+		int next = getChangedLines(file).nextSetBit(startLine);
+		return next >= 0 && next <= endLine;
+	}
+
+	/**
+	 * Get the files changed by the diff.
+	 *
+	 * @return Paths of the files in the diff.
+	 */
+	public Set<String> getFiles() {
+		return changedLines.keySet();
+	}
+}
@@ -1,6 +1,6 @@
 package neo.reducecognitivecomplexity.graphs;
 
-import neo.reducecognitivecomplexity.algorithms.Pair;
+import neo.reducecognitivecomplexity.core.Pair;
 
 /**
  * This class models a vertex of graphs that contain information about cognitive
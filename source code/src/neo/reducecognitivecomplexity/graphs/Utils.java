@@ -37,8 +37,8 @@ import org.jgrapht.nio.DefaultAttribute;
 import org.jgrapht.nio.ExportException;
 import org.jgrapht.nio.dot.DOTExporter;
 
-import neo.reducecognitivecomplexity.Constants;
-import neo.reducecognitivecomplexity.algorithms.Pair;
+import neo.reducecognitivecomplexity.core.Pair;
+import neo.reducecognitivecomplexity.jdt.ComplexityTable;
 
 import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
 
@@ -434,15 +434,14 @@ public class Utils {
 		// root extraction (information about the extraction of the entire body of the
 		// method)
 		Block methodBody = ((MethodDeclaration) ast).getBody();
-		int methodComplexity = (int) ast.getProperty(Constants.ACCUMULATED_INHERENT_COMPLEXITY_COMPONENT)
-				+ (int) ast.getProperty(Constants.ACCUMULATED_NESTING_COMPLEXITY_COMPONENT);
+		int methodComplexity = ComplexityTable.getComplexityWhenExtracting(ast);
 		int numberStatementsInMethodBody = methodBody.statements().size();
 		ExtractionVertex root = new ExtractionVertex(((Statement) methodBody.statements().get(0)).getStartPosition(),
 				((Statement) methodBody.statements().get(numberStatementsInMethodBody - 1)).getLength()
 						+ ((Statement) methodBody.statements().get(numberStatementsInMethodBody - 1)).getStartPosition(),
-				methodComplexity, (int) ast.getProperty(Constants.ACCUMULATED_INHERENT_COMPLEXITY_COMPONENT),
-				(int) ast.getProperty(Constants.ACCUMULATED_NESTING_COMPLEXITY_COMPONENT),
-				(int) ast.getProperty(Constants.ACCUMULATED_NUMBER_NESTING_COMPLEXITY_CONTRIBUTORS), 0);
+				methodComplexity, ComplexityTable.getAccumulatedInherentComponent(ast),
+				ComplexityTable.getAccumulatedNestingComponent(ast), ComplexityTable.getNumberNestingContributors(ast),
+				0);
 
 		return root;
 	}
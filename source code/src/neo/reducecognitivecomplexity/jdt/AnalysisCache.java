@@ -0,0 +1,118 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import neo.reducecognitivecomplexity.core.Pair;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+
+/**
+ * Keep the refactoring caches of methods between runs of the applications in
+ * the same process (see {@link neo.reducecognitivecomplexity.DaemonApplication}).
+ * <p>
+ * Only the answers of the oracle are kept (by the offsets of each code
+ * extraction), not the compilation units: these are taken from
+ * {@link CompilationUnitCache#getShared()}, which limits how many are kept.
+ * The entries of a file are reused while its source is the same (code
+ * extractions evaluated by the oracle are undone, so they do not invalidate
+ * entries), even if its compilation unit is parsed again. Only a hash of the
+ * source is kept, and the entries of the least recently used files are
+ * discarded once there are entries for more than a maximum number of files.
+ */
+public class AnalysisCache {
+	private final Map<String, Entry> entries;
+
+	private static class Entry {
+		private final byte[] sourceHash;
+		private final Map<Integer, Map<Pair, CodeExtractionMetrics>> refactoringCaches = new HashMap<>();
+
+		private Entry(byte[] sourceHash) {
+			this.sourceHash = sourceHash;
+		}
+	}
+
+	/**
+	 * Create a cache.
+	 *
+	 * @param maxFiles Maximum number of files whose entries are kept.
+	 */
+	public AnalysisCache(int maxFiles) {
+		entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > maxFiles;
+			}
+		};
+	}
+
+	/**
+	 * Get the refactoring cache of a method. If the compilation unit of the method
+	 * is not an element of the workspace, a new (not kept) refactoring cache is
+	 * returned.
+	 *
+	 * @param compilationUnit The compilation unit of the method.
+	 * @param method          The method.
+	 * @return The refactoring cache of the method, already filled if the method was
+	 *         processed before with the same source.
+	 */
+	public synchronized RefactoringCache getRefactoringCache(CompilationUnit compilationUnit, ASTNode method) {
+		RefactoringCache result = new RefactoringCache(compilationUnit);
+		if (!(compilationUnit.getJavaElement() instanceof ICompilationUnit)) {
+			return result;
+		}
+		ICompilationUnit element = (ICompilationUnit) compilationUnit.getJavaElement();
+		String source = getSource(element);
+		if (source == null) {
+			return result;
+		}
+
+		String key = element.getPath().toString();
+		byte[] sourceHash = hash(source);
+		Entry entry = entries.get(key);
+		if (entry == null || !Arrays.equals(entry.sourceHash, sourceHash)) {
+			entry = new Entry(sourceHash);
+			entries.put(key, entry);
+		}
+
+		// Answers of the oracle are added to the kept ones
+		result.cache = entry.refactoringCaches.computeIfAbsent(method.getStartPosition(), k -> new HashMap<>());
+		return result;
+	}
+
+	/**
+	 * Discard all entries.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	private static byte[] hash(String source) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String getSource(ICompilationUnit element) {
+		try {
+			return element.getSource();
+		} catch (JavaModelException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+}
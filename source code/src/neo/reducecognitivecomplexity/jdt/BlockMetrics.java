@@ -0,0 +1,125 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+
+import neo.reducecognitivecomplexity.Constants;
+
+/**
+ * Prefix sums of the accumulated components of cognitive complexity of a block
+ * of sibling sentences (see
+ * {@link neo.reducecognitivecomplexity.refactoringcache.SentencesSelectorVisitor}),
+ * so the components of any range of consecutive sentences of the block are
+ * computed in constant time.
+ * <p>
+ * Each sentence keeps a reference to its position in the block in the
+ * {@link Constants#BLOCK_METRICS_SLOT} property. Components are read from the
+ * {@link ComplexityTable} of the method, so blocks must be built after it.
+ */
+public class BlockMetrics {
+	private final int[] accumulatedComplexity;
+	private final int[] accumulatedInherentComponent;
+	private final int[] accumulatedNestingComponent;
+	private final int[] numberNestingContributors;
+
+	private static final class Slot {
+		private final BlockMetrics block;
+		private final int index;
+
+		private Slot(BlockMetrics block, int index) {
+			this.block = block;
+			this.index = index;
+		}
+	}
+
+	/**
+	 * Range of consecutive sentences of a block.
+	 */
+	public static final class Range {
+		private final BlockMetrics block;
+		private final int from;
+		private final int to;
+
+		private Range(BlockMetrics block, int from, int to) {
+			this.block = block;
+			this.from = from;
+			this.to = to;
+		}
+
+		public int getAccumulatedComplexity() {
+			return block.accumulatedComplexity[to] - block.accumulatedComplexity[from];
+		}
+
+		public int getAccumulatedInherentComponent() {
+			return block.accumulatedInherentComponent[to] - block.accumulatedInherentComponent[from];
+		}
+
+		public int getAccumulatedNestingComponent() {
+			return block.accumulatedNestingComponent[to] - block.accumulatedNestingComponent[from];
+		}
+
+		public int getNumberNestingContributors() {
+			return block.numberNestingContributors[to] - block.numberNestingContributors[from];
+		}
+	}
+
+	private BlockMetrics(int size) {
+		accumulatedComplexity = new int[size + 1];
+		accumulatedInherentComponent = new int[size + 1];
+		accumulatedNestingComponent = new int[size + 1];
+		numberNestingContributors = new int[size + 1];
+	}
+
+	/**
+	 * Compute the prefix sums of a block and attach them to its sentences.
+	 *
+	 * @param sentences The sentences of the block.
+	 * @return The prefix sums of the block.
+	 */
+	public static BlockMetrics build(List<? extends ASTNode> sentences) {
+		BlockMetrics result = new BlockMetrics(sentences.size());
+
+		for (int i = 0; i < sentences.size(); i++) {
+			ASTNode sentence = sentences.get(i);
+			result.accumulatedComplexity[i + 1] = result.accumulatedComplexity[i]
+					+ ComplexityTable.getAccumulatedComplexity(sentence);
+			result.accumulatedInherentComponent[i + 1] = result.accumulatedInherentComponent[i]
+					+ ComplexityTable.getAccumulatedInherentComponent(sentence);
+			result.accumulatedNestingComponent[i + 1] = result.accumulatedNestingComponent[i]
+					+ ComplexityTable.getAccumulatedNestingComponent(sentence);
+			result.numberNestingContributors[i + 1] = result.numberNestingContributors[i]
+					+ ComplexityTable.getNumberNestingContributors(sentence);
+			sentence.setProperty(Constants.BLOCK_METRICS_SLOT, new Slot(result, i));
+		}
+
+		return result;
+	}
+
+	private static Slot slot(ASTNode node) {
+		Object result = node.getProperty(Constants.BLOCK_METRICS_SLOT);
+		return (result instanceof Slot) ? (Slot) result : null;
+	}
+
+	/**
+	 * Get the range of a block covered by a list of sibling sentences.
+	 *
+	 * @param sentences The sentences.
+	 * @return The range, or null if the sentences are not consecutive sentences
+	 *         of the same block (e.g. no block was built for them).
+	 */
+	public static Range getRange(List<? extends ASTNode> sentences) {
+		if (sentences.isEmpty()) {
+			return null;
+		}
+
+		Slot first = slot(sentences.get(0));
+		Slot last = slot(sentences.get(sentences.size() - 1));
+		if (first == null || last == null || first.block != last.block
+				|| last.index - first.index + 1 != sentences.size()) {
+			return null;
+		}
+
+		return new Range(first.block, first.index, last.index + 1);
+	}
+}
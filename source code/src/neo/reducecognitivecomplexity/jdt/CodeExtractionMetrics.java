@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.ltk.core.refactoring.Change;
 
+import neo.reducecognitivecomplexity.core.ExtractionMetrics;
+
 /**
  * Contain metrics for a code extraction.
  * 
@@ -56,7 +58,7 @@ import org.eclipse.ltk.core.refactoring.Change;
  * order they would be/were applied. Usually, a code extraction involves just
  * one change. We store this as a list to allow a sequence of code extractions.
  */
-public class CodeExtractionMetrics {
+public class CodeExtractionMetrics implements ExtractionMetrics {
 	/**
 	 * If a code extraction is feasible or not.
 	 */
@@ -0,0 +1,272 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.sonar.TextRange;
+import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.CognitiveComplexMethod;
+import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.Contribution;
+
+/**
+ * Find cognitive complexity issues (rule S3776) in the Java files of a project
+ * without querying a SONAR server.
+ * <p>
+ * Files are parsed (without bindings) and processed in parallel, with the
+ * compiler options and encoding of the project in the workspace (or the latest
+ * Java version and UTF-8 when scanning a plain folder). The result
+ * has the same layout than the one returned by
+ * {@link neo.reducecognitivecomplexity.sonar.cognitivecomplexity.ProjectIssues#getCognitiveComplexity}
+ * so it can be processed in the same way.
+ */
+public class CognitiveComplexityScanner {
+	private static final Logger LOGGER = Logger.getLogger(CognitiveComplexityScanner.class.getName());
+
+	/**
+	 * Find the methods exceeding {@link Constants#MAX_COMPLEXITY} in all Java
+	 * files under the given folder (a plain folder, see
+	 * {@link #scan(String, Path, IJavaProject)}).
+	 */
+	public static Map<String, List<CognitiveComplexMethod>> scan(String project, Path sourceRoot) throws IOException {
+		return scan(project, sourceRoot, null);
+	}
+
+	/**
+	 * Find the methods exceeding {@link Constants#MAX_COMPLEXITY} in all Java
+	 * files under the given folder.
+	 *
+	 * @param project     Name of the project (used as SONAR project key).
+	 * @param sourceRoot  Folder containing the Java files to scan (usually the
+	 *                    project location).
+	 * @param javaProject Project of the files in the workspace, giving the
+	 *                    compiler options and the encoding of the files (null
+	 *                    for a plain folder).
+	 * @return Map with the cognitive complex methods of each file, given by its
+	 *         path relative to the source root. The list of methods of each file
+	 *         is in descending order.
+	 * @throws IOException when reading files
+	 */
+	public static Map<String, List<CognitiveComplexMethod>> scan(String project, Path sourceRoot,
+			IJavaProject javaProject) throws IOException {
+		List<Path> javaFiles;
+		try (Stream<Path> paths = Files.walk(sourceRoot)) {
+			javaFiles = paths.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".java"))
+					.collect(Collectors.toList());
+		}
+		LOGGER.info("Scanning " + javaFiles.size() + " Java files under " + sourceRoot + " ...");
+
+		Map<String, String> options = compilerOptions(javaProject);
+		try {
+			return javaFiles.parallelStream()
+					.map(file -> {
+						String fileName = sourceRoot.relativize(file).toString().replace('\\', '/');
+						CompilationUnit compilationUnit;
+						try {
+							compilationUnit = parseFile(file, options, charset(file, javaProject));
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+						return new SimpleEntry<String, List<CognitiveComplexMethod>>(fileName,
+								scan(project, fileName, compilationUnit));
+					})
+					.filter(entry -> !entry.getValue().isEmpty())
+					.collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue, (a, b) -> a,
+							TreeMap::new));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Find the methods exceeding {@link Constants#MAX_COMPLEXITY} in a Java file.
+	 *
+	 * @param project  Name of the project (used as SONAR project key).
+	 * @param fileName Name of the file reported in the issues.
+	 * @param file     The Java file to scan.
+	 * @return The cognitive complex methods in descending order.
+	 */
+	public static List<CognitiveComplexMethod> scanFile(String project, String fileName, Path file) {
+		CompilationUnit compilationUnit;
+		try {
+			compilationUnit = parseFile(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return scan(project, fileName, compilationUnit);
+	}
+
+	/**
+	 * Parse a Java file (of a plain folder, with the latest Java version and
+	 * encoded in UTF-8) without resolving bindings.
+	 *
+	 * @param file The Java file to parse.
+	 * @return The compilation unit of the file.
+	 * @throws IOException when reading the file
+	 */
+	public static CompilationUnit parseFile(Path file) throws IOException {
+		return parseFile(file, compilerOptions(null), StandardCharsets.UTF_8);
+	}
+
+	private static CompilationUnit parseFile(Path file, Map<String, String> options, Charset charset)
+			throws IOException {
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setCompilerOptions(options);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setSource(new String(Files.readAllBytes(file), charset).toCharArray());
+
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	/**
+	 * Get the compiler options of a project, or the ones of the latest Java
+	 * version if there is no project.
+	 */
+	private static Map<String, String> compilerOptions(IJavaProject javaProject) {
+		if (javaProject != null) {
+			return javaProject.getOptions(true);
+		}
+
+		Map<String, String> result = JavaCore.getOptions();
+		JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), result);
+		return result;
+	}
+
+	/**
+	 * Get the encoding of a file of a project (UTF-8 if the file is not in the
+	 * workspace).
+	 */
+	private static Charset charset(Path file, IJavaProject javaProject) {
+		if (javaProject != null) {
+			IFile resource = javaProject.getProject().getWorkspace().getRoot()
+					.getFileForLocation(org.eclipse.core.runtime.Path.fromOSString(file.toString()));
+			if (resource != null) {
+				try {
+					return Charset.forName(resource.getCharset());
+				} catch (CoreException | IllegalArgumentException e) {
+					LOGGER.warning("Encoding of " + file + " can not be read, using UTF-8: " + e.getMessage());
+				}
+			}
+		}
+
+		return StandardCharsets.UTF_8;
+	}
+
+	/**
+	 * Find the methods exceeding {@link Constants#MAX_COMPLEXITY} in a
+	 * compilation unit. Note that the AST of the compilation unit is annotated.
+	 *
+	 * @param project         Name of the project (used as SONAR project key).
+	 * @param file            Path of the file.
+	 * @param compilationUnit The compilation unit under processing.
+	 * @return The cognitive complex methods in descending order.
+	 */
+	public static List<CognitiveComplexMethod> scan(String project, String file, CompilationUnit compilationUnit) {
+		List<CognitiveComplexMethod> result = new ArrayList<>();
+
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration method) {
+				List<ASTNode> contributors = new ArrayList<>();
+				int complexity = CognitiveComplexityVisitor.annotate(method, contributors);
+
+				if (complexity > Constants.MAX_COMPLEXITY) {
+					List<Contribution> contributions = new ArrayList<>();
+					for (ASTNode node : contributors) {
+						int contribution = Utils.getIntegerPropertyOfNode(node, Constants.CONTRIBUTION_TO_COMPLEXITY);
+						int nesting = Utils.getIntegerPropertyOfNode(node,
+								Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING);
+						contributions.add(new Contribution(contribution, composeMessage(contribution, nesting),
+								textRange(compilationUnit, node.getStartPosition(), node.getLength())));
+					}
+
+					// Like SONAR, the issue is located at the name of the method
+					TextRange textRange = textRange(compilationUnit, method.getName().getStartPosition(),
+							method.getName().getLength());
+					result.add(0, new CognitiveComplexMethod(project, file, Constants.MAX_COMPLEXITY, complexity,
+							textRange, contributions));
+				}
+
+				// Methods declared inside are part of the complexity of this one
+				return false;
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Locate a method in the AST and annotate its contribution to cognitive
+	 * complexity. This is the counterpart of
+	 * {@link neo.reducecognitivecomplexity.sonar.Utils#getASTForMethodAnnotatingContributionToCognitiveComplexity}
+	 * when issues are not reported by SONAR.
+	 *
+	 * @param compilationUnit  The compilation unit under processing.
+	 * @param method           Information of the method (its text range).
+	 * @param sequenceOfBlocks List with processed nodes.
+	 * @return The AST of the method.
+	 */
+	public static ASTNode getASTForMethodAnnotatingContributionToCognitiveComplexity(CompilationUnit compilationUnit,
+			CognitiveComplexMethod method, List<ASTNode> sequenceOfBlocks) {
+		ASTNode result = Utils.findNode(compilationUnit, method.getTextRange().getStartLine(),
+				method.getTextRange().getStartOffset()).getParent();
+
+		if (result instanceof MethodDeclaration) {
+			CognitiveComplexityVisitor.annotate((MethodDeclaration) result, sequenceOfBlocks);
+		} else {
+			LOGGER.severe("There is no method at " + method.getTextRange() + " in "
+					+ compilationUnit.getJavaElement());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Compose the message SONAR uses to report a contribution to complexity (e.g.
+	 * "+3 (incl 2 for nesting)").
+	 */
+	private static String composeMessage(int contribution, int nesting) {
+		String result = "+" + contribution;
+
+		if (nesting > 0) {
+			result += " (incl " + nesting + " for nesting)";
+		}
+
+		return result;
+	}
+
+	private static TextRange textRange(CompilationUnit compilationUnit, int startPosition, int length) {
+		TextRange result = new TextRange();
+		int endPosition = startPosition + length;
+
+		result.setStartLine(compilationUnit.getLineNumber(startPosition));
+		result.setStartOffset(compilationUnit.getColumnNumber(startPosition));
+		result.setEndLine(compilationUnit.getLineNumber(endPosition));
+		result.setEndOffset(compilationUnit.getColumnNumber(endPosition));
+
+		return result;
+	}
+}
@@ -0,0 +1,335 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.BreakStatement;
+import org.eclipse.jdt.core.dom.CatchClause;
+import org.eclipse.jdt.core.dom.ConditionalExpression;
+import org.eclipse.jdt.core.dom.ContinueStatement;
+import org.eclipse.jdt.core.dom.DoStatement;
+import org.eclipse.jdt.core.dom.EnhancedForStatement;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.LambdaExpression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.SwitchExpression;
+import org.eclipse.jdt.core.dom.SwitchStatement;
+import org.eclipse.jdt.core.dom.WhileStatement;
+
+import neo.reducecognitivecomplexity.Constants;
+
+/**
+ * Compute the cognitive complexity of a method following the rules of the
+ * SonarSource rule S3776, annotating the AST nodes exactly as
+ * {@link neo.reducecognitivecomplexity.sonar.Utils#getASTForMethodAnnotatingContributionToCognitiveComplexity}
+ * does with the contributions reported by SONAR.
+ * <p>
+ * Each contribution is annotated on the node SONAR would point to once its
+ * location is resolved in the AST: structures (if, loops, switch, catch,
+ * ternary operator) on their own node, {@code else} and {@code else if} on the
+ * enclosing {@link IfStatement}, sequences of logical operators on the
+ * {@link InfixExpression} owning the operator, and labeled jumps on the
+ * {@link BreakStatement} or {@link ContinueStatement}.
+ */
+public class CognitiveComplexityVisitor extends ASTVisitor {
+	/**
+	 * Method under processing. Other method declarations found inside (anonymous
+	 * or local classes) increase the nesting level.
+	 */
+	private MethodDeclaration root;
+
+	/**
+	 * Nodes contributing to complexity sorted by their offset in the compilation
+	 * unit.
+	 */
+	private List<ASTNode> contributors;
+
+	/**
+	 * Logical expressions already processed as part of a longer sequence of
+	 * logical operators.
+	 */
+	private Set<InfixExpression> visitedLogicalExpressions;
+
+	private int nesting;
+	private int complexity;
+
+	public CognitiveComplexityVisitor(MethodDeclaration root, List<ASTNode> contributors) {
+		this.root = root;
+		this.contributors = contributors;
+		this.visitedLogicalExpressions = new HashSet<>();
+		this.nesting = 0;
+		this.complexity = 0;
+	}
+
+	/**
+	 * Annotate in the AST of a method its contribution to cognitive complexity.
+	 *
+	 * @param method       The method under processing.
+	 * @param contributors List where nodes contributing to complexity are added
+	 *                     (sorted by their offset).
+	 * @return The cognitive complexity of the method.
+	 */
+	public static int annotate(MethodDeclaration method, List<ASTNode> contributors) {
+		CognitiveComplexityVisitor visitor = new CognitiveComplexityVisitor(method, contributors);
+		method.accept(visitor);
+		return visitor.getComplexity();
+	}
+
+	/**
+	 * Compute the cognitive complexity of a method without keeping track of the
+	 * contributing nodes.
+	 *
+	 * @param method The method under processing.
+	 * @return The cognitive complexity of the method.
+	 */
+	public static int annotate(MethodDeclaration method) {
+		return annotate(method, new ArrayList<ASTNode>());
+	}
+
+	public int getComplexity() {
+		return complexity;
+	}
+
+	@Override
+	public boolean visit(MethodDeclaration node) {
+		if (node != root) {
+			nesting++;
+		}
+		return true;
+	}
+
+	@Override
+	public void endVisit(MethodDeclaration node) {
+		if (node != root) {
+			nesting--;
+		}
+	}
+
+	@Override
+	public boolean visit(IfStatement node) {
+		// "else if" is counted (without nesting) by the enclosing if statement
+		if (!isElseIf(node)) {
+			increaseComplexityByNesting(node);
+		}
+
+		node.getExpression().accept(this);
+
+		nesting++;
+		node.getThenStatement().accept(this);
+		nesting--;
+
+		Statement elseStatement = node.getElseStatement();
+		if (elseStatement != null) {
+			increaseComplexityByOne(node);
+			if (elseStatement instanceof IfStatement) {
+				elseStatement.accept(this);
+			} else {
+				nesting++;
+				elseStatement.accept(this);
+				nesting--;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public boolean visit(ForStatement node) {
+		return increaseComplexityAndNesting(node);
+	}
+
+	@Override
+	public void endVisit(ForStatement node) {
+		nesting--;
+	}
+
+	@Override
+	public boolean visit(EnhancedForStatement node) {
+		return increaseComplexityAndNesting(node);
+	}
+
+	@Override
+	public void endVisit(EnhancedForStatement node) {
+		nesting--;
+	}
+
+	@Override
+	public boolean visit(WhileStatement node) {
+		return increaseComplexityAndNesting(node);
+	}
+
+	@Override
+	public void endVisit(WhileStatement node) {
+		nesting--;
+	}
+
+	@Override
+	public boolean visit(DoStatement node) {
+		return increaseComplexityAndNesting(node);
+	}
+
+	@Override
+	public void endVisit(DoStatement node) {
+		nesting--;
+	}
+
+	@Override
+	public boolean visit(SwitchStatement node) {
+		return increaseComplexityAndNesting(node);
+	}
+
+	@Override
+	public void endVisit(SwitchStatement node) {
+		nesting--;
+	}
+
+	@Override
+	public boolean visit(SwitchExpression node) {
+		return increaseComplexityAndNesting(node);
+	}
+
+	@Override
+	public void endVisit(SwitchExpression node) {
+		nesting--;
+	}
+
+	@Override
+	public boolean visit(CatchClause node) {
+		return increaseComplexityAndNesting(node);
+	}
+
+	@Override
+	public void endVisit(CatchClause node) {
+		nesting--;
+	}
+
+	@Override
+	public boolean visit(ConditionalExpression node) {
+		return increaseComplexityAndNesting(node);
+	}
+
+	@Override
+	public void endVisit(ConditionalExpression node) {
+		nesting--;
+	}
+
+	@Override
+	public boolean visit(LambdaExpression node) {
+		// Lambdas increase nesting but do not contribute by themselves
+		nesting++;
+		return true;
+	}
+
+	@Override
+	public void endVisit(LambdaExpression node) {
+		nesting--;
+	}
+
+	@Override
+	public boolean visit(BreakStatement node) {
+		if (node.getLabel() != null) {
+			increaseComplexityByOne(node);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean visit(ContinueStatement node) {
+		if (node.getLabel() != null) {
+			increaseComplexityByOne(node);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean visit(InfixExpression node) {
+		if (isLogicalExpression(node) && !visitedLogicalExpressions.contains(node)) {
+			// Each sequence of like logical operators contributes once
+			List<InfixExpression> operators = new ArrayList<>();
+			flattenLogicalExpression(node, operators);
+
+			InfixExpression.Operator previous = null;
+			for (InfixExpression current : operators) {
+				if (previous == null || !previous.equals(current.getOperator())) {
+					increaseComplexityByOne(current);
+				}
+				previous = current.getOperator();
+			}
+		}
+		return true;
+	}
+
+	private boolean increaseComplexityAndNesting(ASTNode node) {
+		increaseComplexityByNesting(node);
+		nesting++;
+		return true;
+	}
+
+	private void increaseComplexityByNesting(ASTNode node) {
+		addContribution(node, 1 + nesting, nesting);
+	}
+
+	private void increaseComplexityByOne(ASTNode node) {
+		addContribution(node, 1, 0);
+	}
+
+	private void addContribution(ASTNode node, int contribution, int contributionByNesting) {
+		// A node already annotated refers to an else clause of an if statement
+		if (node.getProperty(Constants.CONTRIBUTION_TO_COMPLEXITY) == null) {
+			contributors.add(neo.reducecognitivecomplexity.sonar.Utils.indexOfInsertionToKeepListSorted(node,
+					contributors), node);
+		}
+
+		int previousValue = Utils.getIntegerPropertyOfNode(node, Constants.CONTRIBUTION_TO_COMPLEXITY);
+		node.setProperty(Constants.CONTRIBUTION_TO_COMPLEXITY, previousValue + contribution);
+
+		previousValue = Utils.getIntegerPropertyOfNode(node, Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING);
+		node.setProperty(Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING, previousValue + contributionByNesting);
+
+		complexity += contribution;
+	}
+
+	private static boolean isElseIf(IfStatement node) {
+		return node.getLocationInParent() == IfStatement.ELSE_STATEMENT_PROPERTY;
+	}
+
+	private static boolean isLogicalExpression(Expression expression) {
+		if (expression instanceof InfixExpression) {
+			InfixExpression.Operator operator = ((InfixExpression) expression).getOperator();
+			return operator == InfixExpression.Operator.CONDITIONAL_AND
+					|| operator == InfixExpression.Operator.CONDITIONAL_OR;
+		}
+		return false;
+	}
+
+	/**
+	 * Collect, in the order they appear in the source code, the logical operators
+	 * of a sequence. Parenthesized expressions start a new sequence.
+	 *
+	 * @param expression The expression to flatten.
+	 * @param operators  Target list with an entry for each operator in the
+	 *                   sequence (the node owning the operator).
+	 */
+	private void flattenLogicalExpression(Expression expression, List<InfixExpression> operators) {
+		if (isLogicalExpression(expression)) {
+			InfixExpression infix = (InfixExpression) expression;
+			visitedLogicalExpressions.add(infix);
+
+			flattenLogicalExpression(infix.getLeftOperand(), operators);
+			operators.add(infix);
+			flattenLogicalExpression(infix.getRightOperand(), operators);
+			for (Object extendedOperand : infix.extendedOperands()) {
+				operators.add(infix);
+				flattenLogicalExpression((Expression) extendedOperand, operators);
+			}
+		}
+	}
+}
@@ -0,0 +1,341 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import neo.reducecognitivecomplexity.Constants;
+
+/**
+ * Cache of parsed compilation units shared by the applications, so a file
+ * requested several times (e.g. by the solutions of its methods) is parsed
+ * once while it is not modified.
+ * <p>
+ * An entry is valid while the modification stamp of its file is the same, or
+ * its source is the same (code extractions evaluated by the oracle are undone,
+ * restoring the source but not the stamp). Properties annotated in the nodes of
+ * a reused compilation unit are cleared, so it can be annotated again.
+ * <p>
+ * Compilation units parsed at once share their bindings (see
+ * {@link Utils#createCompilationUnitsFromFilesInWorkspace}), so the memory of
+ * such a batch is only released when none of its compilation units is
+ * referenced: the entries of a batch are kept and discarded together. Batches
+ * are softly referenced, so the garbage collector can discard them when the
+ * heap is about to run out, and least recently used batches are discarded once
+ * the estimated size of the kept ASTs exceeds {@link Constants#AST_CACHE_BUDGET}.
+ * The estimation (see {@link ASTNode#subtreeBytes()}) does not include
+ * bindings, so the budget limits the number of ASTs kept but is not a bound of
+ * the heap used.
+ * <p>
+ * Callers should get a compilation unit from the cache each time they use it,
+ * instead of keeping it, so discarded batches can be collected.
+ */
+public class CompilationUnitCache {
+	private static final Logger LOGGER = Logger.getLogger(CompilationUnitCache.class.getName());
+
+	private static final CompilationUnitCache SHARED = new CompilationUnitCache(Constants.AST_CACHE_BUDGET);
+
+	private final long budget;
+	private long size;
+	private long hits, misses;
+
+	private final ReferenceQueue<Batch> collected = new ReferenceQueue<>();
+	private final Map<String, Entry> entries = new HashMap<>();
+
+	// Batches in access order (least recently used first)
+	private final Map<BatchReference, Boolean> batches = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Compilation units parsed at once (by key).
+	 */
+	private static class Batch {
+		private final Map<String, CompilationUnit> compilationUnits = new HashMap<>();
+	}
+
+	private static class BatchReference extends SoftReference<Batch> {
+		private final List<String> keys;
+		private final long size;
+
+		private BatchReference(Batch batch, long size, ReferenceQueue<Batch> queue) {
+			super(batch, queue);
+			this.keys = new ArrayList<>(batch.compilationUnits.keySet());
+			this.size = size;
+		}
+	}
+
+	private static class Entry {
+		private final BatchReference batch;
+		private final long modificationStamp;
+		private final String source;
+
+		private Entry(BatchReference batch, long modificationStamp, String source) {
+			this.batch = batch;
+			this.modificationStamp = modificationStamp;
+			this.source = source;
+		}
+	}
+
+	/**
+	 * Create a cache.
+	 *
+	 * @param budget Maximum estimated size in bytes of the kept ASTs (0 or less
+	 *               to keep none).
+	 */
+	public CompilationUnitCache(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Get the cache shared by the applications.
+	 *
+	 * @return The shared cache.
+	 */
+	public static CompilationUnitCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Get the compilation unit of a file in the workspace, parsing it if there is
+	 * no valid entry.
+	 *
+	 * @param pathToFileInWorkspace file path in the workspace.
+	 * @return The compilation unit of the file.
+	 */
+	public synchronized CompilationUnit getCompilationUnit(String pathToFileInWorkspace) {
+		CompilationUnit result = getCompilationUnits(Collections.singletonList(pathToFileInWorkspace))
+				.get(pathToFileInWorkspace);
+
+		// Files not resolved are searched in the workspace
+		return (result != null) ? result : Utils.createCompilationUnitFromFileInWorkspace(pathToFileInWorkspace);
+	}
+
+	/**
+	 * Get the compilation units of files in the workspace. Files without a valid
+	 * entry are parsed at once (see
+	 * {@link Utils#createCompilationUnitsFromFilesInWorkspace}).
+	 *
+	 * @param pathsToFilesInWorkspace file paths in the workspace.
+	 * @return The compilation unit of each file (by the given path). Files that
+	 *         could not be resolved are not included.
+	 */
+	public synchronized Map<String, CompilationUnit> getCompilationUnits(Collection<String> pathsToFilesInWorkspace) {
+		Map<String, CompilationUnit> result = new HashMap<>();
+		Map<String, ICompilationUnit> elements = new HashMap<>();
+		List<String> pathsToParse = new ArrayList<>();
+
+		removeCollectedEntries();
+		for (String path : pathsToFilesInWorkspace) {
+			ICompilationUnit element = CompilationUnitResolver.resolve(path);
+			if (element == null) {
+				continue;
+			}
+			elements.put(path, element);
+
+			CompilationUnit compilationUnit = getValid(element);
+			if (compilationUnit != null) {
+				clearProperties(compilationUnit);
+				result.put(path, compilationUnit);
+			} else {
+				pathsToParse.add(path);
+			}
+		}
+
+		hits += result.size();
+		misses += pathsToParse.size();
+		if (!pathsToParse.isEmpty()) {
+			Map<ICompilationUnit, CompilationUnit> parsed = new HashMap<>();
+			for (Map.Entry<String, CompilationUnit> entry : Utils
+					.createCompilationUnitsFromFilesInWorkspace(pathsToParse).entrySet()) {
+				parsed.put(elements.get(entry.getKey()), entry.getValue());
+				result.put(entry.getKey(), entry.getValue());
+			}
+			put(parsed);
+			LOGGER.fine("Compilation unit cache: " + hits + " hits, " + misses + " misses, " + entries.size()
+					+ " entries in " + batches.size() + " batches (" + size / 1024 + "KB)");
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get the compilation unit of a file if its entry is valid. Invalid entries
+	 * are discarded.
+	 */
+	private CompilationUnit getValid(ICompilationUnit element) {
+		String key = element.getPath().toString();
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+
+		Batch batch = entry.batch.get();
+		CompilationUnit result = (batch != null) ? batch.compilationUnits.get(key) : null;
+		if (result != null) {
+			// The stamp of the file does not change while a working copy is edited
+			if ((!element.isWorkingCopy() && getModificationStamp(element) == entry.modificationStamp)
+					|| entry.source.equals(getSource(element))) {
+				batches.get(entry.batch);
+				return result;
+			}
+		}
+
+		remove(key);
+		return null;
+	}
+
+	/**
+	 * Keep the compilation units parsed at once as a batch, discarding least
+	 * recently used batches while the budget is exceeded.
+	 */
+	private void put(Map<ICompilationUnit, CompilationUnit> parsed) {
+		if (budget <= 0) {
+			return;
+		}
+
+		Batch batch = new Batch();
+		Map<String, String> sources = new HashMap<>();
+		long batchSize = 0;
+		for (Map.Entry<ICompilationUnit, CompilationUnit> entry : parsed.entrySet()) {
+			String source = getSource(entry.getKey());
+			if (source != null) {
+				String key = entry.getKey().getPath().toString();
+				batch.compilationUnits.put(key, entry.getValue());
+				sources.put(key, source);
+				batchSize += entry.getValue().subtreeBytes();
+			}
+		}
+		if (batch.compilationUnits.isEmpty() || batchSize > budget) {
+			return;
+		}
+
+		BatchReference reference = new BatchReference(batch, batchSize, collected);
+		for (ICompilationUnit element : parsed.keySet()) {
+			String key = element.getPath().toString();
+			if (sources.containsKey(key)) {
+				remove(key);
+				entries.put(key, new Entry(reference, getModificationStamp(element), sources.get(key)));
+			}
+		}
+		batches.put(reference, Boolean.TRUE);
+		size += batchSize;
+
+		// Discard least recently used batches
+		Iterator<BatchReference> eldest = batches.keySet().iterator();
+		while (size > budget && eldest.hasNext()) {
+			BatchReference discarded = eldest.next();
+			eldest.remove();
+			discard(discarded);
+		}
+	}
+
+	/**
+	 * Discard the entry of a file (e.g. after modifying it).
+	 *
+	 * @param pathToFileInWorkspace file path in the workspace.
+	 */
+	public synchronized void invalidate(String pathToFileInWorkspace) {
+		ICompilationUnit element = CompilationUnitResolver.resolve(pathToFileInWorkspace);
+		if (element != null) {
+			remove(element.getPath().toString());
+		}
+	}
+
+	/**
+	 * Discard all entries.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		batches.clear();
+		size = 0;
+	}
+
+	/**
+	 * Discard the entries of the batches collected by the garbage collector.
+	 */
+	private void removeCollectedEntries() {
+		Reference<? extends Batch> reference;
+		while ((reference = collected.poll()) != null) {
+			if (batches.remove(reference) != null) {
+				discard((BatchReference) reference);
+			}
+		}
+	}
+
+	/**
+	 * Discard the entry of a file. Its batch is discarded once it has no entries.
+	 */
+	private void remove(String key) {
+		Entry entry = entries.remove(key);
+		if (entry == null) {
+			return;
+		}
+
+		Batch batch = entry.batch.get();
+		if (batch != null) {
+			batch.compilationUnits.remove(key);
+		}
+		for (String other : entry.batch.keys) {
+			if (entries.containsKey(other) && entries.get(other).batch == entry.batch) {
+				return;
+			}
+		}
+		if (batches.remove(entry.batch) != null) {
+			size -= entry.batch.size;
+		}
+	}
+
+	/**
+	 * Discard the entries of a batch (already removed from the batches).
+	 */
+	private void discard(BatchReference batch) {
+		for (String key : batch.keys) {
+			Entry entry = entries.get(key);
+			if (entry != null && entry.batch == batch) {
+				entries.remove(key);
+			}
+		}
+		size -= batch.size;
+	}
+
+	private static long getModificationStamp(ICompilationUnit element) {
+		return (element.getResource() != null) ? element.getResource().getModificationStamp() : -1;
+	}
+
+	private static String getSource(ICompilationUnit element) {
+		try {
+			return element.getSource();
+		} catch (JavaModelException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Remove the properties annotated in the nodes of a compilation unit.
+	 */
+	static void clearProperties(CompilationUnit compilationUnit) {
+		compilationUnit.accept(new ASTVisitor(true) {
+			@Override
+			public void preVisit(ASTNode node) {
+				for (Object property : ((Map<?, ?>) node.properties()).keySet().toArray()) {
+					node.setProperty((String) property, null);
+				}
+			}
+		});
+	}
+}
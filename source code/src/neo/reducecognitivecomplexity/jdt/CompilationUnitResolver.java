@@ -0,0 +1,98 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Resolve paths of files in the workspace to their {@link ICompilationUnit}.
+ * <p>
+ * Lookups are cached, so the resource tree is only searched the first time a
+ * file is requested. Before returning a compilation unit, only its file is
+ * refreshed (with {@link IResource#DEPTH_ZERO}), and not even that when a
+ * working copy is in use: its contents are already the ones to parse.
+ */
+public class CompilationUnitResolver {
+	private static final Map<String, ICompilationUnit> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * Get the compilation unit of a file in the workspace.
+	 *
+	 * @param pathToFileInWorkspace file path in the workspace ("/project/file" or
+	 *                              "project/file", with any separator).
+	 * @return The compilation unit of the file, or null if the file does not exist
+	 *         or it is not a Java file.
+	 */
+	public static ICompilationUnit resolve(String pathToFileInWorkspace) {
+		String key = normalize(pathToFileInWorkspace);
+		ICompilationUnit result = cache.get(key);
+
+		if (result == null) {
+			result = lookup(key);
+			if (result == null) {
+				return null;
+			}
+			cache.put(key, result);
+		}
+
+		if (!result.isWorkingCopy()) {
+			try {
+				result.getResource().refreshLocal(IResource.DEPTH_ZERO, null);
+			} catch (CoreException e) {
+				e.printStackTrace();
+			}
+		}
+
+		if (!result.exists()) {
+			cache.remove(key);
+			result = null;
+		}
+
+		return result;
+	}
+
+	private static ICompilationUnit lookup(String path) {
+		Path workspacePath = new Path(path);
+		if (workspacePath.segmentCount() < 2) {
+			return null;
+		}
+
+		IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile(workspacePath);
+		IProject project = file.getProject();
+
+		try {
+			if (!project.exists()) {
+				return null;
+			}
+			if (!project.isOpen()) {
+				project.open(null);
+			}
+			if (!file.exists()) {
+				// The file could have been created out of the workspace
+				file.refreshLocal(IResource.DEPTH_ZERO, null);
+			}
+		} catch (CoreException e) {
+			return null;
+		}
+
+		return file.exists() ? JavaCore.createCompilationUnitFrom(file) : null;
+	}
+
+	private static String normalize(String pathToFileInWorkspace) {
+		String result = pathToFileInWorkspace.replace('\\', '/');
+
+		if (!result.startsWith("/")) {
+			result = "/" + result;
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,227 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import neo.reducecognitivecomplexity.Constants;
+
+/**
+ * Accumulated components of cognitive complexity of the nodes of a method,
+ * stored in a side table instead of node properties.
+ * <p>
+ * Nodes of the method are numbered in preorder and each metric is kept in an
+ * int column indexed by that number. Each node only keeps a reference to its
+ * slot (table and number) in the {@link Constants#COMPLEXITY_TABLE_SLOT}
+ * property, so reading a metric is a single property lookup plus an array
+ * access, with no boxing. Nodes out of any table (e.g. ASTs annotated before
+ * the table is built) fall back to their properties.
+ */
+public class ComplexityTable {
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int size;
+	private int[] contribution;
+	private int[] nesting;
+	private int[] accumulatedComplexity;
+	private int[] accumulatedInherentComponent;
+	private int[] accumulatedNestingComponent;
+	private int[] numberNestingContributors;
+
+	private static final class Slot {
+		private final ComplexityTable table;
+		private final int index;
+
+		private Slot(ComplexityTable table, int index) {
+			this.table = table;
+			this.index = index;
+		}
+	}
+
+	private ComplexityTable(int capacity) {
+		contribution = new int[capacity];
+		nesting = new int[capacity];
+		accumulatedComplexity = new int[capacity];
+		accumulatedInherentComponent = new int[capacity];
+		accumulatedNestingComponent = new int[capacity];
+		numberNestingContributors = new int[capacity];
+	}
+
+	/**
+	 * Compute the accumulated components of cognitive complexity of the nodes of
+	 * a method, whose contributions to complexity have been annotated (see
+	 * {@link CognitiveComplexityVisitor}), and attach the table to its nodes.
+	 *
+	 * @param method The method.
+	 * @return The table of the method.
+	 */
+	public static ComplexityTable build(MethodDeclaration method) {
+		Builder builder = new Builder(method);
+		method.accept(builder);
+		return builder.table;
+	}
+
+	/**
+	 * Visitor filling a table in a single traversal of a method. Nesting is
+	 * computed top-down when a node is visited, from the nesting of its parent
+	 * (see {@link Utils#nestingIncrement}), and accumulated components bottom-up
+	 * when the visit of the node ends, since its descendants have been added to
+	 * it by then.
+	 */
+	private static final class Builder extends ASTVisitor {
+		private final ComplexityTable table = new ComplexityTable(INITIAL_CAPACITY);
+		private final MethodDeclaration method;
+
+		// Nesting is 0 in the root of each node, the method declaration of the node
+		// (see Utils.getMethodDeclaration). Nodes are nested in their root by walk.
+		private ASTNode[] root = new ASTNode[INITIAL_CAPACITY];
+		private int[] walk = new int[INITIAL_CAPACITY];
+		private int[] accumulatedByNesting = new int[INITIAL_CAPACITY];
+
+		// Nodes being visited: the top is the parent of the next node
+		private int[] stack = new int[INITIAL_CAPACITY];
+		private int depth;
+
+		private Builder(MethodDeclaration method) {
+			this.method = method;
+		}
+
+		@Override
+		public void preVisit(ASTNode node) {
+			int index = table.size++;
+			if (index == table.contribution.length) {
+				grow();
+			}
+
+			if (depth == 0) {
+				// Methods of anonymous classes are nested in their enclosing method
+				root[index] = (node == method && node.getParent() instanceof AnonymousClassDeclaration)
+						? Utils.getMethodDeclaration(node.getParent())
+						: node;
+				walk[index] = (root[index] != null) ? Utils.computeNesting(node, root[index]) : 0;
+			} else {
+				int parent = stack[depth - 1];
+				if (node instanceof MethodDeclaration && !(node.getParent() instanceof AnonymousClassDeclaration)) {
+					root[index] = node;
+					walk[index] = 0;
+				} else {
+					root[index] = root[parent];
+					walk[index] = walk[parent] + Utils.nestingIncrement(node.getParent(), node, root[parent]);
+				}
+			}
+			table.nesting[index] = (node instanceof MethodDeclaration) ? 0 : walk[index];
+
+			table.contribution[index] = Utils.getIntegerPropertyOfNode(node, Constants.CONTRIBUTION_TO_COMPLEXITY);
+			accumulatedByNesting[index] = Utils.getIntegerPropertyOfNode(node,
+					Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING);
+			table.accumulatedComplexity[index] = table.contribution[index];
+			table.numberNestingContributors[index] = (accumulatedByNesting[index] > 0) ? 1 : 0;
+			node.setProperty(Constants.COMPLEXITY_TABLE_SLOT, new Slot(table, index));
+
+			if (depth == stack.length) {
+				stack = Arrays.copyOf(stack, 2 * depth);
+			}
+			stack[depth++] = index;
+		}
+
+		@Override
+		public void postVisit(ASTNode node) {
+			int index = stack[--depth];
+			table.accumulatedInherentComponent[index] = table.accumulatedComplexity[index]
+					- accumulatedByNesting[index];
+			table.accumulatedNestingComponent[index] = accumulatedByNesting[index]
+					- table.numberNestingContributors[index] * table.nesting[index];
+			root[index] = null;
+
+			if (depth > 0) {
+				int parent = stack[depth - 1];
+				table.accumulatedComplexity[parent] += table.accumulatedComplexity[index];
+				accumulatedByNesting[parent] += accumulatedByNesting[index];
+				table.numberNestingContributors[parent] += table.numberNestingContributors[index];
+			}
+		}
+
+		private void grow() {
+			int capacity = 2 * table.contribution.length;
+			table.contribution = Arrays.copyOf(table.contribution, capacity);
+			table.nesting = Arrays.copyOf(table.nesting, capacity);
+			table.accumulatedComplexity = Arrays.copyOf(table.accumulatedComplexity, capacity);
+			table.accumulatedInherentComponent = Arrays.copyOf(table.accumulatedInherentComponent, capacity);
+			table.accumulatedNestingComponent = Arrays.copyOf(table.accumulatedNestingComponent, capacity);
+			table.numberNestingContributors = Arrays.copyOf(table.numberNestingContributors, capacity);
+			root = Arrays.copyOf(root, capacity);
+			walk = Arrays.copyOf(walk, capacity);
+			accumulatedByNesting = Arrays.copyOf(accumulatedByNesting, capacity);
+		}
+	}
+
+	private static Slot slot(ASTNode node) {
+		Object result = node.getProperty(Constants.COMPLEXITY_TABLE_SLOT);
+		return (result instanceof Slot) ? (Slot) result : null;
+	}
+
+	/**
+	 * Get the contribution of a node (not including its descendants) to cognitive
+	 * complexity.
+	 */
+	public static int getContribution(ASTNode node) {
+		Slot slot = slot(node);
+		return (slot != null) ? slot.table.contribution[slot.index]
+				: Utils.getIntegerPropertyOfNode(node, Constants.CONTRIBUTION_TO_COMPLEXITY);
+	}
+
+	/**
+	 * Get the nesting of a node (see {@link Utils#computeNesting(ASTNode)}).
+	 */
+	public static int getNesting(ASTNode node) {
+		Slot slot = slot(node);
+		return (slot != null) ? slot.table.nesting[slot.index] : Utils.computeNesting(node);
+	}
+
+	/**
+	 * Get the cognitive complexity accumulated in a node and its descendants.
+	 */
+	public static int getAccumulatedComplexity(ASTNode node) {
+		Slot slot = slot(node);
+		return (slot != null) ? slot.table.accumulatedComplexity[slot.index]
+				: Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_COMPLEXITY);
+	}
+
+	/**
+	 * Get the accumulated inherent component of cognitive complexity of a node.
+	 */
+	public static int getAccumulatedInherentComponent(ASTNode node) {
+		Slot slot = slot(node);
+		return (slot != null) ? slot.table.accumulatedInherentComponent[slot.index]
+				: Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_INHERENT_COMPLEXITY_COMPONENT);
+	}
+
+	/**
+	 * Get the accumulated nesting component of cognitive complexity of a node.
+	 */
+	public static int getAccumulatedNestingComponent(ASTNode node) {
+		Slot slot = slot(node);
+		return (slot != null) ? slot.table.accumulatedNestingComponent[slot.index]
+				: Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_NESTING_COMPLEXITY_COMPONENT);
+	}
+
+	/**
+	 * Get the number of nodes contributing to the nesting component of cognitive
+	 * complexity in a node and its descendants.
+	 */
+	public static int getNumberNestingContributors(ASTNode node) {
+		Slot slot = slot(node);
+		return (slot != null) ? slot.table.numberNestingContributors[slot.index]
+				: Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_NUMBER_NESTING_COMPLEXITY_CONTRIBUTORS);
+	}
+
+	/**
+	 * Get the cognitive complexity of the method extracted from a node.
+	 */
+	public static int getComplexityWhenExtracting(ASTNode node) {
+		return getAccumulatedInherentComponent(node) + getAccumulatedNestingComponent(node);
+	}
+}
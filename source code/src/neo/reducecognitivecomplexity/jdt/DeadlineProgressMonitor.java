@@ -0,0 +1,41 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+/**
+ * Progress monitor which is canceled when a deadline is reached.
+ * <p>
+ * JDT checks the monitor given to refactorings and cancels them (throwing
+ * {@link org.eclipse.core.runtime.OperationCanceledException}). Loops of the
+ * search check it too, so they end with the results found so far.
+ */
+public class DeadlineProgressMonitor extends NullProgressMonitor {
+	private final long deadline;
+
+	/**
+	 * Create a monitor canceled after the given time.
+	 *
+	 * @param timeoutMillis Milliseconds until the deadline (0 or less for no
+	 *                      deadline).
+	 */
+	public DeadlineProgressMonitor(long timeoutMillis) {
+		this.deadline = (timeoutMillis > 0) ? System.currentTimeMillis() + timeoutMillis : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Check if the deadline has been reached (or the monitor canceled).
+	 */
+	@Override
+	public boolean isCanceled() {
+		return super.isCanceled() || hasExpired();
+	}
+
+	/**
+	 * Check if the deadline has been reached.
+	 *
+	 * @return true if the deadline has been reached.
+	 */
+	public boolean hasExpired() {
+		return System.currentTimeMillis() >= deadline;
+	}
+}
@@ -0,0 +1,69 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.EmptyStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.core.MethodModel;
+import neo.reducecognitivecomplexity.core.ModelSearch;
+import neo.reducecognitivecomplexity.core.Pair;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+import neo.reducecognitivecomplexity.refactoringcache.SentencesSelectorVisitor;
+
+/**
+ * Adapter from the AST of a method to the model used by the search core (see
+ * {@link MethodModel} and {@link ModelSearch}).
+ */
+public class MethodModelAdapter {
+	private MethodModelAdapter() {
+	}
+
+	/**
+	 * Build the model of a method: its blocks of sentences (see
+	 * {@link SentencesSelectorVisitor}), their offsets (as in
+	 * {@link Sequence#getOffsetAsPair()}) and their components of cognitive
+	 * complexity (see {@link ComplexityTable}).
+	 *
+	 * @param method The method (its accumulated complexity must be computed).
+	 * @return The model of the method.
+	 */
+	public static MethodModel build(MethodDeclaration method) {
+		CompilationUnit compilationUnit = (CompilationUnit) method.getRoot();
+		SentencesSelectorVisitor visitor = new SentencesSelectorVisitor(compilationUnit);
+		method.accept(visitor);
+
+		MethodModel result = new MethodModel(ComplexityTable.getAccumulatedComplexity(method));
+		for (Sequence sentences : visitor.getSentencesToIterate()) {
+			List<ASTNode> nodes = sentences.getSiblingNodes();
+			MethodModel.Block block = new MethodModel.Block(nodes.size());
+			for (ASTNode node : nodes) {
+				Pair offsets = new Sequence(compilationUnit, Collections.singletonList(node)).getOffsetAsPair();
+				block.addSentence(offsets.getA(), offsets.getB(), node instanceof EmptyStatement,
+						ComplexityTable.getAccumulatedComplexity(node),
+						ComplexityTable.getAccumulatedInherentComponent(node),
+						ComplexityTable.getAccumulatedNestingComponent(node),
+						ComplexityTable.getNumberNestingContributors(node), ComplexityTable.getNesting(node));
+			}
+			result.addBlock(block);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get an oracle for the search core answering with a refactoring cache (the
+	 * oracle of the cache is called on a miss).
+	 *
+	 * @param refactoringCache The refactoring cache.
+	 * @return The oracle.
+	 */
+	public static ModelSearch.FeasibilityOracle oracle(RefactoringCache refactoringCache) {
+		return offsets -> refactoringCache
+				.getMetrics(new Sequence(refactoringCache.getCompilationUnit(), offsets)).isFeasible();
+	}
+}
@@ -0,0 +1,182 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.NodeFinder;
+
+import neo.reducecognitivecomplexity.Constants;
+
+/**
+ * Index from character offsets to the nodes of a compilation unit, built in a
+ * single traversal of its AST.
+ * <p>
+ * Nodes are numbered in preorder (Javadoc tags included), so their start
+ * positions are sorted and a node is located by binary search instead of
+ * traversing the AST from its root. Lookups give the same nodes as
+ * {@link NodeFinder} and {@link Utils.NodeFinderVisitorForGivenSelection}. If
+ * the start positions of the AST are not sorted (e.g. recovered nodes), those
+ * visitors are used instead.
+ * <p>
+ * The index of a compilation unit is kept in its
+ * {@link Constants#OFFSET_INDEX} property, so the AST must not be modified
+ * after it is built.
+ */
+public class OffsetIndex {
+	private static final int INITIAL_CAPACITY = 256;
+
+	private final CompilationUnit compilationUnit;
+	private boolean sorted = true;
+
+	private int size;
+	private ASTNode[] nodes = new ASTNode[INITIAL_CAPACITY];
+	private int[] start = new int[INITIAL_CAPACITY];
+	private int[] end = new int[INITIAL_CAPACITY];
+	private int[] parent = new int[INITIAL_CAPACITY];
+	// Number of the first node after the subtree of each node
+	private int[] next = new int[INITIAL_CAPACITY];
+
+	private OffsetIndex(CompilationUnit compilationUnit) {
+		this.compilationUnit = compilationUnit;
+
+		compilationUnit.accept(new ASTVisitor(true) {
+			private final List<Integer> stack = new ArrayList<>();
+
+			@Override
+			public boolean preVisit2(ASTNode node) {
+				// Nodes with no position are never found
+				if (node.getStartPosition() < 0) {
+					return false;
+				}
+				if (size > 0 && node.getStartPosition() < start[size - 1]) {
+					sorted = false;
+				}
+
+				if (size == nodes.length) {
+					grow();
+				}
+				nodes[size] = node;
+				start[size] = node.getStartPosition();
+				end[size] = node.getStartPosition() + node.getLength();
+				parent[size] = stack.isEmpty() ? -1 : stack.get(stack.size() - 1);
+				stack.add(size);
+				size++;
+				return true;
+			}
+
+			@Override
+			public void postVisit(ASTNode node) {
+				if (node.getStartPosition() >= 0) {
+					next[stack.remove(stack.size() - 1)] = size;
+				}
+			}
+		});
+	}
+
+	private void grow() {
+		int capacity = 2 * nodes.length;
+		nodes = Arrays.copyOf(nodes, capacity);
+		start = Arrays.copyOf(start, capacity);
+		end = Arrays.copyOf(end, capacity);
+		parent = Arrays.copyOf(parent, capacity);
+		next = Arrays.copyOf(next, capacity);
+	}
+
+	/**
+	 * Get the index of a compilation unit, building it the first time.
+	 *
+	 * @param compilationUnit The compilation unit.
+	 * @return The index of the compilation unit.
+	 */
+	public static OffsetIndex of(CompilationUnit compilationUnit) {
+		Object result = compilationUnit.getProperty(Constants.OFFSET_INDEX);
+		if (!(result instanceof OffsetIndex)) {
+			result = new OffsetIndex(compilationUnit);
+			compilationUnit.setProperty(Constants.OFFSET_INDEX, result);
+		}
+		return (OffsetIndex) result;
+	}
+
+	/**
+	 * Get the innermost node covering an offset (see
+	 * {@link NodeFinder#getCoveringNode()} for an empty selection).
+	 *
+	 * @param offset Character offset in the compilation unit.
+	 * @return The innermost node covering the offset, or null if there is none.
+	 */
+	public ASTNode getCoveringNode(int offset) {
+		if (!sorted) {
+			return new NodeFinder(compilationUnit, offset, 0).getCoveringNode();
+		}
+
+		// The last node (in preorder) starting before the offset, or the nearest of
+		// its ancestors which ends after it
+		int node = lastStartingAtOrBefore(offset);
+		while (node >= 0 && end[node] < offset) {
+			node = parent[node];
+		}
+
+		return (node >= 0) ? nodes[node] : null;
+	}
+
+	/**
+	 * Get the sibling nodes in a selection (see
+	 * {@link Utils.NodeFinderVisitorForGivenSelection}): the first node (in
+	 * preorder) in the selection and its siblings in the selection.
+	 *
+	 * @param offset Character offset of the selection.
+	 * @param length Length of the selection.
+	 * @return The sibling nodes in the selection, empty if there is none.
+	 */
+	public List<ASTNode> getSiblingNodes(int offset, int length) {
+		if (!sorted) {
+			return new Utils.NodeFinderVisitorForGivenSelection(compilationUnit, offset, length).getNodes();
+		}
+
+		List<ASTNode> result = new ArrayList<ASTNode>();
+		int selectionEnd = offset + length;
+
+		// First node in the selection
+		int first = lastStartingAtOrBefore(offset - 1) + 1;
+		while (first < size && start[first] <= selectionEnd && end[first] > selectionEnd) {
+			first++;
+		}
+		if (first == size || start[first] > selectionEnd) {
+			return result;
+		}
+
+		// Its siblings in the selection
+		result.add(nodes[first]);
+		for (int node = next[first]; parent[first] >= 0 && node < size
+				&& parent[node] == parent[first]; node = next[node]) {
+			if (offset <= start[node] && end[node] <= selectionEnd) {
+				result.add(nodes[node]);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Binary search of the last node (in preorder) starting at or before an
+	 * offset.
+	 *
+	 * @return The number of the node, or -1 if all nodes start after the offset.
+	 */
+	private int lastStartingAtOrBefore(int offset) {
+		int low = 0, high = size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (start[middle] <= offset) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return high;
+	}
+}
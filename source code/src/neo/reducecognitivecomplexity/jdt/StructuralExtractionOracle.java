@@ -0,0 +1,469 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BreakStatement;
+import org.eclipse.jdt.core.dom.CatchClause;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.ContinueStatement;
+import org.eclipse.jdt.core.dom.DoStatement;
+import org.eclipse.jdt.core.dom.EnhancedForStatement;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ExpressionStatement;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.LabeledStatement;
+import org.eclipse.jdt.core.dom.LambdaExpression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.ReturnStatement;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
+import org.eclipse.jdt.core.dom.SuperFieldAccess;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.SwitchExpression;
+import org.eclipse.jdt.core.dom.SwitchStatement;
+import org.eclipse.jdt.core.dom.ThrowStatement;
+import org.eclipse.jdt.core.dom.TryStatement;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+import org.eclipse.jdt.core.dom.WhileStatement;
+import org.eclipse.jdt.core.dom.YieldStatement;
+import org.eclipse.ltk.core.refactoring.Change;
+
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.refactoringcache.ExtractionOracle;
+
+/**
+ * Oracle deciding the feasibility of a code extraction from the AST alone,
+ * without performing the refactoring. This allows to run without an Eclipse
+ * workspace, where {@link org.eclipse.jdt.internal.corext.refactoring.code.ExtractMethodRefactoring
+ * ExtractMethodRefactoring} can not be used.
+ * <p>
+ * This is an approximation of the checks of the refactoring: the extraction is
+ * infeasible if the selected statements contain a return statement (unless
+ * the selection ends the body), a jump
+ * (break, continue or yield) whose target is not selected, a call to another
+ * constructor, or if more than one local variable would have to be returned.
+ * The extracted method is not compiled. Local variables are matched by their
+ * bindings if the AST was parsed resolving them, and by their names otherwise.
+ */
+public class StructuralExtractionOracle implements ExtractionOracle {
+
+	@Override
+	public CodeExtractionMetrics evaluate(Sequence sequence) {
+		ASTNode nodeA = sequence.getSiblingNodes().get(0);
+		while (nodeA != null && !(nodeA instanceof Statement)) {
+			nodeA = nodeA.getParent();
+		}
+		ASTNode nodeB = sequence.getSiblingNodes().get(sequence.getSiblingNodes().size() - 1);
+		while (nodeB != null && !(nodeB instanceof Statement)) {
+			nodeB = nodeB.getParent();
+		}
+
+		return evaluate(nodeA, nodeB);
+	}
+
+	/**
+	 * Evaluate the extraction of the statements between two sibling statements
+	 * (both included).
+	 *
+	 * @param nodeA First statement to extract.
+	 * @param nodeB Last statement to extract.
+	 * @return Metrics of the code extraction.
+	 */
+	public CodeExtractionMetrics evaluate(ASTNode nodeA, ASTNode nodeB) {
+		if (nodeA == null || nodeB == null) {
+			return new CodeExtractionMetrics(false, "Selection does not cover a set of statements.", false, 0, 0,
+					new ArrayList<Change>(), new ArrayList<Change>());
+		}
+
+		int start = nodeA.getStartPosition();
+		int end = nodeB.getStartPosition() + nodeB.getLength();
+		CompilationUnit compilationUnit = (CompilationUnit) nodeA.getRoot();
+		ASTNode scope = getScope(nodeA);
+
+		// Local variables (visible from the selection) and their offsets. Variables
+		// declared in enclosing methods can be captured by lambdas and inner classes
+		Map<Object, Integer> locals = new HashMap<>();
+		getOutermostScope(nodeA).accept(new ASTVisitor() {
+			@Override
+			public boolean visit(SimpleName node) {
+				if (node.getParent() instanceof VariableDeclaration
+						&& ((VariableDeclaration) node.getParent()).getName() == node) {
+					locals.putIfAbsent(key(node), node.getStartPosition());
+				}
+				return true;
+			}
+		});
+
+		// Check the selected statements
+		SelectionVisitor selection = new SelectionVisitor(start, end, locals, isLastStatementOfBody(nodeB, scope),
+				completesAbruptly(nodeB));
+		for (ASTNode node = nodeA; node != null; node = nextSibling(node, nodeB)) {
+			node.accept(selection);
+		}
+
+		String reason = selection.reason;
+		if (reason == null) {
+			// Variables assigned (or declared) in the selection and read after it
+			Set<Object> returnValues = new HashSet<>();
+			scope.accept(new ASTVisitor() {
+				@Override
+				public boolean visit(SimpleName node) {
+					if (node.getStartPosition() >= end && isVariableReference(node)) {
+						Object key = key(node);
+						if (selection.assigned.contains(key) || isDeclaredInSelection(key)) {
+							returnValues.add(key);
+						}
+					}
+					return true;
+				}
+
+				private boolean isDeclaredInSelection(Object key) {
+					Integer declaration = locals.get(key);
+					return declaration != null && declaration >= start && declaration < end;
+				}
+			});
+
+			if (returnValues.size() > 1) {
+				reason = "Ambiguous return value: Selected block contains more than one assignment to local variables. "
+						+ "Affected variables are: " + returnValues.size();
+			}
+		}
+
+		boolean feasible = reason == null;
+		int numberOfExtractedLinesOfCode = feasible ? Utils.numberOfLinesOfCode(compilationUnit, start, end - start)
+				: 0;
+		int numberOfParametersInExtractedMethod = feasible ? selection.parameters.size() : 0;
+
+		return new CodeExtractionMetrics(feasible, feasible ? "OK" : reason, false, numberOfExtractedLinesOfCode,
+				numberOfParametersInExtractedMethod, new ArrayList<Change>(), new ArrayList<Change>());
+	}
+
+	/**
+	 * Visitor of the selected statements collecting parameters and assigned
+	 * variables of the extracted method, and the reason why the extraction is not
+	 * feasible (if found).
+	 */
+	private static class SelectionVisitor extends ASTVisitor {
+		private int start;
+		private int end;
+		private Map<Object, Integer> locals;
+
+		private Set<Object> parameters = new HashSet<>();
+		private Set<Object> assigned = new HashSet<>();
+		/**
+		 * Variables written (before being read) in the blocks under visit. A write
+		 * in a block is only seen by reads in the same block.
+		 */
+		private Deque<Set<Object>> written = new ArrayDeque<>();
+		private String reason = null;
+
+		/**
+		 * The selection ends the body (method or lambda expression). Return statements
+		 * can be kept in the extracted method if they do not return a value or if the
+		 * selection always returns.
+		 */
+		private boolean endsBody;
+		private boolean alwaysReturns;
+
+		SelectionVisitor(int start, int end, Map<Object, Integer> locals, boolean endsBody, boolean alwaysReturns) {
+			this.written.push(new HashSet<>());
+			this.start = start;
+			this.end = end;
+			this.locals = locals;
+			this.endsBody = endsBody;
+			this.alwaysReturns = alwaysReturns;
+		}
+
+		@Override
+		public boolean visit(ReturnStatement node) {
+			boolean canBeKept = endsBody && (node.getExpression() == null || alwaysReturns);
+			if (!canBeKept && !isInNestedBody(node)) {
+				setReason("Selected statements contain a return statement but not all possible execution flows end in a return.");
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(BreakStatement node) {
+			checkJumpTarget(node, node.getLabel() != null ? node.getLabel().getIdentifier() : null, false);
+			return true;
+		}
+
+		@Override
+		public boolean visit(ContinueStatement node) {
+			checkJumpTarget(node, node.getLabel() != null ? node.getLabel().getIdentifier() : null, true);
+			return true;
+		}
+
+		@Override
+		public boolean visit(YieldStatement node) {
+			ASTNode target = node.getParent();
+			while (target != null && !(target instanceof SwitchExpression)) {
+				target = target.getParent();
+			}
+			if (target != null && !isSelected(target)) {
+				setReason("Selection contains branch statement but corresponding branch target is not selected.");
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(ConstructorInvocation node) {
+			setReason("Cannot extract super or this call from constructor.");
+			return true;
+		}
+
+		@Override
+		public boolean visit(SuperConstructorInvocation node) {
+			setReason("Cannot extract super or this call from constructor.");
+			return true;
+		}
+
+		@Override
+		public boolean visit(SimpleName node) {
+			if (isVariableReference(node)) {
+				Object key = key(node);
+				Integer declaration = locals.get(key);
+				if (declaration != null && declaration < start && !written.peek().contains(key)) {
+					parameters.add(key);
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(Block node) {
+			written.push(new HashSet<>(written.peek()));
+			return true;
+		}
+
+		@Override
+		public void endVisit(Block node) {
+			written.pop();
+		}
+
+		@Override
+		public boolean visit(Assignment node) {
+			addAssigned(node.getLeftHandSide());
+
+			// A variable always written before being read is not a parameter (the value
+			// is computed before the variable is written)
+			if (node.getOperator() == Assignment.Operator.ASSIGN && node.getLeftHandSide() instanceof SimpleName
+					&& node.getParent() instanceof ExpressionStatement && node.getParent().getParent() instanceof Block) {
+				node.getRightHandSide().accept(this);
+				Object key = key((SimpleName) node.getLeftHandSide());
+				if (!parameters.contains(key)) {
+					written.peek().add(key);
+				}
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(PrefixExpression node) {
+			if (node.getOperator() == PrefixExpression.Operator.INCREMENT
+					|| node.getOperator() == PrefixExpression.Operator.DECREMENT) {
+				addAssigned(node.getOperand());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(PostfixExpression node) {
+			addAssigned(node.getOperand());
+			return true;
+		}
+
+		private void addAssigned(Expression expression) {
+			if (expression instanceof SimpleName) {
+				Integer declaration = locals.get(key((SimpleName) expression));
+				if (declaration != null && declaration < start) {
+					assigned.add(key((SimpleName) expression));
+				}
+			}
+		}
+
+		/**
+		 * Check if the target of a jump (break or continue) is selected.
+		 */
+		private void checkJumpTarget(Statement jump, String label, boolean isContinue) {
+			ASTNode target = jump.getParent();
+			while (target != null && !isBoundary(target) && !isTarget(target, label, isContinue)) {
+				target = target.getParent();
+			}
+			if (target != null && !isBoundary(target) && !isSelected(target)) {
+				setReason("Selection contains branch statement but corresponding branch target is not selected.");
+			}
+		}
+
+		private boolean isSelected(ASTNode node) {
+			return node.getStartPosition() >= start && node.getStartPosition() + node.getLength() <= end;
+		}
+
+		private void setReason(String reason) {
+			if (this.reason == null) {
+				this.reason = reason;
+			}
+		}
+
+		private static boolean isTarget(ASTNode node, String label, boolean isContinue) {
+			if (label != null) {
+				return node instanceof LabeledStatement
+						&& ((LabeledStatement) node).getLabel().getIdentifier().equals(label);
+			}
+
+			boolean isLoop = node instanceof ForStatement || node instanceof EnhancedForStatement
+					|| node instanceof WhileStatement || node instanceof DoStatement;
+			return isLoop || (!isContinue && node instanceof SwitchStatement);
+		}
+
+		/**
+		 * Check if a node is inside a lambda expression or a class declared in the
+		 * selection.
+		 */
+		private boolean isInNestedBody(ASTNode node) {
+			ASTNode current = node.getParent();
+			while (current != null && isSelected(current)) {
+				if (current instanceof LambdaExpression || current instanceof AnonymousClassDeclaration
+						|| current instanceof AbstractTypeDeclaration) {
+					return true;
+				}
+				current = current.getParent();
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Body containing the statements to extract: a method, an initializer or a
+	 * lambda expression.
+	 */
+	private static ASTNode getScope(ASTNode node) {
+		ASTNode result = node;
+		while (result.getParent() != null && !isBoundary(result)) {
+			result = result.getParent();
+		}
+		return result;
+	}
+
+	/**
+	 * Outermost method or initializer containing the statements to extract.
+	 */
+	private static ASTNode getOutermostScope(ASTNode node) {
+		ASTNode result = getScope(node);
+		for (ASTNode current = result; current != null; current = current.getParent()) {
+			if (current instanceof MethodDeclaration || current instanceof Initializer) {
+				result = current;
+			}
+		}
+		return result;
+	}
+
+	private static boolean isLastStatementOfBody(ASTNode node, ASTNode scope) {
+		ASTNode body = (scope instanceof MethodDeclaration) ? ((MethodDeclaration) scope).getBody()
+				: (scope instanceof LambdaExpression) ? ((LambdaExpression) scope).getBody()
+						: ((Initializer) scope).getBody();
+		return node.getParent() == body && Utils.getRightSiblings(node).isEmpty();
+	}
+
+	/**
+	 * Check if a statement always ends with a return or throw statement.
+	 */
+	private static boolean completesAbruptly(ASTNode node) {
+		if (node instanceof ReturnStatement || node instanceof ThrowStatement) {
+			return true;
+		}
+		if (node instanceof Block) {
+			List<?> statements = ((Block) node).statements();
+			return !statements.isEmpty() && completesAbruptly((ASTNode) statements.get(statements.size() - 1));
+		}
+		if (node instanceof IfStatement) {
+			IfStatement ifStatement = (IfStatement) node;
+			return ifStatement.getElseStatement() != null && completesAbruptly(ifStatement.getThenStatement())
+					&& completesAbruptly(ifStatement.getElseStatement());
+		}
+		if (node instanceof TryStatement) {
+			TryStatement tryStatement = (TryStatement) node;
+			if (tryStatement.getFinally() != null && completesAbruptly(tryStatement.getFinally())) {
+				return true;
+			}
+			boolean result = completesAbruptly(tryStatement.getBody());
+			for (Object catchClause : tryStatement.catchClauses()) {
+				result = result && completesAbruptly(((CatchClause) catchClause).getBody());
+			}
+			return result;
+		}
+		return false;
+	}
+
+	private static boolean isBoundary(ASTNode node) {
+		return node instanceof MethodDeclaration || node instanceof Initializer || node instanceof LambdaExpression;
+	}
+
+	private static ASTNode nextSibling(ASTNode node, ASTNode last) {
+		if (node == last) {
+			return null;
+		}
+
+		List<ASTNode> siblings = Utils.getRightSiblings(node);
+		return siblings.isEmpty() ? null : siblings.get(0);
+	}
+
+	/**
+	 * Identify a variable: by its binding if it was resolved and by its name
+	 * otherwise.
+	 */
+	private static Object key(SimpleName name) {
+		IBinding binding = name.resolveBinding();
+		return (binding != null) ? binding : name.getIdentifier();
+	}
+
+	/**
+	 * Check if a name could be a reference to a local variable (it is not the name
+	 * of a member accessed through a qualifier, nor the name of a method).
+	 */
+	private static boolean isVariableReference(SimpleName name) {
+		ASTNode parent = name.getParent();
+
+		if (parent instanceof QualifiedName) {
+			return ((QualifiedName) parent).getQualifier() == name;
+		}
+		if (parent instanceof FieldAccess) {
+			return ((FieldAccess) parent).getName() != name;
+		}
+		if (parent instanceof MethodInvocation) {
+			return ((MethodInvocation) parent).getName() != name;
+		}
+		if (parent instanceof VariableDeclaration) {
+			return ((VariableDeclaration) parent).getName() != name;
+		}
+
+		return !(parent instanceof SuperFieldAccess) && !(parent instanceof SuperMethodInvocation)
+				&& !(parent instanceof LabeledStatement) && !(parent instanceof BreakStatement)
+				&& !(parent instanceof ContinueStatement);
+	}
+}
@@ -4,10 +4,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
-import java.util.function.Predicate;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
@@ -19,6 +21,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IMethod;
@@ -27,13 +30,13 @@ import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.IfStatement;
 import org.eclipse.jdt.core.dom.ImportDeclaration;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
-import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
 import org.eclipse.jdt.internal.corext.refactoring.code.ExtractMethodRefactoring;
 import org.eclipse.jdt.internal.corext.refactoring.structure.ChangeSignatureProcessor;
@@ -65,6 +68,16 @@ public class Utils {
 	 *         associated to the file.
 	 */
     public static CompilationUnit createCompilationUnitFromFileInWorkspace(String pathToFileInWorkspace) {
+        // Usual case: the file is found (and only that file is refreshed) by the resolver
+        ICompilationUnit resolved = CompilationUnitResolver.resolve(pathToFileInWorkspace);
+        if (resolved != null) {
+            try {
+                return parse(resolved);
+            } catch (Exception e) {
+                // fall through to the search in the workspace
+            }
+        }
+
         IWorkspace workspace = ResourcesPlugin.getWorkspace();
         // Normalize to workspace-absolute path: "/<project>/<relative>"
         String p = pathToFileInWorkspace.replace('\\', '/');
@@ -95,6 +108,10 @@ public class Utils {
             if (file.exists()) {
                 ICompilationUnit element = JavaCore.createCompilationUnitFrom(file);
                 if (element != null) {
+                    if (WorkspaceBatch.isActive() && !element.isWorkingCopy()) {
+                        // Deltas are not processed in a batch: drop the buffer to read the file again
+                        try { element.close(); } catch (Exception e) { /* ignore */ }
+                    }
                     try { element.open(null); } catch (Exception e) { /* ignore */ }
                     ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
                     parser.setResolveBindings(true);
@@ -197,6 +214,103 @@ public class Utils {
         return (CompilationUnit) parser.createAST(null);
     }
 	
+	/**
+	 * Create the {@link org.eclipse.jdt.core.dom.CompilationUnit CompilationUnit}
+	 * of several files in the workspace at once. All files are parsed in a single
+	 * {@link ASTParser#createASTs} call, so the binding environment (and the types
+	 * looked up) is shared among them.
+	 * 
+	 * @param pathsToFilesInWorkspace relative file paths in the workspace.
+	 * @return The {@link org.eclipse.jdt.core.dom.CompilationUnit CompilationUnit}
+	 *         associated to each path. Paths not found in the workspace are not
+	 *         included (use {@link #createCompilationUnitFromFileInWorkspace} for
+	 *         them).
+	 */
+	public static Map<String, CompilationUnit> createCompilationUnitsFromFilesInWorkspace(
+			Collection<String> pathsToFilesInWorkspace) {
+		Map<String, CompilationUnit> result = new HashMap<>();
+		Map<ICompilationUnit, String> paths = new LinkedHashMap<>();
+
+		for (String path : pathsToFilesInWorkspace) {
+			ICompilationUnit element = CompilationUnitResolver.resolve(path);
+			if (element != null) {
+				open(element);
+				paths.put(element, path);
+			}
+		}
+
+		if (!paths.isEmpty()) {
+			ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+			parser.setResolveBindings(true);
+			parser.setKind(ASTParser.K_COMPILATION_UNIT);
+			parser.setBindingsRecovery(true);
+			// Project options are taken from the first compilation unit: all of them are
+			// in the same project
+			parser.setProject(paths.keySet().iterator().next().getJavaProject());
+			parser.createASTs(paths.keySet().toArray(new ICompilationUnit[0]), new String[0], new ASTRequestor() {
+				@Override
+				public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+					result.put(paths.get(source), ast);
+				}
+			}, null);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Parse a compilation unit resolving bindings.
+	 * 
+	 * @param element The compilation unit to parse.
+	 * @return The AST of the compilation unit.
+	 */
+	private static CompilationUnit parse(ICompilationUnit element) {
+		return parse(element, -1);
+	}
+
+	/**
+	 * Parse a compilation unit resolving bindings.
+	 * 
+	 * @param element       The compilation unit to parse.
+	 * @param focalPosition If not negative, only the body of the method (or
+	 *                      initializer) containing this position is parsed.
+	 * @return The AST of the compilation unit.
+	 */
+	private static CompilationUnit parse(ICompilationUnit element, int focalPosition) {
+		open(element);
+
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setResolveBindings(true);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setBindingsRecovery(true);
+		if (focalPosition >= 0) {
+			parser.setFocalPosition(focalPosition);
+		}
+		parser.setSource(element);
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	/**
+	 * Open a compilation unit before parsing it.
+	 * 
+	 * @param element The compilation unit to open.
+	 */
+	private static void open(ICompilationUnit element) {
+		if (WorkspaceBatch.isActive() && !element.isWorkingCopy()) {
+			// Deltas are not processed in a batch: drop the buffer to read the file again
+			try {
+				element.close();
+			} catch (Exception e) {
+				/* ignore */
+			}
+		}
+		try {
+			element.open(null);
+		} catch (Exception e) {
+			/* ignore */
+		}
+	}
+
 	/**
 	 * Create a {@link org.eclipse.jdt.core.dom.CompilationUnit CompilationUnit}
 	 * from the path of a file in the system.
@@ -363,6 +477,9 @@ public class Utils {
 		boolean feasible = true;
 		int numberOfExtractedLinesOfCode = 0, numberOfParametersInExtractedMethod = 0;
 		IProgressMonitor npm = new NullProgressMonitor();
+		// Checks of the refactoring are canceled when the deadline of the oracle call is
+		// reached (changes in disk are always performed and undone)
+		IProgressMonitor checksMonitor = new DeadlineProgressMonitor(Constants.ORACLE_TIMEOUT * 1000);
 		String resultOfRefactoring = new String("");
 		boolean compilationErrors = false;
 		
@@ -379,13 +496,13 @@ public class Utils {
 
 			// Check initial conditions of the refactoring (it returns OK when it is
 			// feasible)
-			RefactoringStatus status = refactoring.checkInitialConditions(npm);
+			RefactoringStatus status = refactoring.checkInitialConditions(checksMonitor);
 
 			// Check if refactoring satisfies initial conditions
 			if (status.isOK()) {
 				// Check if code will be valid after applying the refactoring (it returns OK
 				// when it is feasible)
-				status = refactoring.checkFinalConditions(npm);
+				status = refactoring.checkFinalConditions(checksMonitor);
 				
 				// Check if refactoring satisfies final conditions
 				if (status.isOK()) {
@@ -402,19 +519,26 @@ public class Utils {
 					refactoring.setReplaceDuplicates(false);
 
 					// The change to perform
-					Change c = refactoring.createChange(npm);
+					Change c = refactoring.createChange(checksMonitor);
 
 					// Perform the refactoring (the compilation unit is NOT modified but the file in
 					// disk)
 					Change undo = c.perform(npm);
 
-					// Reload compilation unit (refactoring is applied to the file but is no
-					// reflected in the current compilation unit)
-					CompilationUnit compilationUnitAfterRefactoring = createCompilationUnitFromFileInWorkspace(
-							compilationUnit.getJavaElement().getPath().toOSString());
+					if (Constants.FOCAL_VERIFICATION) {
+						// Check if the edited method and the extracted one can be compiled
+						compilationErrors = builtWithCompilationErrorsInEditedMethods(
+								compilationUnit.getJavaElement().getPath().toOSString(), selectionStart,
+								extractedMethodName);
+					} else {
+						// Reload compilation unit (refactoring is applied to the file but is no
+						// reflected in the current compilation unit)
+						CompilationUnit compilationUnitAfterRefactoring = createCompilationUnitFromFileInWorkspace(
+								compilationUnit.getJavaElement().getPath().toOSString());
 
-					// Check if the compilation unit can be compiled
-					compilationErrors = builtWithCompilationErrors(compilationUnitAfterRefactoring);
+						// Check if the compilation unit can be compiled
+						compilationErrors = builtWithCompilationErrors(compilationUnitAfterRefactoring);
+					}
 					if (compilationErrors) {
 						resultOfRefactoring = "Compilation unit does not compile after method extraction.";
 						feasible = false;
@@ -443,6 +567,9 @@ public class Utils {
 				feasible = false;
 				resultOfRefactoring = status.getEntryAt(0).getMessage();
 			}
+		} catch (OperationCanceledException e) {
+			feasible = false;
+			resultOfRefactoring = "The deadline of the oracle call was reached.";
 		} catch (CoreException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
@@ -476,6 +603,59 @@ public class Utils {
 		return error;
 	}
 	
+	/**
+	 * Check if a code extraction introduced compilation errors, resolving only the
+	 * bodies of the methods edited by the extraction: the method the code was
+	 * extracted from and the extracted method. Bodies of other methods are not
+	 * parsed (see {@link ASTParser#setFocalPosition}), so errors in them are not
+	 * reported.
+	 * 
+	 * @param pathToFileInWorkspace file path in the workspace after the extraction.
+	 * @param offsetInEditedMethod  an offset inside the body of the method the
+	 *                              code was extracted from.
+	 * @param extractedMethodName   name of the extracted method.
+	 * @return true if any of the edited methods has compilation errors.
+	 * @throws CoreException
+	 */
+	public static boolean builtWithCompilationErrorsInEditedMethods(String pathToFileInWorkspace,
+			int offsetInEditedMethod, String extractedMethodName) throws CoreException {
+		ICompilationUnit element = CompilationUnitResolver.resolve(pathToFileInWorkspace);
+		if (element == null) {
+			return builtWithCompilationErrors(createCompilationUnitFromFileInWorkspace(pathToFileInWorkspace));
+		}
+
+		// Method the code was extracted from
+		CompilationUnit compilationUnit = parse(element, offsetInEditedMethod);
+		if (builtWithCompilationErrors(compilationUnit)) {
+			return true;
+		}
+
+		// Extracted method
+		List<MethodDeclaration> extractedMethods = new ArrayList<>();
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration node) {
+				if (node.getName().getIdentifier().equals(extractedMethodName) && node.getBody() != null) {
+					extractedMethods.add(node);
+				}
+				return true;
+			}
+		});
+
+		boolean error = false;
+		int index = 0;
+		while (!error && index < extractedMethods.size()) {
+			ASTNode body = extractedMethods.get(index).getBody();
+			if (body.getStartPosition() > offsetInEditedMethod
+					|| body.getStartPosition() + body.getLength() < offsetInEditedMethod) {
+				error = builtWithCompilationErrors(parse(element, body.getStartPosition() + 1));
+			}
+			index++;
+		}
+
+		return error;
+	}
+
 	public static String getCompilationUnitProblems(CompilationUnit compilationUnit) {
 		StringJoiner result = new StringJoiner(System.lineSeparator());
 		
@@ -498,8 +678,8 @@ public class Utils {
 	 * @return the innermost node that fully contains the selection.
 	 */
 	public static ASTNode findNode(CompilationUnit compilationUnit, int startLine, int startOffset) {
-		NodeFinder finder = new NodeFinder(compilationUnit, compilationUnit.getPosition(startLine, startOffset), 0);
-		ASTNode node = finder.getCoveringNode();
+		ASTNode node = OffsetIndex.of(compilationUnit)
+				.getCoveringNode(compilationUnit.getPosition(startLine, startOffset));
 
 		return node;
 	}
@@ -811,130 +991,82 @@ public class Utils {
 	 * @return The nesting component of cognitive complexity of the node
 	 */
 	public static int computeNesting(ASTNode node) {
+		return computeNesting(node, getMethodDeclaration(node));
+	}
+
+	/**
+	 * Compute the nesting of the given node from one of its ancestors
+	 * 
+	 * @param node
+	 * @param root Ancestor where nesting is 0 (usually the method declaration of
+	 *             the node)
+	 * @return The nesting of the node from the ancestor
+	 */
+	public static int computeNesting(ASTNode node, ASTNode root) {
 		int nesting = 0;
 		ASTNode current = node;
 		ASTNode child = null;
-		ASTNode root = getMethodDeclaration(node);
-		
+
 		while (current != null && !(current.equals(root))) {
 			child = current;
 			current = current.getParent();
-
-			switch (current.getNodeType()) {
-			case ASTNode.FOR_STATEMENT:
-			case ASTNode.ENHANCED_FOR_STATEMENT:
-			case ASTNode.WHILE_STATEMENT:
-			case ASTNode.DO_STATEMENT:
-			case ASTNode.CATCH_CLAUSE:
-			case ASTNode.SWITCH_STATEMENT:
-			case ASTNode.LAMBDA_EXPRESSION:
-			case ASTNode.CONDITIONAL_EXPRESSION:
-				nesting++;
-				break;
-			case ASTNode.METHOD_DECLARATION:
-				if (!current.equals(root))
-					nesting++;
-				break;
-			case ASTNode.IF_STATEMENT:
-				if (child.getLocationInParent().equals(IfStatement.THEN_STATEMENT_PROPERTY)) {
-					nesting++;
-				} else if (child.getLocationInParent().equals(IfStatement.ELSE_STATEMENT_PROPERTY)) {
-					if (!(child instanceof IfStatement)) {
-						nesting++;
-					}
-				}
-				break;
-			}
+			nesting += nestingIncrement(current, child, root);
 		}
 
 		return nesting;
 	}
 
 	/**
-	 * Compute and annotate in the AST of a method the accumulated inherent and
-	 * nesting components of cognitive complexity and the number of nodes with
-	 * contributions to the nesting component.
+	 * Get the increment of nesting from a node to one of its children
 	 * 
-	 * @param ast The AST of the method under processing.
-	 * @return The total complexity of the method
+	 * @param parent
+	 * @param child
+	 * @param root   Ancestor where nesting is 0 (see {@link #computeNesting})
+	 * @return 1 if the child is nested in the parent, 0 otherwise
 	 */
-	public static int computeAndAnnotateAccumulativeCognitiveComplexity(MethodDeclaration ast) {
-		int result;
-
-		ast.setProperty(Constants.CONTRIBUTION_TO_COMPLEXITY, 0);
-		ast.setProperty(Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING, 0);
-
-		computeAllComponentsOfCognitiveComplexity(ast);
-
-		result = (int) ast.getProperty(Constants.ACCUMULATED_COMPLEXITY);
-
-		return result;
+	public static int nestingIncrement(ASTNode parent, ASTNode child, ASTNode root) {
+		switch (parent.getNodeType()) {
+		case ASTNode.FOR_STATEMENT:
+		case ASTNode.ENHANCED_FOR_STATEMENT:
+		case ASTNode.WHILE_STATEMENT:
+		case ASTNode.DO_STATEMENT:
+		case ASTNode.CATCH_CLAUSE:
+		case ASTNode.SWITCH_STATEMENT:
+		// As in S3776, switch expressions nest like switch statements
+		case ASTNode.SWITCH_EXPRESSION:
+		case ASTNode.LAMBDA_EXPRESSION:
+		case ASTNode.CONDITIONAL_EXPRESSION:
+			return 1;
+		case ASTNode.METHOD_DECLARATION:
+			return parent.equals(root) ? 0 : 1;
+		case ASTNode.IF_STATEMENT:
+			if (child.getLocationInParent().equals(IfStatement.THEN_STATEMENT_PROPERTY)) {
+				return 1;
+			} else if (child.getLocationInParent().equals(IfStatement.ELSE_STATEMENT_PROPERTY)) {
+				return (child instanceof IfStatement) ? 0 : 1;
+			}
+			return 0;
+		default:
+			return 0;
+		}
 	}
 
 	/**
 	 * Compute and annotate in the AST of a method the accumulated inherent and
 	 * nesting components of cognitive complexity and the number of nodes with
-	 * contributions to the nesting component.
+	 * contributions to the nesting component. They are kept in a
+	 * {@link ComplexityTable} attached to the nodes of the method.
 	 * 
 	 * @param ast The AST of the method under processing.
+	 * @return The total complexity of the method
 	 */
-	private static void computeAllComponentsOfCognitiveComplexity(MethodDeclaration ast) {
-		ast.accept(new ASTVisitor() {
-			public void postVisit(ASTNode node) {
-				accumulateProperties(node, Constants.CONTRIBUTION_TO_COMPLEXITY, Constants.ACCUMULATED_COMPLEXITY);
-				accumulateProperties(node, Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING,
-						Constants.ACCUMULATED_CONTRIBUTION_TO_COMPLEXITY_BY_NESTING);
-				countNodesWithProperty(node,
-						n -> Utils.getIntegerPropertyOfNode(n, Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING) > 0,
-						Constants.ACCUMULATED_NUMBER_NESTING_COMPLEXITY_CONTRIBUTORS);
-
-				int acc = Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_COMPLEXITY);
-				int accn = Utils.getIntegerPropertyOfNode(node,
-						Constants.ACCUMULATED_CONTRIBUTION_TO_COMPLEXITY_BY_NESTING);
-				int mu = Utils.getIntegerPropertyOfNode(node,
-						Constants.ACCUMULATED_NUMBER_NESTING_COMPLEXITY_CONTRIBUTORS);
-
-				int iota = acc - accn;
-				node.setProperty(Constants.ACCUMULATED_INHERENT_COMPLEXITY_COMPONENT, iota);
-
-				int nesting = Utils.computeNesting(node);
-				int nu = accn - mu * nesting;
-				node.setProperty(Constants.ACCUMULATED_NESTING_COMPLEXITY_COMPONENT, nu);
-
-				int ccNewExtractedMethod = iota + nu;
-				node.setProperty(Constants.COMPLEXITY_WHEN_EXTRACTING, ccNewExtractedMethod);
-			}
-
-			private void countNodesWithProperty(ASTNode node, Predicate<ASTNode> predicate,
-					String accumulatorProperty) {
-				int accumulated = Utils.getIntegerPropertyOfNode(node, accumulatorProperty);
-				if (predicate.test(node)) {
-					accumulated++;
-				}
-				node.setProperty(accumulatorProperty, accumulated);
-
-				ASTNode parent = node.getParent();
-				if (parent != null) {
-					int parentAccumulated = Utils.getIntegerPropertyOfNode(parent, accumulatorProperty);
-					parent.setProperty(accumulatorProperty, accumulated + parentAccumulated);
-				}
-			}
-
-			private void accumulateProperties(ASTNode node, String property, String accumulatorProperty) {
-				int contribution = Utils.getIntegerPropertyOfNode(node, property);
-				int accumulated = Utils.getIntegerPropertyOfNode(node, accumulatorProperty);
-				accumulated += contribution;
-				node.setProperty(accumulatorProperty, accumulated);
-
-				ASTNode parent = node.getParent();
-				if (parent != null) {
-					int parentAccumulated = Utils.getIntegerPropertyOfNode(parent, accumulatorProperty);
-					parent.setProperty(accumulatorProperty, accumulated + parentAccumulated);
-				}
-			}
+	public static int computeAndAnnotateAccumulativeCognitiveComplexity(MethodDeclaration ast) {
+		ast.setProperty(Constants.CONTRIBUTION_TO_COMPLEXITY, 0);
+		ast.setProperty(Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING, 0);
 
-		});
+		ComplexityTable.build(ast);
 
+		return ComplexityTable.getAccumulatedComplexity(ast);
 	}
 
 	/**
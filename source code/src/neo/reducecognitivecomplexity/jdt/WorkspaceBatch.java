@@ -0,0 +1,90 @@
+package neo.reducecognitivecomplexity.jdt;
+
+import java.util.logging.Logger;
+
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceDescription;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+
+import neo.reducecognitivecomplexity.Constants;
+
+/**
+ * Run the phases that perform (and undo) code extractions as a single
+ * workspace operation.
+ * <p>
+ * Every call to the oracle modifies the file in disk twice. Out of a batch,
+ * each modification broadcasts resource deltas that trigger the auto-builder
+ * and the indexer. In a batch, auto-building is turned off and deltas are
+ * coalesced until the end of the operation. The oracle does not rely on the
+ * builder (compilation errors are taken from the AST), so results do not
+ * change.
+ */
+public class WorkspaceBatch {
+	private static final Logger LOGGER = Logger.getLogger(WorkspaceBatch.class.getName());
+
+	/**
+	 * Nesting level of batches in the current thread.
+	 */
+	private static final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+	/**
+	 * Run the given action. When {@link Constants#WORKSPACE_BATCH} is enabled, the
+	 * action is run inside {@link IWorkspace#run} with auto-building turned off.
+	 * Otherwise, the action is simply run.
+	 *
+	 * @param rule   Scheduling rule covering the resources modified by the action.
+	 * @param action The action to run.
+	 * @throws CoreException when the action fails or the workspace description
+	 *                       can not be changed
+	 */
+	public static void run(ISchedulingRule rule, IWorkspaceRunnable action) throws CoreException {
+		if (!Constants.WORKSPACE_BATCH || isActive()) {
+			action.run(new NullProgressMonitor());
+			return;
+		}
+
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		boolean autoBuilding = setAutoBuilding(workspace, false);
+		depth.set(depth.get() + 1);
+		try {
+			workspace.run(action, rule, IWorkspace.AVOID_UPDATE, new NullProgressMonitor());
+		} finally {
+			depth.set(depth.get() - 1);
+			if (autoBuilding) {
+				setAutoBuilding(workspace, true);
+			}
+		}
+	}
+
+	/**
+	 * Check if the current thread is running inside a batch. Resource deltas are
+	 * not processed until the batch ends, so the Java model can be out of date.
+	 *
+	 * @return true if the current thread is inside a batch.
+	 */
+	public static boolean isActive() {
+		return depth.get() > 0;
+	}
+
+	/**
+	 * Change the auto-building setting of the workspace.
+	 *
+	 * @return The previous setting.
+	 */
+	private static boolean setAutoBuilding(IWorkspace workspace, boolean value) throws CoreException {
+		IWorkspaceDescription description = workspace.getDescription();
+		boolean previous = description.isAutoBuilding();
+
+		if (previous != value) {
+			description.setAutoBuilding(value);
+			workspace.setDescription(description);
+			LOGGER.info("Auto-building " + (value ? "restored" : "turned off"));
+		}
+
+		return previous;
+	}
+}
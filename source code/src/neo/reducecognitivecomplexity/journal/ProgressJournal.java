@@ -0,0 +1,134 @@
+package neo.reducecognitivecomplexity.journal;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of the methods completely processed in a run, together with
+ * their row in the results file, so an interrupted run can be resumed.
+ * <p>
+ * Each line of the journal is a completed method: its key (algorithm, class and
+ * method) and its result row, separated by a tab. A line is written (and the
+ * file synchronized with the disk) once the method has been processed, so the
+ * journal only contains complete methods. If the process is killed while a
+ * line is written, that partial line is discarded when the journal is opened
+ * again.
+ */
+public class ProgressJournal implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(ProgressJournal.class.getName());
+	private static final String SEPARATOR = "\t";
+
+	/**
+	 * Result row of each completed method.
+	 */
+	private final Map<String, String> completed = new LinkedHashMap<>();
+
+	private final FileOutputStream stream;
+	private final Writer writer;
+
+	/**
+	 * Open a journal.
+	 *
+	 * @param file   The file of the journal.
+	 * @param resume Read the methods completed in a previous run from the file
+	 *               and append new ones. Otherwise, the file is started again.
+	 * @throws IOException when reading or creating the file
+	 */
+	public ProgressJournal(Path file, boolean resume) throws IOException {
+		if (resume && Files.isRegularFile(file)) {
+			read(file);
+			LOGGER.info("Resuming run: " + completed.size() + " methods completed in " + file);
+		}
+
+		stream = new FileOutputStream(file.toFile(), resume);
+		writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Read the completed methods, discarding the last line if it is not complete.
+	 */
+	private void read(Path file) throws IOException {
+		String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		int end = content.lastIndexOf('\n') + 1;
+
+		for (String line : content.substring(0, end).split("\n")) {
+			int separator = line.indexOf(SEPARATOR);
+			if (separator > 0) {
+				completed.put(line.substring(0, separator), line.substring(separator + 1));
+			}
+		}
+
+		if (end < content.length()) {
+			// Partial line written when the process was killed
+			try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+				raf.setLength(content.substring(0, end).getBytes(StandardCharsets.UTF_8).length);
+			}
+		}
+	}
+
+	/**
+	 * Compose the key of a method in the journal.
+	 *
+	 * @param algorithm       Algorithm run.
+	 * @param classWithIssues Class (file) of the method.
+	 * @param line            Line of the name of the method (where issues are
+	 *                        located).
+	 * @return The key.
+	 */
+	public static String key(String algorithm, String classWithIssues, int line) {
+		return algorithm + ";" + classWithIssues.replace('\\', '/') + ";" + line;
+	}
+
+	/**
+	 * Check if a method was completed.
+	 *
+	 * @param key Key of the method (see {@link #key}).
+	 * @return true if the method is in the journal.
+	 */
+	public boolean isCompleted(String key) {
+		return completed.containsKey(key);
+	}
+
+	/**
+	 * Get the result rows of the completed methods, in the order they were
+	 * completed.
+	 *
+	 * @return The result rows (with no line terminator).
+	 */
+	public Collection<String> getRows() {
+		return completed.values();
+	}
+
+	/**
+	 * Record a method as completed.
+	 *
+	 * @param key Key of the method (see {@link #key}).
+	 * @param row Its row in the results file.
+	 * @throws IOException when writing the journal
+	 */
+	public void completed(String key, String row) throws IOException {
+		String singleLineRow = row.replace("\r", "").replace("\n", " ").trim();
+
+		writer.write(key + SEPARATOR + singleLineRow + "\n");
+		writer.flush();
+		stream.getFD().sync();
+
+		completed.put(key, singleLineRow);
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+}
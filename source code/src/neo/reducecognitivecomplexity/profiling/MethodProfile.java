@@ -0,0 +1,203 @@
+package neo.reducecognitivecomplexity.profiling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+/**
+ * Where the time of processing a method goes: the wall time of each phase
+ * (measured with {@link System#nanoTime()}), and the CPU time and bytes
+ * allocated by the current thread and the garbage collections during the whole
+ * processing.
+ * <p>
+ * Phases are sequential: starting a phase ends the previous one, and a phase
+ * can be started several times (its times are added). Phases shared by several
+ * methods (e.g. parsing a batch of files) are attributed to the method
+ * processed after them. Garbage collection time is the collection time
+ * accumulated by the collectors of the virtual machine (their pauses, for
+ * stop-the-world collectors), so it includes collections of other threads.
+ */
+public class MethodProfile {
+	public static final String EXTENSION = ".profile.json";
+
+	/**
+	 * Phases of the processing of a method.
+	 */
+	public enum Phase {
+		PARSE, ANNOTATION, SELECTOR_VISIT, CACHE_FILL, SEARCH, OUTPUT
+	}
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private String classWithIssues;
+	private String method;
+	private String algorithm;
+	private long wallNanos;
+	private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+	private long cpuNanos = -1;
+	private long allocatedBytes = -1;
+	private long gcCount;
+	private long gcMillis;
+
+	private transient final long start;
+	private transient final long startCpuNanos;
+	private transient final long startAllocatedBytes;
+	private transient final long startGcCount;
+	private transient final long startGcMillis;
+	private transient Phase phase;
+	private transient long phaseStart;
+
+	/**
+	 * Start profiling (the counters of resources start now).
+	 */
+	public MethodProfile() {
+		for (Phase p : Phase.values()) {
+			phaseNanos.put(p.name().toLowerCase(Locale.ROOT), 0L);
+		}
+		startCpuNanos = cpuTime();
+		startAllocatedBytes = allocatedBytes();
+		startGcCount = gcCount();
+		startGcMillis = gcMillis();
+		start = System.nanoTime();
+	}
+
+	/**
+	 * Start a phase, ending the current one.
+	 *
+	 * @param phase The phase.
+	 */
+	public void start(Phase phase) {
+		stop();
+		this.phase = phase;
+		phaseStart = System.nanoTime();
+	}
+
+	/**
+	 * End the current phase (if any).
+	 */
+	public void stop() {
+		if (phase != null) {
+			phaseNanos.merge(phase.name().toLowerCase(Locale.ROOT), System.nanoTime() - phaseStart, Long::sum);
+			phase = null;
+		}
+	}
+
+	/**
+	 * End profiling the processing of a method: the current phase is ended and
+	 * the counters of resources are read.
+	 *
+	 * @param classWithIssues Class (file) of the method.
+	 * @param method          Name of the method.
+	 * @param algorithm       Name of the algorithm.
+	 * @return This profile.
+	 */
+	public MethodProfile finish(String classWithIssues, String method, String algorithm) {
+		stop();
+		wallNanos = System.nanoTime() - start;
+		this.classWithIssues = classWithIssues;
+		this.method = method;
+		this.algorithm = algorithm;
+		if (startCpuNanos >= 0) {
+			cpuNanos = cpuTime() - startCpuNanos;
+		}
+		if (startAllocatedBytes >= 0) {
+			allocatedBytes = allocatedBytes() - startAllocatedBytes;
+		}
+		gcCount = gcCount() - startGcCount;
+		gcMillis = gcMillis() - startGcMillis;
+		return this;
+	}
+
+	/**
+	 * Get the wall time of a phase in nanoseconds
+	 */
+	public long getNanos(Phase phase) {
+		return phaseNanos.get(phase.name().toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Get the wall time of the processing in nanoseconds (once finished)
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * Get the CPU time of the current thread in nanoseconds (-1 if it can not be
+	 * measured)
+	 */
+	public long getCpuNanos() {
+		return cpuNanos;
+	}
+
+	/**
+	 * Get the bytes allocated by the current thread (-1 if they can not be
+	 * measured)
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	public long getGcCount() {
+		return gcCount;
+	}
+
+	public long getGcMillis() {
+		return gcMillis;
+	}
+
+	/**
+	 * Write the profile to a JSON file.
+	 *
+	 * @param file The file.
+	 * @throws IOException when writing the file
+	 */
+	public void write(Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			new Gson().toJson(this, writer);
+		}
+	}
+
+	private static long cpuTime() {
+		return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+	}
+
+	private static long allocatedBytes() {
+		// The extension of HotSpot may not be visible from the bundle
+		try {
+			if (THREADS instanceof com.sun.management.ThreadMXBean
+					&& ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemoryEnabled()) {
+				return ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes();
+			}
+		} catch (LinkageError e) {
+			// Not measured
+		}
+		return -1;
+	}
+
+	private static long gcCount() {
+		long result = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			result += Math.max(0, collector.getCollectionCount());
+		}
+		return result;
+	}
+
+	private static long gcMillis() {
+		long result = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			result += Math.max(0, collector.getCollectionTime());
+		}
+		return result;
+	}
+}
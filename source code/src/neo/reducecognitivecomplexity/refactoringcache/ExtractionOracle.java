@@ -0,0 +1,22 @@
+package neo.reducecognitivecomplexity.refactoringcache;
+
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
+
+/**
+ * Oracle deciding if the code extraction associated to a {@link Sequence} is
+ * feasible. It is called by the {@link RefactoringCache} on a miss.
+ * <p>
+ * By default, the oracle asks Eclipse to perform the refactoring (see
+ * {@link Sequence#evaluate()}).
+ */
+@FunctionalInterface
+public interface ExtractionOracle {
+	/**
+	 * Evaluate the code extraction associated to a sequence.
+	 * 
+	 * @param sequence The sequence to extract.
+	 * @return Metrics of the code extraction.
+	 */
+	CodeExtractionMetrics evaluate(Sequence sequence);
+}
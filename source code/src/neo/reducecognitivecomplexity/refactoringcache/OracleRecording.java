@@ -0,0 +1,281 @@
+package neo.reducecognitivecomplexity.refactoringcache;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import com.google.gson.Gson;
+
+import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.core.Pair;
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
+import neo.reducecognitivecomplexity.jdt.OffsetIndex;
+import neo.reducecognitivecomplexity.jdt.Utils;
+
+/**
+ * Recording of the answers of the oracle for a method, so the search can be
+ * replayed later without calling the oracle (see {@link ReplayOracle}).
+ * <p>
+ * Besides the answers (feasibility, reason, parameters and lines of code of
+ * each code extraction evaluated), a recording keeps what the search needs to
+ * rebuild the same AST: the source of the compilation unit, the contributions
+ * to complexity annotated in the nodes of the method, and the blocks of
+ * sentences found by {@link SentencesSelectorVisitor} (to check the replayed
+ * AST is the recorded one). Recordings are written as JSON.
+ */
+public class OracleRecording {
+	public static final String EXTENSION = ".recording.json";
+
+	private String classWithIssues;
+	private String methodName;
+	private int methodStartPosition;
+	private int complexity;
+	private String source;
+	private List<Annotation> annotations = new ArrayList<>();
+	private List<int[][]> blocks = new ArrayList<>();
+	private List<Answer> answers = new ArrayList<>();
+
+	/**
+	 * Contribution to complexity annotated in a node of the method.
+	 */
+	private static class Annotation {
+		private int start;
+		private int length;
+		private int nodeType;
+		private int contribution;
+		private int contributionByNesting;
+	}
+
+	/**
+	 * Answer of the oracle for the code extraction of the sentences between two
+	 * offsets (see {@link Sequence#getOffsetAsPair()}).
+	 */
+	private static class Answer {
+		private int a;
+		private int b;
+		private boolean feasible;
+		private String reason;
+		private int parameters;
+		private int extractedLinesOfCode;
+	}
+
+	/**
+	 * Record the answers of the oracle for a method, once its refactoring cache
+	 * has been filled and the search is over.
+	 *
+	 * @param classWithIssues  Class (file) of the method.
+	 * @param source           Source of the compilation unit of the method.
+	 * @param method           The method (annotated with its contribution to
+	 *                         complexity).
+	 * @param complexity       Cognitive complexity of the method.
+	 * @param refactoringCache Refactoring cache with the answers of the oracle.
+	 * @return The recording.
+	 */
+	public static OracleRecording record(String classWithIssues, String source, MethodDeclaration method,
+			int complexity, RefactoringCache refactoringCache) {
+		OracleRecording result = new OracleRecording();
+		result.classWithIssues = classWithIssues;
+		result.methodName = method.getName().getIdentifier();
+		result.methodStartPosition = method.getStartPosition();
+		result.complexity = complexity;
+		result.source = source;
+
+		method.accept(new ASTVisitor() {
+			@Override
+			public void preVisit(ASTNode node) {
+				if (node.getProperty(Constants.CONTRIBUTION_TO_COMPLEXITY) != null
+						|| node.getProperty(Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING) != null) {
+					Annotation annotation = new Annotation();
+					annotation.start = node.getStartPosition();
+					annotation.length = node.getLength();
+					annotation.nodeType = node.getNodeType();
+					annotation.contribution = Utils.getIntegerPropertyOfNode(node,
+							Constants.CONTRIBUTION_TO_COMPLEXITY);
+					annotation.contributionByNesting = Utils.getIntegerPropertyOfNode(node,
+							Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING);
+					result.annotations.add(annotation);
+				}
+			}
+		});
+
+		result.blocks = getBlocks(method);
+
+		for (Entry<Pair, CodeExtractionMetrics> entry : refactoringCache.cache.entrySet()) {
+			Answer answer = new Answer();
+			answer.a = entry.getKey().getA();
+			answer.b = entry.getKey().getB();
+			answer.feasible = entry.getValue().isFeasible();
+			answer.reason = entry.getValue().getReason();
+			answer.parameters = entry.getValue().getNumberOfParametersInExtractedMethod();
+			answer.extractedLinesOfCode = entry.getValue().getNumberOfExtractedLinesOfCode();
+			result.answers.add(answer);
+		}
+		result.answers.sort((x, y) -> (x.a != y.a) ? Integer.compare(x.a, y.a) : Integer.compare(x.b, y.b));
+
+		return result;
+	}
+
+	/**
+	 * Get the blocks of sentences of a method (see
+	 * {@link SentencesSelectorVisitor}): the start position and length of their
+	 * sentences.
+	 *
+	 * @param method The method (its accumulated complexity must be computed).
+	 * @return The blocks of the method.
+	 */
+	public static List<int[][]> getBlocks(MethodDeclaration method) {
+		List<int[][]> result = new ArrayList<>();
+		SentencesSelectorVisitor visitor = new SentencesSelectorVisitor((CompilationUnit) method.getRoot());
+		method.accept(visitor);
+
+		for (Sequence block : visitor.getSentencesToIterate()) {
+			int[][] sentences = new int[block.getSiblingNodes().size()][];
+			for (int i = 0; i < sentences.length; i++) {
+				ASTNode sentence = block.getSiblingNodes().get(i);
+				sentences[i] = new int[] { sentence.getStartPosition(), sentence.getLength() };
+			}
+			result.add(sentences);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Parse the recorded source (bindings are not resolved, the search does not
+	 * need them).
+	 *
+	 * @return The compilation unit.
+	 */
+	public CompilationUnit parse() {
+		Map<String, String> options = JavaCore.getOptions();
+		JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), options);
+
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setCompilerOptions(options);
+		parser.setSource(source.toCharArray());
+
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	/**
+	 * Find the recorded method in a compilation unit parsed from the recorded
+	 * source and annotate its contributions to complexity.
+	 *
+	 * @param compilationUnit The compilation unit (see {@link #parse()}).
+	 * @param contributors    List where nodes contributing to complexity are
+	 *                        added.
+	 * @return The method, or null if it is not found.
+	 */
+	public MethodDeclaration annotate(CompilationUnit compilationUnit, List<ASTNode> contributors) {
+		OffsetIndex index = OffsetIndex.of(compilationUnit);
+		MethodDeclaration result = (MethodDeclaration) find(index, methodStartPosition, -1,
+				ASTNode.METHOD_DECLARATION);
+		if (result == null || !result.getName().getIdentifier().equals(methodName)) {
+			return null;
+		}
+
+		for (Annotation annotation : annotations) {
+			ASTNode node = find(index, annotation.start, annotation.length, annotation.nodeType);
+			if (node == null) {
+				return null;
+			}
+			node.setProperty(Constants.CONTRIBUTION_TO_COMPLEXITY, annotation.contribution);
+			node.setProperty(Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING, annotation.contributionByNesting);
+			if (annotation.contribution != 0) {
+				contributors.add(node);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Find the node of a type starting at an offset (and with a length, unless it
+	 * is negative).
+	 */
+	private static ASTNode find(OffsetIndex index, int start, int length, int nodeType) {
+		ASTNode result = index.getCoveringNode(start);
+		while (result != null && !(result.getStartPosition() == start && result.getNodeType() == nodeType
+				&& (length < 0 || result.getLength() == length))) {
+			result = result.getParent();
+		}
+		return result;
+	}
+
+	/**
+	 * Get the answer of the oracle for each code extraction recorded.
+	 *
+	 * @return The metrics of each code extraction, as returned by the oracle.
+	 */
+	public Map<Pair, CodeExtractionMetrics> getAnswers() {
+		Map<Pair, CodeExtractionMetrics> result = new HashMap<>();
+		for (Answer answer : answers) {
+			result.put(new Pair(answer.a, answer.b), new CodeExtractionMetrics(answer.feasible, answer.reason, false,
+					answer.extractedLinesOfCode, answer.parameters, new ArrayList<>(), new ArrayList<>()));
+		}
+		return result;
+	}
+
+	public String getClassWithIssues() {
+		return classWithIssues;
+	}
+
+	public String getMethodName() {
+		return methodName;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public int getComplexity() {
+		return complexity;
+	}
+
+	public List<int[][]> getBlocks() {
+		return blocks;
+	}
+
+	/**
+	 * Write the recording to a file.
+	 *
+	 * @param file The file.
+	 * @throws IOException when writing the file
+	 */
+	public void write(Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			new Gson().toJson(this, writer);
+		}
+	}
+
+	/**
+	 * Read a recording from a file.
+	 *
+	 * @param file The file.
+	 * @return The recording.
+	 * @throws IOException when reading the file
+	 */
+	public static OracleRecording read(Path file) throws IOException {
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return new Gson().fromJson(reader, OracleRecording.class);
+		}
+	}
+}
@@ -2,6 +2,7 @@ package neo.reducecognitivecomplexity.refactoringcache;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -10,7 +11,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.logging.Logger;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.ltk.core.refactoring.Change;
 import org.jgrapht.alg.TransitiveReduction;
@@ -20,7 +24,7 @@ import org.jgrapht.graph.SimpleDirectedWeightedGraph;
 import org.jgrapht.graph.SimpleGraph;
 
 import neo.reducecognitivecomplexity.Utils;
-import neo.reducecognitivecomplexity.algorithms.Pair;
+import neo.reducecognitivecomplexity.core.Pair;
 import neo.reducecognitivecomplexity.algorithms.Sequence;
 import neo.reducecognitivecomplexity.graphs.ExtractionVertex;
 import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
@@ -35,12 +39,24 @@ import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
  * code extraction and the cache is updated with this information.
  */
 public class RefactoringCache {
+	private static final Logger LOGGER = Logger.getLogger(RefactoringCache.class.getName());
+	public static final String CANCELED = "Not evaluated: the deadline of the method was reached.";
+	private static final String CSV_HEADER = "A, B, feasible, reason, parameters, extractedLOC, reductionCC, extractedMethodCC, accumulatedInherentComponent, accumulatedNestingComponent, numberNestingContributors, nesting";
+
 	private CompilationUnit compilationUnit;
+	private ExtractionOracle oracle;
+	private IProgressMonitor monitor = new NullProgressMonitor();
+	private BufferedWriter checkpoint;
 	public Map<Pair, CodeExtractionMetrics> cache;
 
 	public RefactoringCache(CompilationUnit compilationUnit) {
+		this(compilationUnit, Sequence::evaluate);
+	}
+
+	public RefactoringCache(CompilationUnit compilationUnit, ExtractionOracle oracle) {
 		cache = new HashMap<>();
 		this.compilationUnit = compilationUnit;
+		this.oracle = oracle;
 	}
 
 	/**
@@ -54,6 +70,7 @@ public class RefactoringCache {
 	public  RefactoringCache(String path, String fileName, CompilationUnit compilationUnit) throws IOException {
 		this.cache = new HashMap<>();
 		this.compilationUnit = compilationUnit;
+		this.oracle = Sequence::evaluate;
 		
 		BufferedReader br = new BufferedReader(new FileReader(path + fileName));
 		String line = br.readLine(); //read CSV header
@@ -96,8 +113,16 @@ public class RefactoringCache {
 		Pair key = sequence.getOffsetAsPair();
 	
 		CodeExtractionMetrics result = cache.get(key);
+		if (result == null && monitor.isCanceled()) {
+			// The oracle is not called anymore: the code extraction is considered
+			// unfeasible (but it is not cached)
+			result = new CodeExtractionMetrics(false, CANCELED, false, 0, 0, new ArrayList<Change>(),
+					new ArrayList<Change>());
+			result.setReductionOfCognitiveComplexity(sequence.getAccumulatedCognitiveComplexity());
+			return result;
+		}
 		if (result == null) {
-			result = sequence.evaluate();
+			result = oracle.evaluate(sequence);
 
 			result.setReductionOfCognitiveComplexity(sequence.getAccumulatedCognitiveComplexity());
 			result.setAccumulatedInherentComponent(sequence.getAccumulatedInherentComponent());
@@ -106,6 +131,7 @@ public class RefactoringCache {
 			result.setNesting(sequence.getNesting());
 
 			cache.put(key, result);
+			writeToCheckpoint(key, result);
 		}
 		
 		// A copy (not reference) of the metrics 
@@ -138,34 +164,134 @@ public class RefactoringCache {
 	 * @throws IOException
 	 */
 	public void writeToCSV(String path, String fileName) throws IOException {
-		String content = new String();
+		StringBuilder content = new StringBuilder();
 		BufferedWriter refactoringCacheInfo = new BufferedWriter(new FileWriter(path + fileName, false));
 
-		content += "A, B, feasible, reason, parameters, extractedLOC, reductionCC, extractedMethodCC, accumulatedInherentComponent, accumulatedNestingComponent, numberNestingContributors, nesting";
+		content.append(CSV_HEADER);
 
 		for (Entry<Pair, CodeExtractionMetrics> entry : cache.entrySet()) {
-			String reason = entry.getValue().getReason();
-			
-			if (!entry.getValue().isFeasible())
-				reason = reason.replaceAll(System.lineSeparator(), " ");
-			
-			content += System.lineSeparator();
-			content += entry.getKey().getA() + ", " + entry.getKey().getB() + ", "
-					+ (entry.getValue().isFeasible() ? "1" : "0") + ", " + "\"" + reason + "\", "
-					+ entry.getValue().getNumberOfParametersInExtractedMethod() + ", "
-					+ entry.getValue().getNumberOfExtractedLinesOfCode() + ", "
-					+ entry.getValue().getReductionOfCognitiveComplexity() + ", "
-					+ entry.getValue().getCognitiveComplexityOfNewExtractedMethod() + ", "
-					+ entry.getValue().getAccumulatedInherentComponent() + ", "
-					+ entry.getValue().getAccumulatedNestingComponent() + ", "
-					+ entry.getValue().getNumberNestingContributors() + ", "
-					+ entry.getValue().getNesting();
+			content.append(System.lineSeparator());
+			content.append(toCSV(entry.getKey(), entry.getValue()));
 		}
 
 		refactoringCacheInfo.append(content);
 		refactoringCacheInfo.close();
 	}
 
+	private static String toCSV(Pair pair, CodeExtractionMetrics metrics) {
+		String reason = metrics.getReason();
+
+		if (!metrics.isFeasible())
+			reason = reason.replaceAll(System.lineSeparator(), " ");
+
+		return pair.getA() + ", " + pair.getB() + ", " + (metrics.isFeasible() ? "1" : "0") + ", " + "\"" + reason
+				+ "\", " + metrics.getNumberOfParametersInExtractedMethod() + ", "
+				+ metrics.getNumberOfExtractedLinesOfCode() + ", " + metrics.getReductionOfCognitiveComplexity() + ", "
+				+ metrics.getCognitiveComplexityOfNewExtractedMethod() + ", "
+				+ metrics.getAccumulatedInherentComponent() + ", " + metrics.getAccumulatedNestingComponent() + ", "
+				+ metrics.getNumberNestingContributors() + ", " + metrics.getNesting();
+	}
+
+	/**
+	 * Add to the refactoring cache the entries of a CSV file written by
+	 * {@link #writeToCSV} or by a checkpoint (see {@link #setCheckpoint}).
+	 * Entries already in the cache are kept. Lines which can not be parsed (e.g.
+	 * the last line of a checkpoint when the process was killed) are ignored.
+	 * 
+	 * @param path     of the CSV file
+	 * @param fileName of the CSV file
+	 * @return Number of entries added
+	 * @throws IOException
+	 */
+	public int addFromCSV(String path, String fileName) throws IOException {
+		int result = 0;
+
+		try (BufferedReader br = new BufferedReader(new FileReader(path + fileName))) {
+			String line = br.readLine(); // read CSV header
+			while ((line = br.readLine()) != null) {
+				// The reason is quoted and can contain commas
+				int firstQuote = line.indexOf('"'), lastQuote = line.lastIndexOf('"');
+				if (firstQuote < 0 || lastQuote <= firstQuote) {
+					continue;
+				}
+				String[] before = line.substring(0, firstQuote).split(",");
+				String[] after = line.substring(lastQuote + 1).split(",");
+				if (before.length != 3 || after.length != 9) {
+					continue;
+				}
+
+				try {
+					CodeExtractionMetrics metrics = new CodeExtractionMetrics(Integer.valueOf(before[2].trim()) == 1,
+							line.substring(firstQuote + 1, lastQuote), false, Integer.valueOf(after[2].trim()),
+							Integer.valueOf(after[1].trim()), new ArrayList<Change>(), new ArrayList<Change>(),
+							Integer.valueOf(after[3].trim()), Integer.valueOf(after[5].trim()),
+							Integer.valueOf(after[6].trim()), Integer.valueOf(after[7].trim()),
+							Integer.valueOf(after[8].trim()));
+					Pair pair = new Pair(Integer.valueOf(before[0].trim()), Integer.valueOf(before[1].trim()));
+					if (this.cache.putIfAbsent(pair, metrics) == null) {
+						result++;
+					}
+				} catch (NumberFormatException e) {
+					// Truncated line
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Append each entry added to the refactoring cache (from now on) to a CSV
+	 * file, so the entries evaluated so far are kept if the process is killed.
+	 * The file can be read with {@link #addFromCSV}.
+	 * 
+	 * @param path     of the CSV file
+	 * @param fileName of the CSV file
+	 * @throws IOException
+	 */
+	public void setCheckpoint(String path, String fileName) throws IOException {
+		closeCheckpoint();
+
+		boolean newFile = !new File(path + fileName).exists();
+		checkpoint = new BufferedWriter(new FileWriter(path + fileName, true));
+		if (newFile) {
+			checkpoint.append(CSV_HEADER);
+			checkpoint.flush();
+		}
+	}
+
+	/**
+	 * Stop appending entries to the checkpoint file (if any).
+	 * 
+	 * @throws IOException
+	 */
+	public void closeCheckpoint() throws IOException {
+		if (checkpoint != null) {
+			checkpoint.close();
+			checkpoint = null;
+		}
+	}
+
+	private void writeToCheckpoint(Pair pair, CodeExtractionMetrics metrics) {
+		if (checkpoint == null) {
+			return;
+		}
+
+		try {
+			checkpoint.append(System.lineSeparator());
+			checkpoint.append(toCSV(pair, metrics));
+			checkpoint.flush();
+		} catch (IOException e) {
+			// The search goes on, but its entries are no longer kept
+			LOGGER.warning("The checkpoint of the refactoring cache can not be written: " + e.getMessage());
+			try {
+				closeCheckpoint();
+			} catch (IOException closing) {
+				checkpoint = null;
+			}
+		}
+	}
+
 	/**
 	 * Generate directed weight graphs associated to the refactoring cache
 	 * 
@@ -340,7 +466,7 @@ public class RefactoringCache {
 	public RefactoringCache reduce() {
 		Map<Pair, CodeExtractionMetrics> feasibleRefactorings;
 		List<Pair> offsetPairs;
-		RefactoringCache result = new RefactoringCache(compilationUnit);
+		RefactoringCache result = new RefactoringCache(compilationUnit, oracle);
 
 		feasibleRefactorings = Utils.filterByValue(cache, value -> value.isFeasible());
 		offsetPairs = new ArrayList<Pair>(feasibleRefactorings.keySet());
@@ -378,4 +504,14 @@ public class RefactoringCache {
 	public CompilationUnit getCompilationUnit() {
 		return this.compilationUnit;
 	}
+
+	/**
+	 * Set the monitor checked before calling the oracle. Once it is canceled,
+	 * code extractions not in the cache are considered unfeasible.
+	 * 
+	 * @param monitor The monitor.
+	 */
+	public void setMonitor(IProgressMonitor monitor) {
+		this.monitor = monitor;
+	}
 }
@@ -1,16 +1,20 @@
 package neo.reducecognitivecomplexity.refactoringcache;
 
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.EmptyStatement;
 
-import neo.reducecognitivecomplexity.Constants;
 import neo.reducecognitivecomplexity.algorithms.Sequence;
 import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator.SentenceSequenceInfo;
+import neo.reducecognitivecomplexity.jdt.ComplexityTable;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.SentenceSequenceInfo;
 
 public class RefactoringCacheFiller {
 
-	private static void exploreSentenceSequence(Sequence sentences, RefactoringCache refactoringCache) {
+	private static void exploreSentenceSequence(Sequence sentences, RefactoringCache refactoringCache,
+			IProgressMonitor monitor) {
 		new ValidSentenceSequencesExplorer(new SentenceSequenceInfo() {
 			@Override
 			public int numberOfSentences() {
@@ -19,12 +23,7 @@ public class RefactoringCacheFiller {
 
 			@Override
 			public int cognitiveComplexityOfSentence(int sentence) {
-				Integer acc = (Integer) sentences.getSiblingNodes().get(sentence - 1)
-						.getProperty(Constants.ACCUMULATED_COMPLEXITY);
-				if (acc == null) {
-					acc = 0;
-				}
-				return acc;
+				return ComplexityTable.getAccumulatedComplexity(sentences.getSiblingNodes().get(sentence - 1));
 			}
 
 			@Override
@@ -41,15 +40,49 @@ public class RefactoringCacheFiller {
 				ASTNode node = sentences.getSiblingNodes().get(sentence - 1);
 				return (node instanceof EmptyStatement);
 			}
-		}).exploreSequence();
+		}, monitor).exploreSequence();
+	}
+
+	/**
+	 * Fill the refactoring cache with the code extractions of a method.
+	 * 
+	 * @param refactoringCache The refactoring cache to fill.
+	 * @param method           The method.
+	 * @param monitor          Monitor to stop filling the cache when it is
+	 *                         canceled.
+	 */
+	public static void exhaustiveEnumerationAlgorithm(RefactoringCache refactoringCache, ASTNode method,
+			IProgressMonitor monitor) {
+		exhaustiveEnumerationAlgorithm(refactoringCache, selectSentences(refactoringCache, method), monitor);
 	}
 
-	public static void exhaustiveEnumerationAlgorithm(RefactoringCache refactoringCache, ASTNode method) {
+	/**
+	 * Get the blocks of sibling sentences of a method whose code extractions are
+	 * explored.
+	 * 
+	 * @param refactoringCache The refactoring cache to fill.
+	 * @param method           The method.
+	 * @return The blocks of sentences.
+	 */
+	public static List<Sequence> selectSentences(RefactoringCache refactoringCache, ASTNode method) {
 		SentencesSelectorVisitor sentencesSelectorVisitor = new SentencesSelectorVisitor(refactoringCache.getCompilationUnit());
 		method.accept(sentencesSelectorVisitor);
 
-		sentencesSelectorVisitor.getSentencesToIterate().stream()
-				.forEach(sequence -> exploreSentenceSequence(sequence, refactoringCache));
+		return sentencesSelectorVisitor.getSentencesToIterate();
+	}
+
+	/**
+	 * Fill the refactoring cache with the code extractions of some blocks of
+	 * sentences (see {@link #selectSentences}).
+	 * 
+	 * @param refactoringCache The refactoring cache to fill.
+	 * @param sentences        The blocks of sentences.
+	 * @param monitor          Monitor to stop filling the cache when it is
+	 *                         canceled.
+	 */
+	public static void exhaustiveEnumerationAlgorithm(RefactoringCache refactoringCache, List<Sequence> sentences,
+			IProgressMonitor monitor) {
+		sentences.stream().forEach(sequence -> exploreSentenceSequence(sequence, refactoringCache, monitor));
 	}
 
 }
@@ -0,0 +1,53 @@
+package neo.reducecognitivecomplexity.refactoringcache;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import neo.reducecognitivecomplexity.core.Pair;
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
+
+/**
+ * Oracle answering with the answers recorded in a previous run (see
+ * {@link OracleRecording}), so the search can be run again without Eclipse.
+ * Code extractions which were not recorded (the search evaluated different
+ * code extractions than the recorded run) are unfeasible.
+ */
+public class ReplayOracle implements ExtractionOracle {
+	public static final String NOT_RECORDED = "Not evaluated: the code extraction was not recorded.";
+
+	private final Map<Pair, CodeExtractionMetrics> answers;
+	private int calls;
+	private int misses;
+
+	public ReplayOracle(OracleRecording recording) {
+		this.answers = recording.getAnswers();
+	}
+
+	@Override
+	public CodeExtractionMetrics evaluate(Sequence sequence) {
+		calls++;
+		CodeExtractionMetrics result = answers.get(sequence.getOffsetAsPair());
+		if (result == null) {
+			misses++;
+			return new CodeExtractionMetrics(false, NOT_RECORDED, false, 0, 0, new ArrayList<>(), new ArrayList<>());
+		}
+
+		return new CodeExtractionMetrics(result);
+	}
+
+	/**
+	 * Get the number of calls to the oracle.
+	 */
+	public int getCalls() {
+		return calls;
+	}
+
+	/**
+	 * Get the number of calls to the oracle for code extractions which were not
+	 * recorded.
+	 */
+	public int getMisses() {
+		return misses;
+	}
+}
@@ -9,11 +9,12 @@ import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.EmptyStatement;
 
-import neo.reducecognitivecomplexity.Constants;
 import neo.reducecognitivecomplexity.Utils;
 import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator;
 import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator.SentenceSequenceInfo;
+import neo.reducecognitivecomplexity.jdt.ComplexityTable;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.SentenceSequenceInfo;
 
 public class SentenceSequenceIterator implements Iterable<List<Sequence>> {
 	// TODO: efficiency
@@ -35,12 +36,7 @@ public class SentenceSequenceIterator implements Iterable<List<Sequence>> {
 
 			@Override
 			public int cognitiveComplexityOfSentence(int sentence) {
-				Integer acc = (Integer) sentences.getSiblingNodes().get(sentence - 1)
-						.getProperty(Constants.ACCUMULATED_COMPLEXITY);
-				if (acc == null) {
-					acc = 0;
-				}
-				return acc;
+				return ComplexityTable.getAccumulatedComplexity(sentences.getSiblingNodes().get(sentence - 1));
 			}
 
 			@Override
@@ -6,7 +6,7 @@ import java.util.Random;
 import java.util.function.Supplier;
 
 import neo.reducecognitivecomplexity.algorithms.Sequence;
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
 
 public class SentenceSequenceSupplier implements Supplier<List<Sequence>> {
 	// TODO: potential problem with memory in case of many options
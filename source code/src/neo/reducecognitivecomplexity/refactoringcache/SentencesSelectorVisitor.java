@@ -12,8 +12,9 @@ import org.eclipse.jdt.core.dom.Statement;
 import org.eclipse.jdt.core.dom.SwitchCase;
 import org.eclipse.jdt.core.dom.SwitchStatement;
 
-import neo.reducecognitivecomplexity.Constants;
 import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.jdt.BlockMetrics;
+import neo.reducecognitivecomplexity.jdt.ComplexityTable;
 
 public class SentencesSelectorVisitor extends ASTVisitor {
 
@@ -30,8 +31,7 @@ public class SentencesSelectorVisitor extends ASTVisitor {
 	public void preVisit(ASTNode node) {
 		if (node instanceof Block) {
 			Block block = (Block) node;
-			Sequence sequence = new Sequence(this.compilationUnit, (List<ASTNode>) block.statements());
-			getSentencesToIterate().add(sequence);
+			addBlock((List<ASTNode>) block.statements());
 		} else if (node instanceof Statement) {
 			switch (node.getParent().getNodeType()) {
 			case ASTNode.DO_STATEMENT:
@@ -39,9 +39,8 @@ public class SentencesSelectorVisitor extends ASTVisitor {
 			case ASTNode.FOR_STATEMENT:
 			case ASTNode.IF_STATEMENT:
 			case ASTNode.WHILE_STATEMENT:
-				Integer acc = (Integer) node.getProperty(Constants.ACCUMULATED_COMPLEXITY);
-				if (acc != null && acc > 0) {
-					getSentencesToIterate().add(new Sequence(this.compilationUnit, Arrays.asList(node)));
+				if (ComplexityTable.getAccumulatedComplexity(node) > 0) {
+					addBlock(Arrays.asList(node));
 				}
 				break;
 			}
@@ -54,7 +53,7 @@ public class SentencesSelectorVisitor extends ASTVisitor {
 			for (Statement stmt : (List<Statement>) sswitch.statements()) {
 				if (stmt instanceof SwitchCase) {
 					if (!currentBlock.isEmpty()) {
-						getSentencesToIterate().add(new Sequence(this.compilationUnit,currentBlock));
+						addBlock(currentBlock);
 						currentBlock = new ArrayList<>();
 					}
 				} else {
@@ -62,13 +61,23 @@ public class SentencesSelectorVisitor extends ASTVisitor {
 				}
 			}
 			if (!currentBlock.isEmpty()) {
-				getSentencesToIterate().add(new Sequence(this.compilationUnit,currentBlock));
+				addBlock(currentBlock);
 			}
 		}
 
 		super.preVisit(node);
 	}
 
+	/**
+	 * Add a block of sentences to iterate, with the prefix sums of its metrics
+	 * (see {@link BlockMetrics}) so the metrics of its sequences are computed in
+	 * constant time.
+	 */
+	private void addBlock(List<ASTNode> sentences) {
+		BlockMetrics.build(sentences);
+		getSentencesToIterate().add(new Sequence(this.compilationUnit, sentences));
+	}
+
 	@Override
 	public void postVisit(ASTNode node) {
 		super.postVisit(node);
@@ -1,6 +1,8 @@
 package neo.reducecognitivecomplexity.refactoringcache;
 
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator.SentenceSequenceInfo;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.SentenceSequenceInfo;
 
 public class ValidSentenceSequencesExplorer {
 
@@ -8,9 +10,11 @@ public class ValidSentenceSequencesExplorer {
 	private int lastWithCC;
 
 	private SentenceSequenceInfo sequence;
+	private IProgressMonitor monitor;
 
-	public ValidSentenceSequencesExplorer(SentenceSequenceInfo sequence) {
+	public ValidSentenceSequencesExplorer(SentenceSequenceInfo sequence, IProgressMonitor monitor) {
 		this.sequence = sequence;
+		this.monitor = monitor;
 	}
 
 	private void initializaDataStructures() {
@@ -37,6 +41,10 @@ public class ValidSentenceSequencesExplorer {
 
 		for (int i = 1; i <= lastWithCC; i++) {
 			for (int j = last; j >= nextWithCC[i]; j--) {
+				// Stop exploring when the monitor is canceled (e.g. a deadline is reached)
+				if (monitor.isCanceled()) {
+					return;
+				}
 				sequence.validSequence(i, j);
 			}
 		}
@@ -0,0 +1,256 @@
+package neo.reducecognitivecomplexity.scheduling;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SwitchCase;
+import org.eclipse.jdt.core.dom.SwitchStatement;
+
+import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityScanner;
+import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.CognitiveComplexMethod;
+
+/**
+ * Decide the order in which cognitive complex methods are processed and which
+ * ones fit in a time budget.
+ * <p>
+ * When methods are prioritized, they are processed by decreasing benefit per
+ * cost. The benefit of a method is its complexity above
+ * {@link Constants#MAX_COMPLEXITY}. Its cost is estimated from the code
+ * extractions the refactoring cache will evaluate: a block of n statements has
+ * n(n+1)/2 sequences of consecutive statements, and sequences nested deeper
+ * give rise to more combinations during the search, so each block is weighted
+ * by 1 plus its nesting. Otherwise, methods are processed in the order they
+ * were reported.
+ * <p>
+ * When there is a time budget, methods are skipped once it is exhausted. The
+ * time per unit of cost is measured as methods are processed, and a method is
+ * also skipped when its expected time exceeds the remaining budget (cheaper
+ * methods after it can still be processed).
+ */
+public class MethodScheduler {
+	private static final Logger LOGGER = Logger.getLogger(MethodScheduler.class.getName());
+
+	private final Path sourceRoot;
+	private final boolean prioritize;
+	private final long budgetMillis;
+	private final long startTime;
+
+	private long processedCost;
+	private long processedMillis;
+
+	/**
+	 * A cognitive complex method to process.
+	 */
+	public static class ScheduledMethod {
+		private final String classWithIssues;
+		private final CognitiveComplexMethod method;
+		private final long cost;
+		private final int benefit;
+
+		ScheduledMethod(String classWithIssues, CognitiveComplexMethod method, long cost) {
+			this.classWithIssues = classWithIssues;
+			this.method = method;
+			this.cost = cost;
+			this.benefit = method.getComplexity() - Constants.MAX_COMPLEXITY;
+		}
+
+		public String getClassWithIssues() {
+			return classWithIssues;
+		}
+
+		public CognitiveComplexMethod getMethod() {
+			return method;
+		}
+
+		public long getCost() {
+			return cost;
+		}
+
+		public int getBenefit() {
+			return benefit;
+		}
+
+		/**
+		 * @return Benefit per cost, or 0 if the cost is unknown (so the method is
+		 *         processed last).
+		 */
+		public double getBenefitPerCost() {
+			return (cost > 0) ? (double) benefit / cost : 0;
+		}
+	}
+
+	/**
+	 * Create a scheduler. The time budget starts to run.
+	 *
+	 * @param sourceRoot   Folder where paths of classes are relative to (usually
+	 *                     the project location). It can be null if methods are
+	 *                     not prioritized.
+	 * @param prioritize   Order methods by benefit per cost.
+	 * @param budgetMillis Time budget in milliseconds (0 for no budget).
+	 */
+	public MethodScheduler(Path sourceRoot, boolean prioritize, long budgetMillis) {
+		this.sourceRoot = sourceRoot;
+		this.prioritize = prioritize;
+		this.budgetMillis = budgetMillis;
+		this.startTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Order the cognitive complex methods to process.
+	 *
+	 * @param methodsWithIssues Cognitive complex methods of each class.
+	 * @return The methods in the order they must be processed.
+	 */
+	public List<ScheduledMethod> schedule(Map<String, List<CognitiveComplexMethod>> methodsWithIssues) {
+		List<ScheduledMethod> result = new ArrayList<>();
+
+		for (Map.Entry<String, List<CognitiveComplexMethod>> entry : methodsWithIssues.entrySet()) {
+			Map<CognitiveComplexMethod, Long> costs = prioritize ? estimateCosts(entry.getKey(), entry.getValue())
+					: new HashMap<>();
+			for (CognitiveComplexMethod method : entry.getValue()) {
+				result.add(new ScheduledMethod(entry.getKey(), method, costs.getOrDefault(method, 0L)));
+			}
+		}
+
+		if (prioritize) {
+			// The sort is stable: methods with the same ratio keep their order
+			result.sort(Comparator.comparingDouble(ScheduledMethod::getBenefitPerCost).reversed());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Check if a method fits in the remaining time budget.
+	 *
+	 * @param method The next method to process.
+	 * @return true if the method must be processed, false if it must be skipped.
+	 */
+	public boolean fitsInBudget(ScheduledMethod method) {
+		if (budgetMillis <= 0) {
+			return true;
+		}
+
+		long remaining = budgetMillis - (System.currentTimeMillis() - startTime);
+		if (remaining <= 0) {
+			LOGGER.info("Time budget exhausted: skipping method at " + method.getMethod().getTextRange() + " in "
+					+ method.getClassWithIssues());
+			return false;
+		}
+
+		if (processedCost > 0 && method.getCost() > 0) {
+			double expected = (double) method.getCost() * processedMillis / processedCost;
+			if (expected > remaining) {
+				LOGGER.info("Expected time (" + (long) expected + "ms) exceeds the remaining time budget ("
+						+ remaining + "ms): skipping method at " + method.getMethod().getTextRange() + " in "
+						+ method.getClassWithIssues());
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Record the time taken to process a method.
+	 *
+	 * @param method The processed method.
+	 * @param millis Time taken in milliseconds.
+	 */
+	public void processed(ScheduledMethod method, long millis) {
+		if (method.getCost() > 0) {
+			processedCost += method.getCost();
+			processedMillis += millis;
+		}
+	}
+
+	/**
+	 * Estimate the cost of the cognitive complex methods of a class. The file is
+	 * parsed without bindings.
+	 */
+	private Map<CognitiveComplexMethod, Long> estimateCosts(String classWithIssues,
+			List<CognitiveComplexMethod> methods) {
+		Map<CognitiveComplexMethod, Long> result = new HashMap<>();
+
+		String relativePath = classWithIssues.replace('\\', '/');
+		if (relativePath.startsWith("/")) {
+			relativePath = relativePath.substring(1);
+		}
+
+		CompilationUnit compilationUnit;
+		try {
+			compilationUnit = CognitiveComplexityScanner.parseFile(sourceRoot.resolve(relativePath));
+		} catch (IOException e) {
+			LOGGER.warning("Cost of methods in " + classWithIssues + " can not be estimated: " + e.getMessage());
+			return result;
+		}
+
+		for (CognitiveComplexMethod method : methods) {
+			// Issues are located at the name of the method
+			ASTNode node = Utils.findNode(compilationUnit, method.getTextRange().getStartLine(),
+					method.getTextRange().getStartOffset());
+			if (node != null && node.getParent() instanceof MethodDeclaration) {
+				result.put(method, estimateCost((MethodDeclaration) node.getParent()));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Estimate the cost of processing a method: sequences of consecutive
+	 * statements in its blocks (see
+	 * {@link neo.reducecognitivecomplexity.refactoringcache.SentencesSelectorVisitor}),
+	 * weighted by their nesting.
+	 *
+	 * @param method The method.
+	 * @return The estimated cost.
+	 */
+	public static long estimateCost(MethodDeclaration method) {
+		long[] result = { 0 };
+
+		method.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(Block node) {
+				add(node, node.statements().size());
+				return true;
+			}
+
+			@Override
+			public boolean visit(SwitchStatement node) {
+				int statementsInCase = 0;
+				for (Object statement : node.statements()) {
+					if (statement instanceof SwitchCase) {
+						add(node, statementsInCase);
+						statementsInCase = 0;
+					} else {
+						statementsInCase++;
+					}
+				}
+				add(node, statementsInCase);
+				return true;
+			}
+
+			private void add(ASTNode node, int statements) {
+				if (statements > 0) {
+					result[0] += (long) statements * (statements + 1) / 2 * (1 + Utils.computeNesting(node));
+				}
+			}
+		});
+
+		return result[0];
+	}
+}
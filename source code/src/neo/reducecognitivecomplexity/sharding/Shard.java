@@ -0,0 +1,106 @@
+package neo.reducecognitivecomplexity.sharding;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.CognitiveComplexMethod;
+
+/**
+ * Part of the classes of a project processed by one run, so a project can be
+ * processed by several processes (or machines) at once.
+ * <p>
+ * Classes are assigned to shards by the hash of the path of their file, so
+ * every run assigns them in the same way with no coordination: shard i (from 0
+ * to n - 1) of n processes the classes whose hash modulo n is i. The results of
+ * all shards can be combined with {@link ShardMerger}.
+ */
+public class Shard {
+	private final int index;
+	private final int count;
+
+	/**
+	 * Create a shard.
+	 * 
+	 * @param index Index of the shard (from 0 to count - 1).
+	 * @param count Number of shards.
+	 */
+	public Shard(int index, int count) {
+		if (count < 1 || index < 0 || index >= count) {
+			throw new IllegalArgumentException("Wrong shard " + index + "/" + count);
+		}
+
+		this.index = index;
+		this.count = count;
+	}
+
+	/**
+	 * Parse a shard given as "i/n" (e.g. "0/4" for the first of 4 shards).
+	 * 
+	 * @param shard The shard.
+	 * @return The parsed shard.
+	 * @throws IllegalArgumentException when the shard is not well formed
+	 */
+	public static Shard parse(String shard) {
+		String[] parts = shard.split("/");
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Shard must be given as i/n: " + shard);
+		}
+
+		try {
+			return new Shard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Shard must be given as i/n: " + shard, e);
+		}
+	}
+
+	/**
+	 * Check if a class is processed by this shard.
+	 * 
+	 * @param classWithIssues Path of the file of the class.
+	 * @return true if the class belongs to this shard.
+	 */
+	public boolean contains(String classWithIssues) {
+		String normalizedPath = classWithIssues.replace('\\', '/');
+		if (normalizedPath.startsWith("/")) {
+			normalizedPath = normalizedPath.substring(1);
+		}
+
+		// The hash of strings is the same in every JVM
+		return Math.floorMod(normalizedPath.hashCode(), count) == index;
+	}
+
+	/**
+	 * Keep the cognitive complex methods of the classes of this shard.
+	 * 
+	 * @param methodsWithIssues Cognitive complex methods of each class.
+	 * @return Cognitive complex methods of the classes of this shard.
+	 */
+	public Map<String, List<CognitiveComplexMethod>> filter(Map<String, List<CognitiveComplexMethod>> methodsWithIssues) {
+		Map<String, List<CognitiveComplexMethod>> result = new LinkedHashMap<>();
+
+		methodsWithIssues.forEach((classWithIssues, methods) -> {
+			if (contains(classWithIssues)) {
+				result.put(classWithIssues, methods);
+			}
+		});
+
+		return result;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Name of the shard used in the names of output files (e.g. "shard0of4").
+	 */
+	@Override
+	public String toString() {
+		return "shard" + index + "of" + count;
+	}
+}
@@ -0,0 +1,98 @@
+package neo.reducecognitivecomplexity.sharding;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import neo.reducecognitivecomplexity.Constants;
+
+/**
+ * Combine the results files written by the shards of a project (see
+ * {@link Shard}) into a single results file, as if the project had been
+ * processed by a single run. The tool has 3 arguments: (1) the folder with the
+ * results files of the shards (they can be copied from several machines to a
+ * single folder), (2) the name of the project, and (3) the algorithm run.
+ * <p>
+ * Other output files (refactoring caches and solutions) are written per method,
+ * so they do not need to be merged.
+ */
+public class ShardMerger {
+	private static final Logger LOGGER = Logger.getLogger(ShardMerger.class.getName());
+	private static final int ARGS = 3;
+
+	public static void main(String[] args) throws IOException {
+		// Check the number of arguments given
+		if (args.length != ARGS) {
+			LOGGER.severe("Usage: ShardMerger <outputFolder> <projectName> <algorithm>");
+			System.exit(-1);
+		}
+
+		Path result = merge(Paths.get(args[0]), args[1].replace('/', '.') + "-" + args[2]);
+		LOGGER.info("Results of all shards written to " + result);
+	}
+
+	/**
+	 * Merge the results files of the shards.
+	 * 
+	 * @param outputFolder Folder containing the results files of the shards.
+	 * @param prefix       Prefix of the results files (name of the project and
+	 *                     algorithm, as in the results file of a run).
+	 * @return The merged results file.
+	 * @throws IOException when no results file of shards is found or they are not
+	 *                     from the same number of shards
+	 */
+	public static Path merge(Path outputFolder, String prefix) throws IOException {
+		Pattern shardFile = Pattern.compile(Pattern.quote(prefix) + "-shard(\\d+)of(\\d+)-" + Pattern.quote(Constants.FILE));
+
+		// Results files by index of their shard
+		Map<Integer, Path> shardFiles = new TreeMap<>();
+		int count = -1;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(outputFolder)) {
+			for (Path file : files) {
+				Matcher matcher = shardFile.matcher(file.getFileName().toString());
+				if (matcher.matches()) {
+					int shardCount = Integer.parseInt(matcher.group(2));
+					if (count >= 0 && shardCount != count) {
+						throw new IOException("Results of runs with " + count + " and " + shardCount + " shards found in "
+								+ outputFolder);
+					}
+					count = shardCount;
+					shardFiles.put(Integer.parseInt(matcher.group(1)), file);
+				}
+			}
+		}
+
+		if (shardFiles.isEmpty()) {
+			throw new IOException("No results file of shards of " + prefix + " found in " + outputFolder);
+		}
+		if (shardFiles.size() < count) {
+			LOGGER.warning("Only " + shardFiles.size() + " of " + count + " shards found: " + shardFiles.keySet());
+		}
+
+		// Header of the first shard followed by the rows of every shard
+		Path result = outputFolder.resolve(prefix + "-" + Constants.FILE);
+		try (BufferedWriter writer = Files.newBufferedWriter(result)) {
+			boolean header = true;
+			for (Path file : shardFiles.values()) {
+				List<String> lines = Files.readAllLines(file);
+				for (int i = header ? 0 : 1; i < lines.size(); i++) {
+					if (!lines.get(i).isEmpty()) {
+						writer.append(lines.get(i)).append('\n');
+					}
+				}
+				header = false;
+			}
+		}
+
+		return result;
+	}
+}
@@ -14,7 +14,7 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 
 import neo.reducecognitivecomplexity.algorithms.Sequence;
-import neo.reducecognitivecomplexity.algorithms.Pair;
+import neo.reducecognitivecomplexity.core.Pair;
 import neo.reducecognitivecomplexity.jdt.Utils;
 
 class SequenceTest {
@@ -0,0 +1,209 @@
+package test.neo.reducecognitivecomplexity.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Minimal harness for micro-benchmarks: an operation is run repeatedly during
+ * some warmup iterations (discarded) and some measurement iterations of fixed
+ * duration, reporting the time and the bytes allocated per operation.
+ * <p>
+ * Operations are run in batches and the clock is read once per batch, so its
+ * cost is not added to fast operations. The size of the batches is calibrated
+ * during warmup, so each batch takes about a hundredth of an iteration.
+ * <p>
+ * Allocations are those of the current thread (see
+ * {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}),
+ * so objects allocated by other threads (e.g. the generator thread of
+ * {@link neo.mase.patterns.yieldreturn.IteratorYield}) are not counted.
+ * <p>
+ * Iterations can be configured with system properties:
+ * <ul>
+ * <li>reducecc.benchmark.warmup: number of warmup iterations (3 by default).
+ * <li>reducecc.benchmark.iterations: number of measurement iterations (5 by
+ * default).
+ * <li>reducecc.benchmark.time: duration of each iteration in milliseconds
+ * (1000 by default).
+ * </ul>
+ */
+public class Benchmark {
+	private static final int WARMUP_ITERATIONS = Integer.getInteger("reducecc.benchmark.warmup", 3);
+	private static final int ITERATIONS = Integer.getInteger("reducecc.benchmark.iterations", 5);
+	private static final long ITERATION_NANOS = Long.getLong("reducecc.benchmark.time", 1000) * 1000000;
+	private static final int BATCHES_PER_ITERATION = 100;
+	private static final String CSV_HEADER = "benchmark;operations;nsPerOp;minNsPerOp;bytesPerOp";
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	// Results of operations are written here so they are not optimized away
+	private static volatile Object sink;
+
+	/**
+	 * Result of a benchmark.
+	 */
+	public static class Result {
+		private final String name;
+		private long operations;
+		private double nsPerOp;
+		private double minNsPerOp = Double.MAX_VALUE;
+		private double bytesPerOp = -1;
+
+		private Result(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getOperations() {
+			return operations;
+		}
+
+		/**
+		 * Get the mean time per operation of all measurement iterations
+		 */
+		public double getNsPerOp() {
+			return nsPerOp;
+		}
+
+		/**
+		 * Get the time per operation of the fastest measurement iteration
+		 */
+		public double getMinNsPerOp() {
+			return minNsPerOp;
+		}
+
+		/**
+		 * Get the bytes allocated per operation (-1 if they can not be measured)
+		 */
+		public double getBytesPerOp() {
+			return bytesPerOp;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%-45s %14.1f ns/op %14.1f ns/op (min) %12.1f B/op %10d ops", name,
+					nsPerOp, minNsPerOp, bytesPerOp, operations);
+		}
+
+		private String toCSV() {
+			return String.format(Locale.ROOT, "%s;%d;%.1f;%.1f;%.1f", name, operations, nsPerOp, minNsPerOp,
+					bytesPerOp);
+		}
+	}
+
+	/**
+	 * Keep a result of an operation, so it is not optimized away.
+	 *
+	 * @param result The result.
+	 */
+	public static void consume(Object result) {
+		sink = result;
+	}
+
+	/**
+	 * Run a benchmark.
+	 *
+	 * @param name      Name of the benchmark.
+	 * @param operation The operation (its result is consumed).
+	 * @return The result of the benchmark.
+	 */
+	public static Result run(String name, Supplier<?> operation) {
+		boolean allocations = THREADS.isThreadAllocatedMemorySupported();
+		if (allocations) {
+			THREADS.setThreadAllocatedMemoryEnabled(true);
+		}
+
+		long batchSize = calibrate(operation);
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			iterate(operation, batchSize);
+			batchSize = calibrate(operation);
+		}
+
+		Result result = new Result(name);
+		long nanos = 0, bytes = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			long startBytes = allocations ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+			long start = System.nanoTime();
+			long operations = iterate(operation, batchSize);
+			long time = System.nanoTime() - start;
+			bytes += allocations ? THREADS.getCurrentThreadAllocatedBytes() - startBytes : 0;
+
+			nanos += time;
+			result.operations += operations;
+			result.minNsPerOp = Math.min(result.minNsPerOp, (double) time / operations);
+		}
+		result.nsPerOp = (double) nanos / result.operations;
+		if (allocations) {
+			result.bytesPerOp = (double) bytes / result.operations;
+		}
+
+		System.out.println(result);
+		return result;
+	}
+
+	/**
+	 * Run an operation during an iteration, in batches.
+	 *
+	 * @return Number of operations run.
+	 */
+	private static long iterate(Supplier<?> operation, long batchSize) {
+		long result = 0;
+		long end = System.nanoTime() + ITERATION_NANOS;
+		do {
+			runBatch(operation, batchSize);
+			result += batchSize;
+		} while (System.nanoTime() < end);
+		return result;
+	}
+
+	/**
+	 * Find the number of operations taking at least a batch of an iteration
+	 * (doubling it from a single operation).
+	 *
+	 * @return The size of the batches.
+	 */
+	private static long calibrate(Supplier<?> operation) {
+		long target = ITERATION_NANOS / BATCHES_PER_ITERATION;
+		long result = 1;
+		while (true) {
+			long start = System.nanoTime();
+			runBatch(operation, result);
+			if (System.nanoTime() - start >= target) {
+				return result;
+			}
+			result *= 2;
+		}
+	}
+
+	private static void runBatch(Supplier<?> operation, long batchSize) {
+		for (long i = 0; i < batchSize; i++) {
+			consume(operation.get());
+		}
+	}
+
+	/**
+	 * Write results to a CSV file (separated by semicolons).
+	 *
+	 * @param results The results.
+	 * @param file    The file.
+	 * @throws IOException when writing the file
+	 */
+	public static void write(List<Result> results, Path file) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+			writer.append(CSV_HEADER);
+			for (Result result : results) {
+				writer.newLine();
+				writer.append(result.toCSV());
+			}
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package test.neo.reducecognitivecomplexity.benchmarks;
+
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
+import neo.reducecognitivecomplexity.refactoringcache.ExtractionOracle;
+
+/**
+ * Oracle counting its calls.
+ */
+class CountingOracle implements ExtractionOracle {
+	private final ExtractionOracle oracle;
+	private int calls;
+
+	CountingOracle(ExtractionOracle oracle) {
+		this.oracle = oracle;
+	}
+
+	@Override
+	public CodeExtractionMetrics evaluate(Sequence sequence) {
+		calls++;
+		return oracle.evaluate(sequence);
+	}
+
+	/**
+	 * Get the number of calls so far
+	 */
+	int getCalls() {
+		return calls;
+	}
+}
@@ -0,0 +1,364 @@
+package test.neo.reducecognitivecomplexity.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.PackageDeclaration;
+
+import com.google.gson.GsonBuilder;
+
+import neo.reducecognitivecomplexity.Activator;
+import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.algorithms.Solution;
+import neo.reducecognitivecomplexity.algorithms.exhaustivesearch.EnumerativeSearch;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityScanner;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityVisitor;
+import neo.reducecognitivecomplexity.jdt.DeadlineProgressMonitor;
+import neo.reducecognitivecomplexity.jdt.StructuralExtractionOracle;
+import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.refactoringcache.ExtractionOracle;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCacheFiller;
+
+/**
+ * Macro benchmark running the complete pipeline over the Java files of the
+ * test resources, as {@link neo.reducecognitivecomplexity.Application} does:
+ * parsing (with bindings), annotation of cognitive complexity, filling of the
+ * refactoring cache of each cognitive complex method, and search with each
+ * algorithm.
+ * <p>
+ * This is a headless Eclipse application. It is not registered by the plugin:
+ * the fragment in benchmarks-fragment (not shipped with the plugin) registers
+ * it as ReduceCognitiveComplexity.macroBenchmark, so it must be added to the
+ * launch configuration. The files are imported into a new Java project of the
+ * workspace (named {@value #PROJECT_NAME}, replaced if it exists, so it must
+ * not be used by any other project), each one in the folder of its package.
+ * <p>
+ * By default the oracle performs the code extractions in the workspace
+ * ({@link Sequence#evaluate}), as when reducing the complexity of a project.
+ * The {@link StructuralExtractionOracle} (see
+ * {@link neo.reducecognitivecomplexity.StandaloneApplication}) can be measured
+ * instead with the mode {@value #ORACLE_STRUCTURAL}.
+ * <p>
+ * It reports the time of each phase, the number of calls to the oracle and the
+ * peak heap use (the sum of the peak use of each heap memory pool, an upper
+ * bound) of each file to a JSON file, so runs of different versions can be
+ * compared.
+ * <p>
+ * It must be run from the folder of the project (the one containing
+ * src/test/resources), usually with -Dreducecc.headless=true. The application
+ * has 2 optional arguments: (1) the JSON file where results are written
+ * (macro-benchmark.json by default), and (2) the oracle:
+ * {@value #ORACLE_REFACTORING} (default) or {@value #ORACLE_STRUCTURAL}.
+ */
+public class MacroBenchmark implements IApplication {
+	private static final Logger LOGGER = Logger.getLogger(MacroBenchmark.class.getName());
+
+	static final String PROJECT_NAME = "macro-benchmark";
+	static final String ORACLE_REFACTORING = "refactoring";
+	static final String ORACLE_STRUCTURAL = "structural";
+	private static final String JRE_CONTAINER = "org.eclipse.jdt.launching.JRE_CONTAINER";
+
+	private static final Map<String, APPROACH> ALGORITHMS = new LinkedHashMap<>();
+	static {
+		ALGORITHMS.put(Constants.EXHAUSTIVE_SEARCH_LONG_SEQUENCES_FIRST, APPROACH.LONG_SEQUENCE_FIRST);
+		ALGORITHMS.put(Constants.EXHAUSTIVE_SEARCH_SHORT_SEQUENCES_FIRST, APPROACH.SHORT_SEQUENCE_FIRST);
+	}
+
+	private String oracle = ORACLE_REFACTORING;
+
+	/**
+	 * Results of a run.
+	 */
+	static class Report {
+		String date = Instant.now().toString();
+		String javaVersion = System.getProperty("java.version");
+		int availableProcessors = Runtime.getRuntime().availableProcessors();
+		long maxHeapBytes = Runtime.getRuntime().maxMemory();
+		int maxComplexity = Constants.MAX_COMPLEXITY;
+		String oracle;
+		double totalMillis;
+		long peakHeapBytes;
+		int oracleCalls;
+		List<FileReport> files = new ArrayList<>();
+	}
+
+	static class FileReport {
+		String file;
+		double parseMillis;
+		double annotationMillis;
+		long peakHeapBytes;
+		List<MethodReport> methods = new ArrayList<>();
+	}
+
+	static class MethodReport {
+		String method;
+		int line;
+		int complexity;
+		double annotationMillis;
+		double cacheFillMillis;
+		int oracleCalls;
+		int cacheEntries;
+		Map<String, SearchReport> searches = new LinkedHashMap<>();
+	}
+
+	static class SearchReport {
+		double millis;
+		int oracleCalls;
+		int extractions;
+		double fitness;
+		int reducedComplexity;
+		boolean timeout;
+	}
+
+	@Override
+	public Object start(IApplicationContext context) throws Exception {
+		Activator.initDisplay();
+
+		String[] args = (String[]) context.getArguments().get("application.args");
+		Path output = Paths.get((args.length > 0) ? args[0] : "macro-benchmark.json");
+		oracle = (args.length > 1) ? args[1] : ORACLE_REFACTORING;
+		if (!oracle.equals(ORACLE_REFACTORING) && !oracle.equals(ORACLE_STRUCTURAL)) {
+			LOGGER.severe("Oracle must be " + ORACLE_REFACTORING + " or " + ORACLE_STRUCTURAL + "!");
+			return -1;
+		}
+
+		Report report = run(importProject(RecordedMethod.RESOURCES));
+
+		try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+			new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+		}
+		System.out.println("Results written to " + output.toAbsolutePath());
+		return IApplication.EXIT_OK;
+	}
+
+	@Override
+	public void stop() {
+		// Nothing to do
+	}
+
+	/**
+	 * Import the Java files of a folder into a new Java project of the workspace
+	 * (replacing it if it exists), each one in the folder of its package.
+	 *
+	 * @param sourceFolder The folder.
+	 * @return The Java project.
+	 * @throws IOException   when reading the files
+	 * @throws CoreException when creating the project
+	 */
+	static IJavaProject importProject(Path sourceFolder) throws IOException, CoreException {
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT_NAME);
+		if (project.exists()) {
+			project.delete(true, true, null);
+		}
+		project.create(null);
+		project.open(null);
+		project.setDefaultCharset(StandardCharsets.UTF_8.name(), null);
+		IProjectDescription description = project.getDescription();
+		description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+		project.setDescription(description, null);
+
+		IFolder sources = project.getFolder("src");
+		sources.create(true, true, null);
+		List<Path> javaFiles;
+		try (Stream<Path> paths = Files.list(sourceFolder)) {
+			javaFiles = paths.filter(p -> p.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+		}
+		for (Path file : javaFiles) {
+			IFolder folder = sources;
+			PackageDeclaration packageDeclaration = CognitiveComplexityScanner.parseFile(file).getPackage();
+			if (packageDeclaration != null) {
+				for (String segment : packageDeclaration.getName().getFullyQualifiedName().split("\\.")) {
+					folder = folder.getFolder(segment);
+					if (!folder.exists()) {
+						folder.create(true, true, null);
+					}
+				}
+			}
+			try (InputStream contents = Files.newInputStream(file)) {
+				folder.getFile(file.getFileName().toString()).create(contents, true, null);
+			}
+		}
+
+		IJavaProject result = JavaCore.create(project);
+		result.setOutputLocation(project.getFolder("bin").getFullPath(), null);
+		result.setRawClasspath(new IClasspathEntry[] { JavaCore.newSourceEntry(sources.getFullPath()),
+				JavaCore.newContainerEntry(new org.eclipse.core.runtime.Path(JRE_CONTAINER)) }, null);
+		Map<String, String> options = result.getOptions(false);
+		JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), options);
+		result.setOptions(options);
+
+		return result;
+	}
+
+	/**
+	 * Run the pipeline over all Java files of a project (in the order of their
+	 * names).
+	 *
+	 * @param project The project.
+	 * @return The results.
+	 * @throws CoreException when listing the files
+	 */
+	public Report run(IJavaProject project) throws CoreException {
+		Report result = new Report();
+		result.oracle = oracle;
+		List<ICompilationUnit> javaFiles = new ArrayList<>();
+		for (IPackageFragment fragment : project.getPackageFragments()) {
+			if (fragment.getKind() == IPackageFragmentRoot.K_SOURCE) {
+				javaFiles.addAll(Arrays.asList(fragment.getCompilationUnits()));
+			}
+		}
+		javaFiles.sort(Comparator.comparing(ICompilationUnit::getElementName));
+
+		long start = System.nanoTime();
+		for (ICompilationUnit file : javaFiles) {
+			FileReport fileReport = run(file);
+			result.files.add(fileReport);
+			result.peakHeapBytes = Math.max(result.peakHeapBytes, fileReport.peakHeapBytes);
+			result.oracleCalls += fileReport.methods.stream()
+					.mapToInt(m -> m.oracleCalls + m.searches.values().stream().mapToInt(s -> s.oracleCalls).sum())
+					.sum();
+		}
+		result.totalMillis = millisSince(start);
+
+		return result;
+	}
+
+	private FileReport run(ICompilationUnit file) {
+		FileReport result = new FileReport();
+		result.file = file.getElementName();
+		List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+				.filter(pool -> pool.getType() == MemoryType.HEAP).collect(Collectors.toList());
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+		long start = System.nanoTime();
+		CompilationUnit compilationUnit = Utils.createCompilationUnitFromFileInWorkspace(file.getPath().toString());
+		result.parseMillis = millisSince(start);
+		if (compilationUnit == null || compilationUnit.getLength() == 0) {
+			LOGGER.warning("ERROR WITH COMPILATION UNIT (empty AST). File: " + file.getPath());
+			return result;
+		}
+
+		// Find cognitive complex methods (methods declared inside are part of their
+		// complexity)
+		start = System.nanoTime();
+		List<MethodDeclaration> methods = new ArrayList<>();
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration method) {
+				if (CognitiveComplexityVisitor.annotate(method, new ArrayList<ASTNode>()) > Constants.MAX_COMPLEXITY) {
+					methods.add(method);
+				}
+				return false;
+			}
+		});
+		result.annotationMillis = millisSince(start);
+
+		for (MethodDeclaration method : methods) {
+			result.methods.add(run(compilationUnit, method));
+		}
+
+		result.peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+		System.out.println(result.file + ": " + result.methods.size() + " methods, parsed in "
+				+ Math.round(result.parseMillis) + "ms, peak heap " + result.peakHeapBytes / (1024 * 1024) + "MB");
+		return result;
+	}
+
+	private MethodReport run(CompilationUnit compilationUnit, MethodDeclaration method) {
+		MethodReport result = new MethodReport();
+		result.method = method.getName().getIdentifier();
+		result.line = compilationUnit.getLineNumber(method.getName().getStartPosition());
+
+		long start = System.nanoTime();
+		result.complexity = Utils.computeAndAnnotateAccumulativeCognitiveComplexity(method);
+		result.annotationMillis = millisSince(start);
+
+		CountingOracle oracle = new CountingOracle(oracle());
+		RefactoringCache refactoringCache = new RefactoringCache(compilationUnit, oracle);
+		DeadlineProgressMonitor monitor = new DeadlineProgressMonitor(Constants.METHOD_TIMEOUT * 1000);
+		refactoringCache.setMonitor(monitor);
+		start = System.nanoTime();
+		RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(refactoringCache, method, monitor);
+		result.cacheFillMillis = millisSince(start);
+		result.oracleCalls = oracle.getCalls();
+		result.cacheEntries = refactoringCache.cache.size();
+
+		for (Map.Entry<String, APPROACH> algorithm : ALGORITHMS.entrySet()) {
+			// Each search has its own deadline (as if the cache had been filled by
+			// another run), so algorithms are compared under the same conditions
+			SearchReport search = new SearchReport();
+			monitor = new DeadlineProgressMonitor(Constants.METHOD_TIMEOUT * 1000);
+			refactoringCache.setMonitor(monitor);
+			int calls = oracle.getCalls();
+			start = System.nanoTime();
+			try {
+				Solution solution = new EnumerativeSearch().run(algorithm.getValue(),
+						new BufferedWriter(new StringWriter()), "", compilationUnit,
+						refactoringCache, 0, new ArrayList<>(), method, result.complexity, monitor);
+				search.extractions = solution.getSize();
+				search.fitness = solution.getFitness();
+				search.reducedComplexity = solution.getReducedComplexity();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			search.millis = millisSince(start);
+			search.oracleCalls = oracle.getCalls() - calls;
+			search.timeout = monitor.hasExpired();
+			result.searches.put(algorithm.getKey(), search);
+		}
+
+		System.out.println("  " + result.method + " (complexity " + result.complexity + "): cache filled in "
+				+ Math.round(result.cacheFillMillis) + "ms with " + result.oracleCalls + " oracle calls");
+		return result;
+	}
+
+	/**
+	 * Get the oracle deciding the feasibility of code extractions.
+	 */
+	private ExtractionOracle oracle() {
+		return oracle.equals(ORACLE_STRUCTURAL) ? new StructuralExtractionOracle() : Sequence::evaluate;
+	}
+
+	private static double millisSince(long start) {
+		return (System.nanoTime() - start) / 1e6;
+	}
+}
@@ -0,0 +1,186 @@
+package test.neo.reducecognitivecomplexity.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleDirectedWeightedGraph;
+import org.jgrapht.graph.SimpleGraph;
+
+import com.google.gson.Gson;
+
+import neo.mase.patterns.yieldreturn.IteratorYield;
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.algorithms.Solution;
+import neo.reducecognitivecomplexity.algorithms.exhaustivesearch.ExhaustiveEnumerationAlgorithm;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.SentenceSequenceInfo;
+import neo.reducecognitivecomplexity.core.Pair;
+import neo.reducecognitivecomplexity.graphs.ExtractionVertex;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCacheFiller;
+import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.ProjectIssues;
+
+/**
+ * Micro-benchmarks of the hot paths of the search and the refactoring cache
+ * (see {@link Benchmark}). Inputs are the methods of the test resources with
+ * their recorded refactoring caches, so the oracle (Eclipse) is never called,
+ * and synthetic inputs for the iterators and the Sonar issues.
+ * <p>
+ * It must be run from the folder of the project (the one containing
+ * src/test/resources), with the plugin, its libraries and the JDT jars in the
+ * classpath. The only (optional) argument is a CSV file where results are
+ * written.
+ */
+public class MicroBenchmarks {
+	private static final String METHOD_FILE = "LZ09.java";
+	private static final String METHOD_NAME = "objective";
+	private static final String METHOD_REFACTORING_CACHE = "jmetal-problem-ILP-src.main.java.org.uma.jmetal.problem.multiobjective.lz09.LZ09.java.objective.csv";
+	private static final int MAX_SOLUTIONS = 1000;
+	private static final int SENTENCES_IN_BLOCK = 6;
+	private static final int ELEMENTS_YIELDED = 1000;
+	private static final int SONAR_ISSUES = 100;
+
+	private int next;
+
+	public static void main(String[] args) throws IOException {
+		List<Benchmark.Result> results = new MicroBenchmarks().run();
+		if (args.length > 0) {
+			Benchmark.write(results, Paths.get(args[0]));
+		}
+		System.exit(0);
+	}
+
+	public List<Benchmark.Result> run() throws IOException {
+		List<Benchmark.Result> results = new ArrayList<>();
+		RecordedMethod input = new RecordedMethod(METHOD_FILE, METHOD_NAME, METHOD_REFACTORING_CACHE);
+
+		// Refactoring cache filled as in a run, answering with the recorded cache
+		RefactoringCache refactoringCache = new RefactoringCache(input.compilationUnit, input.oracle());
+		RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(refactoringCache, input.method,
+				new NullProgressMonitor());
+		List<Sequence> sequences = new ArrayList<>();
+		for (Pair pair : refactoringCache.cache.keySet()) {
+			sequences.add(new Sequence(input.compilationUnit, pair));
+		}
+
+		results.add(Benchmark.run("RefactoringCache.getMetrics (hit)",
+				() -> refactoringCache.getMetrics(sequences.get(next(sequences.size())))));
+
+		// Each operation removes the entry before getting it (so the oracle is called)
+		RefactoringCache emptyRefactoringCache = new RefactoringCache(input.compilationUnit, input.oracle());
+		results.add(Benchmark.run("RefactoringCache.getMetrics (miss)", () -> {
+			Sequence sequence = sequences.get(next(sequences.size()));
+			emptyRefactoringCache.cache.remove(sequence.getOffsetAsPair());
+			return emptyRefactoringCache.getMetrics(sequence);
+		}));
+
+		List<Solution> solutions = new ArrayList<>();
+		new ExhaustiveEnumerationAlgorithm(refactoringCache, input.method, APPROACH.SHORT_SEQUENCE_FIRST)
+				.run(solution -> solutions.add(new Solution(solution, input.compilationUnit, input.method)),
+						MAX_SOLUTIONS, new NullProgressMonitor());
+		results.add(Benchmark.run("Solution.evaluate (" + solutions.size() + " solutions)",
+				() -> solutions.get(next(solutions.size())).evaluate(refactoringCache)));
+
+		results.add(Benchmark.run("ConsecutiveSequenceIterator (" + SENTENCES_IN_BLOCK + " sentences)", () -> {
+			int count = 0;
+			for (Stack<Integer> element : new ConsecutiveSequenceIterator(block(SENTENCES_IN_BLOCK),
+					APPROACH.SHORT_SEQUENCE_FIRST).getIterable()) {
+				count += element.size();
+			}
+			return count;
+		}));
+
+		results.add(Benchmark.run("IteratorYield (" + ELEMENTS_YIELDED + " elements)", () -> {
+			int count = 0;
+			for (Integer element : IteratorYield.<Integer>getIterable(yield -> {
+				for (int i = 0; i < ELEMENTS_YIELDED; i++) {
+					yield.Return(i);
+				}
+			})) {
+				count += element;
+			}
+			return count;
+		}));
+
+		ExtractionVertex root = neo.reducecognitivecomplexity.graphs.Utils
+				.getRootForGraphAssociatedToMethodBody(input.method);
+		results.add(Benchmark.run("RefactoringCache.getGraphOfFeasibleRefactorings",
+				() -> input.recorded.getGraphOfFeasibleRefactorings(root, input.complexity,
+						new SimpleDirectedWeightedGraph<ExtractionVertex, DefaultWeightedEdge>(
+								DefaultWeightedEdge.class),
+						new SimpleGraph<ExtractionVertex, DefaultEdge>(DefaultEdge.class))));
+
+		results.add(Benchmark.run("RefactoringCache.reduce", () -> input.recorded.reduce()));
+
+		String json = sonarIssues(SONAR_ISSUES);
+		results.add(Benchmark.run("Sonar issues parsing (" + SONAR_ISSUES + " issues)",
+				() -> ProjectIssues.getCognitiveComplexity(new Gson().fromJson(json, ProjectIssues.class))));
+
+		return results;
+	}
+
+	/**
+	 * Round robin over the inputs of a benchmark.
+	 */
+	private int next(int size) {
+		next = (next + 1) % size;
+		return next;
+	}
+
+	/**
+	 * Block of sentences with complexity where all sequences can be extracted
+	 * (the worst case for the iterator).
+	 */
+	private static SentenceSequenceInfo block(int sentences) {
+		return new SentenceSequenceInfo() {
+			@Override
+			public int numberOfSentences() {
+				return sentences;
+			}
+
+			@Override
+			public int cognitiveComplexityOfSentence(int sentence) {
+				return 1;
+			}
+
+			@Override
+			public boolean validSequence(int from, int to) {
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Page of cognitive complexity issues as returned by the Sonar Web API.
+	 */
+	private static String sonarIssues(int issues) {
+		StringBuilder result = new StringBuilder();
+		result.append("{\"total\":").append(issues).append(",\"p\":1,\"ps\":").append(issues)
+				.append(",\"paging\":{\"pageIndex\":1,\"pageSize\":").append(issues).append(",\"total\":")
+				.append(issues).append("},\"issues\":[");
+		for (int i = 0; i < issues; i++) {
+			result.append(i == 0 ? "" : ",").append("{\"key\":\"issue").append(i)
+					.append("\",\"rule\":\"java:S3776\",\"severity\":\"CRITICAL\",\"component\":\"demo:src/demo/Class")
+					.append(i % 10).append(".java\",\"project\":\"demo\",\"line\":").append(10 * i)
+					.append(",\"textRange\":{\"startLine\":").append(10 * i).append(",\"endLine\":").append(10 * i)
+					.append(",\"startOffset\":13,\"endOffset\":19},\"flows\":[");
+			for (int j = 0; j < 20; j++) {
+				result.append(j == 0 ? "" : ",")
+						.append("{\"locations\":[{\"component\":\"demo:src/demo/Class").append(i % 10)
+						.append(".java\",\"textRange\":{\"startLine\":").append(10 * i + j).append(",\"endLine\":")
+						.append(10 * i + j).append(",\"startOffset\":8,\"endOffset\":10},\"msg\":\"")
+						.append(j % 2 == 0 ? "+1" : "+2 (incl 1 for nesting)").append("\"}]}");
+			}
+			result.append("],\"status\":\"OPEN\",\"message\":\"Refactor this method to reduce its Cognitive Complexity from 30 to the 15 allowed.\",\"effort\":\"20min\",\"debt\":\"20min\",\"tags\":[\"brain-overload\"],\"type\":\"CODE_SMELL\"}");
+		}
+		result.append("]}");
+		return result.toString();
+	}
+}
@@ -0,0 +1,77 @@
+package test.neo.reducecognitivecomplexity.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityVisitor;
+import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.refactoringcache.ExtractionOracle;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+import neo.reducecognitivecomplexity.refactoringcache.ReplayOracle;
+
+/**
+ * Method of a Java file of the test resources (parsed without a workspace and
+ * annotated with its contribution to complexity), with the refactoring cache
+ * recorded for it in a previous run (the answers of the oracle).
+ */
+class RecordedMethod {
+	static final Path RESOURCES = Paths.get("src", "test", "resources").toAbsolutePath();
+
+	final CompilationUnit compilationUnit;
+	final MethodDeclaration method;
+	final int complexity;
+	final RefactoringCache recorded;
+
+	RecordedMethod(String fileName, String methodName, String refactoringCacheFileName) throws IOException {
+		compilationUnit = Utils.createCompilationUnitFromFile(RESOURCES.resolve(fileName).toString());
+		method = findMethod(compilationUnit, methodName);
+		CognitiveComplexityVisitor.annotate(method, new ArrayList<>());
+		complexity = Utils.computeAndAnnotateAccumulativeCognitiveComplexity(method);
+		recorded = new RefactoringCache(RESOURCES.toString() + File.separatorChar, refactoringCacheFileName,
+				compilationUnit);
+	}
+
+	/**
+	 * Get an oracle answering with the recorded refactoring cache (code
+	 * extractions which were not recorded are unfeasible).
+	 */
+	ExtractionOracle oracle() {
+		return sequence -> {
+			CodeExtractionMetrics result = recorded.cache.get(sequence.getOffsetAsPair());
+			if (result == null) {
+				return new CodeExtractionMetrics(false, ReplayOracle.NOT_RECORDED, false, 0, 0, new ArrayList<>(),
+						new ArrayList<>());
+			}
+			return new CodeExtractionMetrics(result);
+		};
+	}
+
+	/**
+	 * Find the first method declaration with a name in a compilation unit.
+	 */
+	static MethodDeclaration findMethod(CompilationUnit compilationUnit, String methodName) {
+		List<MethodDeclaration> result = new ArrayList<>();
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration node) {
+				if (result.isEmpty() && node.getName().getIdentifier().equals(methodName)) {
+					result.add(node);
+				}
+				return result.isEmpty();
+			}
+		});
+		if (result.isEmpty()) {
+			throw new IllegalArgumentException("Method " + methodName + " not found");
+		}
+		return result.get(0);
+	}
+}
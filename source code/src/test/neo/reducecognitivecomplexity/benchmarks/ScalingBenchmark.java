@@ -0,0 +1,154 @@
+package test.neo.reducecognitivecomplexity.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.algorithms.Solution;
+import neo.reducecognitivecomplexity.algorithms.exhaustivesearch.EnumerativeSearch;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityVisitor;
+import neo.reducecognitivecomplexity.jdt.StructuralExtractionOracle;
+import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCacheFiller;
+import test.neo.reducecognitivecomplexity.benchmarks.SyntheticMethodGenerator.GeneratedMethod;
+
+/**
+ * Benchmark of how the filling of the refactoring cache and the search scale
+ * with the size and shape of methods. It sweeps the parameters of
+ * {@link SyntheticMethodGenerator}, and for each method generated fills its
+ * refactoring cache (with the {@link StructuralExtractionOracle}) and runs the
+ * ES-LSF and ES-SSF searches.
+ * <p>
+ * The generated classes are written to the folder synthetic of the output
+ * folder, and the results to scaling-benchmark.csv (separated by semicolons,
+ * one row per method and algorithm), so oracle calls, candidates (solutions
+ * evaluated) and runtimes can be plotted against the number of statements of
+ * the method.
+ * <p>
+ * Parameters can be configured with system properties (lists separated by
+ * commas):
+ * <ul>
+ * <li>reducecc.benchmark.statements: statements per block (2,4,6,8 by
+ * default).
+ * <li>reducecc.benchmark.depths: nesting depths (1,2 by default).
+ * <li>reducecc.benchmark.branchDensities: branch densities (0.5 by default).
+ * <li>reducecc.benchmark.couplings: variable couplings (0,0.5 by default).
+ * <li>reducecc.benchmark.seed: seed of the generator (1 by default).
+ * </ul>
+ * The only (optional) argument is the output folder (scaling-benchmark by
+ * default).
+ */
+public class ScalingBenchmark {
+	private static final String CSV_HEADER = "class;statementsPerBlock;depth;branchDensity;coupling;statements;"
+			+ "complexity;cacheEntries;oracleCalls;cacheFillMillis;algorithm;searchOracleCalls;candidates;"
+			+ "searchMillis;fitness;reducedComplexity";
+
+	private static final Map<String, APPROACH> ALGORITHMS = new LinkedHashMap<>();
+	static {
+		ALGORITHMS.put(Constants.EXHAUSTIVE_SEARCH_LONG_SEQUENCES_FIRST, APPROACH.LONG_SEQUENCE_FIRST);
+		ALGORITHMS.put(Constants.EXHAUSTIVE_SEARCH_SHORT_SEQUENCES_FIRST, APPROACH.SHORT_SEQUENCE_FIRST);
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path output = Paths.get((args.length > 0) ? args[0] : "scaling-benchmark");
+		Files.createDirectories(output.resolve(SyntheticMethodGenerator.PACKAGE));
+
+		long seed = Long.getLong("reducecc.benchmark.seed", 1);
+		try (BufferedWriter writer = Files.newBufferedWriter(output.resolve("scaling-benchmark.csv"))) {
+			writer.append(CSV_HEADER);
+			for (double statements : parameter("reducecc.benchmark.statements", "2,4,6,8")) {
+				for (double depth : parameter("reducecc.benchmark.depths", "1,2")) {
+					for (double branchDensity : parameter("reducecc.benchmark.branchDensities", "0.5")) {
+						for (double coupling : parameter("reducecc.benchmark.couplings", "0,0.5")) {
+							GeneratedMethod method = new SyntheticMethodGenerator((int) statements, (int) depth,
+									branchDensity, coupling, seed).generate();
+							for (String row : run(method, output)) {
+								writer.newLine();
+								writer.append(String.format(Locale.ROOT, "%s;%d;%d;%.2f;%.2f;%s",
+										method.getClassName(), (int) statements, (int) depth, branchDensity,
+										coupling, row));
+							}
+							writer.flush();
+						}
+					}
+				}
+			}
+		}
+		System.out.println("Results written to " + output.resolve("scaling-benchmark.csv").toAbsolutePath());
+		System.exit(0);
+	}
+
+	/**
+	 * Fill the refactoring cache of a method and search with each algorithm.
+	 *
+	 * @return The rows of results (from the number of statements).
+	 */
+	private static List<String> run(GeneratedMethod generated, Path output) throws IOException {
+		Path file = output.resolve(SyntheticMethodGenerator.PACKAGE).resolve(generated.getClassName() + ".java");
+		Files.write(file, generated.getSource().getBytes(StandardCharsets.UTF_8));
+
+		CompilationUnit compilationUnit = Utils.createCompilationUnitFromFile(file.toString());
+		MethodDeclaration method = RecordedMethod.findMethod(compilationUnit, SyntheticMethodGenerator.METHOD_NAME);
+		int complexity = CognitiveComplexityVisitor.annotate(method, new ArrayList<>());
+		if (complexity != generated.getComplexity()) {
+			System.err.println(generated.getClassName() + ": cognitive complexity " + complexity
+					+ " (annotated " + generated.getComplexity() + ")");
+		}
+		Utils.computeAndAnnotateAccumulativeCognitiveComplexity(method);
+
+		CountingOracle oracle = new CountingOracle(new StructuralExtractionOracle());
+		RefactoringCache refactoringCache = new RefactoringCache(compilationUnit, oracle);
+		long start = System.nanoTime();
+		RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(refactoringCache, method, new NullProgressMonitor());
+		double cacheFillMillis = millisSince(start);
+		int cacheFillCalls = oracle.getCalls();
+
+		List<String> result = new ArrayList<>();
+		for (Map.Entry<String, APPROACH> algorithm : ALGORITHMS.entrySet()) {
+			EnumerativeSearch search = new EnumerativeSearch();
+			int calls = oracle.getCalls();
+			start = System.nanoTime();
+			Solution solution = search.run(algorithm.getValue(), new BufferedWriter(new StringWriter()), "",
+					compilationUnit, refactoringCache, 0, new ArrayList<>(), method, complexity,
+					new NullProgressMonitor());
+			double searchMillis = millisSince(start);
+
+			result.add(String.format(Locale.ROOT, "%d;%d;%d;%d;%.3f;%s;%d;%d;%.3f;%.1f;%d",
+					generated.getStatements(), complexity, refactoringCache.cache.size(), cacheFillCalls,
+					cacheFillMillis, algorithm.getKey(), oracle.getCalls() - calls, search.getEvaluations(),
+					searchMillis, solution.getFitness(), solution.getReducedComplexity()));
+		}
+
+		System.out.println(generated.getClassName() + ": " + generated.getStatements() + " statements, complexity "
+				+ complexity + ", " + cacheFillCalls + " oracle calls");
+		return result;
+	}
+
+	private static List<Double> parameter(String property, String defaultValues) {
+		List<Double> result = new ArrayList<>();
+		for (String value : System.getProperty(property, defaultValues).split(",")) {
+			result.add(Double.parseDouble(value.trim()));
+		}
+		return result;
+	}
+
+	private static double millisSince(long start) {
+		return (System.nanoTime() - start) / 1e6;
+	}
+}
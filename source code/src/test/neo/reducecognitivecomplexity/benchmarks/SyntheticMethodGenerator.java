@@ -0,0 +1,213 @@
+package test.neo.reducecognitivecomplexity.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generator of compilable Java classes with a single method of a controlled
+ * shape, to study how the filling of the refactoring cache and the search
+ * scale:
+ * <ul>
+ * <li>Statements per block: number of statements of each block (the body of
+ * the method and of each control statement).
+ * <li>Nesting depth: maximum nesting of control statements (0 for a method
+ * without control statements).
+ * <li>Branch density: fraction of the statements of a block (below the maximum
+ * nesting depth) which are control statements (if, for or while), spread
+ * evenly over the block.
+ * <li>Variable coupling: fraction of the statements reading a local variable
+ * declared by a previous statement (instead of the parameter of the method).
+ * The more variables are read after a sequence of statements, the more code
+ * extractions are unfeasible.
+ * </ul>
+ * Each control statement is annotated with its contribution to cognitive
+ * complexity (as Sonar reports it) and the Javadoc of the method with its
+ * cognitive complexity. The choice of control statements and variables is
+ * random but reproducible (given by a seed).
+ */
+public class SyntheticMethodGenerator {
+	public static final String PACKAGE = "synthetic";
+	public static final String METHOD_NAME = "method";
+
+	private final int statementsPerBlock;
+	private final int depth;
+	private final double branchDensity;
+	private final double coupling;
+	private final long seed;
+
+	private Random random;
+	private StringBuilder source;
+	private List<String> visibleVariables;
+	private int variables;
+	private int statements;
+	private int couplingStatements;
+	private int complexity;
+
+	/**
+	 * Method generated, with its source code (a class in package
+	 * {@link SyntheticMethodGenerator#PACKAGE}).
+	 */
+	public static class GeneratedMethod {
+		private final String className;
+		private final String source;
+		private final int statements;
+		private final int complexity;
+
+		private GeneratedMethod(String className, String source, int statements, int complexity) {
+			this.className = className;
+			this.source = source;
+			this.statements = statements;
+			this.complexity = complexity;
+		}
+
+		public String getClassName() {
+			return className;
+		}
+
+		public String getSource() {
+			return source;
+		}
+
+		/**
+		 * Get the number of statements of the method (including nested ones)
+		 */
+		public int getStatements() {
+			return statements;
+		}
+
+		/**
+		 * Get the cognitive complexity of the method
+		 */
+		public int getComplexity() {
+			return complexity;
+		}
+	}
+
+	public SyntheticMethodGenerator(int statementsPerBlock, int depth, double branchDensity, double coupling,
+			long seed) {
+		if (statementsPerBlock < 1 || depth < 0 || branchDensity < 0 || branchDensity > 1 || coupling < 0
+				|| coupling > 1) {
+			throw new IllegalArgumentException("Invalid shape of method");
+		}
+		this.statementsPerBlock = statementsPerBlock;
+		this.depth = depth;
+		this.branchDensity = branchDensity;
+		this.coupling = coupling;
+		this.seed = seed;
+	}
+
+	/**
+	 * Generate the method.
+	 *
+	 * @return The method generated.
+	 */
+	public GeneratedMethod generate() {
+		random = new Random(seed);
+		source = new StringBuilder();
+		visibleVariables = new ArrayList<>();
+		variables = 0;
+		statements = 0;
+		couplingStatements = 0;
+		complexity = 0;
+		block(0, 2);
+
+		String className = String.format(Locale.ROOT, "S%dD%dB%03dC%03d", statementsPerBlock, depth,
+				Math.round(branchDensity * 100), Math.round(coupling * 100));
+		StringBuilder result = new StringBuilder();
+		result.append("package ").append(PACKAGE).append(";\n\n");
+		result.append("public class ").append(className).append(" {\n");
+		result.append("\t/**\n");
+		result.append(String.format(Locale.ROOT,
+				"\t * Synthetic method: %d statements per block, nesting depth %d, branch\n"
+						+ "\t * density %.2f, variable coupling %.2f (seed %d).\n",
+				statementsPerBlock, depth, branchDensity, coupling, seed));
+		result.append("\t * Cognitive complexity: ").append(complexity).append("\n");
+		result.append("\t */\n");
+		result.append("\tpublic void ").append(METHOD_NAME).append("(int a) {\n");
+		result.append(source);
+		result.append("\t}\n");
+		result.append("}\n");
+
+		return new GeneratedMethod(className, result.toString(), statements, complexity);
+	}
+
+	/**
+	 * Generate the statements of a block.
+	 *
+	 * @param nesting     Nesting of the statements of the block.
+	 * @param indentation Indentation of the statements of the block.
+	 */
+	private void block(int nesting, int indentation) {
+		int visible = visibleVariables.size();
+		double density = (nesting < depth) ? branchDensity : 0;
+		for (int i = 0; i < statementsPerBlock; i++) {
+			// Control statements are spread evenly over the block
+			boolean branch = Math.floor((i + 1) * density) > Math.floor(i * density);
+			if (branch) {
+				controlStatement(nesting, indentation);
+			} else {
+				declaration(indentation);
+			}
+		}
+		// Variables declared in the block are not visible after it
+		visibleVariables.subList(visible, visibleVariables.size()).clear();
+	}
+
+	private void declaration(int indentation) {
+		String variable = "v" + variables++;
+		indent(indentation).append("int ").append(variable).append(" = ").append(operand()).append(" + ")
+				.append(statements).append(";\n");
+		visibleVariables.add(variable);
+		statements++;
+	}
+
+	private void controlStatement(int nesting, int indentation) {
+		String operand = operand();
+		int contribution = 1 + nesting;
+		complexity += contribution;
+		String annotation = (nesting == 0) ? " // +1\n"
+				: " // +" + contribution + " (incl " + nesting + " for nesting)\n";
+		statements++;
+
+		switch (random.nextInt(3)) {
+		case 0:
+			indent(indentation).append("if (").append(operand).append(" > ").append(statements).append(") {")
+					.append(annotation);
+			break;
+		case 1:
+			String counter = "i" + variables++;
+			indent(indentation).append("for (int ").append(counter).append(" = 0; ").append(counter).append(" < ")
+					.append(operand).append("; ").append(counter).append("++) {").append(annotation);
+			break;
+		default:
+			indent(indentation).append("while (").append(operand).append(" < ").append(statements).append(") {")
+					.append(annotation);
+			break;
+		}
+		block(nesting + 1, indentation + 1);
+		indent(indentation).append("}\n");
+	}
+
+	/**
+	 * Get the operand of a new statement: a variable declared by a previous
+	 * statement (for a fraction of statements given by the coupling) or the
+	 * parameter.
+	 */
+	private String operand() {
+		int coupled = (int) Math.floor((statements + 1) * coupling);
+		if (coupled > couplingStatements && !visibleVariables.isEmpty()) {
+			couplingStatements = coupled;
+			return visibleVariables.get(random.nextInt(visibleVariables.size()));
+		}
+		return "a";
+	}
+
+	private StringBuilder indent(int indentation) {
+		for (int i = 0; i < indentation; i++) {
+			source.append('\t');
+		}
+		return source;
+	}
+}
@@ -0,0 +1,103 @@
+package test.neo.reducecognitivecomplexity.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.algorithms.Solution;
+import neo.reducecognitivecomplexity.algorithms.exhaustivesearch.ExhaustiveEnumerationAlgorithm;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.core.MethodModel;
+import neo.reducecognitivecomplexity.core.ModelSearch;
+import neo.reducecognitivecomplexity.core.Pair;
+import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityVisitor;
+import neo.reducecognitivecomplexity.jdt.MethodModelAdapter;
+import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.refactoringcache.ExtractionOracle;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+
+class ModelSearchTest {
+
+	@Test
+	@DisplayName("The search core extracts the sentences with complexity over the threshold")
+	void testModel() {
+		// One block: a sentence with complexity 20 (12 once extracted) between an
+		// empty statement and a sentence with no complexity
+		MethodModel model = new MethodModel(20);
+		model.addBlock(new MethodModel.Block(3).addSentence(9, 10, true, 0, 0, 0, 0, 1)
+				.addSentence(11, 50, false, 20, 10, 2, 2, 1).addSentence(51, 60, false, 0, 0, 0, 0, 1));
+
+		ModelSearch search = new ModelSearch(model, offsets -> true, APPROACH.SHORT_SEQUENCE_FIRST, 15);
+		List<Pair> result = search.run(Long.MAX_VALUE, () -> false);
+
+		assertEquals(Arrays.asList(new Pair(11, 50)), result);
+		assertEquals(1, search.getBestFitness().getValue());
+		assertEquals(20, search.getBestFitness().getReducedComplexity());
+		// Extractions starting at the empty statement are not evaluated
+		assertEquals(2, search.getOracleCalls());
+	}
+
+	@Test
+	@DisplayName("The search core finds the same solution than the enumeration of the AST")
+	void testSameSolution() throws Exception {
+		CompilationUnit compilationUnit = Utils.createCompilationUnitFromFile(
+				Paths.get("src", "test", "resources").toAbsolutePath().resolve("LZ09.java").toString());
+		MethodDeclaration method = findMethod(compilationUnit, "objective");
+		CognitiveComplexityVisitor.annotate(method, new ArrayList<>());
+		Utils.computeAndAnnotateAccumulativeCognitiveComplexity(method);
+
+		// Oracle whose answers depend on the code extraction
+		ExtractionOracle oracle = sequence -> new CodeExtractionMetrics(sequence.getSiblingNodes().size() % 2 == 1,
+				"", false, 0, 0, new ArrayList<>(), new ArrayList<>());
+
+		for (APPROACH approach : APPROACH.values()) {
+			RefactoringCache refactoringCache = new RefactoringCache(compilationUnit, oracle);
+			List<Solution> best = new ArrayList<>();
+			new ExhaustiveEnumerationAlgorithm(refactoringCache, method, approach).run(sequences -> {
+				Solution solution = new Solution(sequences, compilationUnit, method);
+				solution.evaluate(refactoringCache);
+				if (best.isEmpty() || solution.getFitness() < best.get(0).getFitness()) {
+					best.clear();
+					best.add(solution);
+				}
+			}, Constants.MAX_EVALS, new NullProgressMonitor());
+			Solution expected = best.get(0);
+
+			ModelSearch search = new ModelSearch(MethodModelAdapter.build(method),
+					MethodModelAdapter.oracle(new RefactoringCache(compilationUnit, oracle)), approach,
+					Constants.MAX_COMPLEXITY);
+			List<Pair> result = search.run(Constants.MAX_EVALS, () -> false);
+
+			assertEquals(expected.get(), result);
+			assertEquals(expected.getFitness(), search.getBestFitness().getValue());
+			assertEquals(expected.getReducedComplexity(), search.getBestFitness().getReducedComplexity());
+			assertEquals(refactoringCache.cache.size(), search.getOracleCalls());
+		}
+	}
+
+	private static MethodDeclaration findMethod(CompilationUnit compilationUnit, String name) {
+		List<MethodDeclaration> result = new ArrayList<>();
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration node) {
+				if (node.getName().getIdentifier().equals(name)) {
+					result.add(node);
+				}
+				return false;
+			}
+		});
+		return result.get(0);
+	}
+}
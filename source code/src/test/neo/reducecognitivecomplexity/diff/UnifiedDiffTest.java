@@ -0,0 +1,84 @@
+package test.neo.reducecognitivecomplexity.diff;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import neo.reducecognitivecomplexity.diff.DiffScope;
+import neo.reducecognitivecomplexity.diff.UnifiedDiff;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityScanner;
+import neo.reducecognitivecomplexity.sonar.cognitivecomplexity.CognitiveComplexMethod;
+
+class UnifiedDiffTest {
+	static Path resourceDirectory = Paths.get("src", "test", "resources");
+
+	/**
+	 * Diff of LZ09.java changing some lines of the given hunks.
+	 */
+	static UnifiedDiff diff(String... hunks) {
+		List<String> lines = new ArrayList<>(Arrays.asList(
+				"diff --git a/src/main/java/LZ09.java b/src/main/java/LZ09.java",
+				"index 1111111..2222222 100644",
+				"--- a/src/main/java/LZ09.java",
+				"+++ b/src/main/java/LZ09.java"));
+		for (String hunk : hunks) {
+			lines.addAll(Arrays.asList(hunk.split("\n")));
+		}
+
+		return UnifiedDiff.parse(lines);
+	}
+
+	@Test
+	@DisplayName("Added and removed lines are located in the new version of the file")
+	void testChangedLines() {
+		UnifiedDiff diff = diff(
+				"@@ -10,3 +10,4 @@ class A {\n a\n-b\n+c\n+d\n e",
+				"@@ -20,2 +21,0 @@\n--- removed line looking like a header\n-f",
+				"@@ -30 +29 @@\n-g\n+h\n\\ No newline at end of file");
+
+		BitSet expected = new BitSet();
+		expected.set(11);
+		expected.set(12);
+		expected.set(22);
+		expected.set(29);
+		assertEquals(expected, diff.getChangedLines("LZ09.java"));
+		assertEquals(expected, diff.getChangedLines("src/main/java/LZ09.java"));
+		assertTrue(diff.getChangedLines("Other.java").isEmpty());
+		assertTrue(diff.changed("LZ09.java", 20, 22));
+		assertFalse(diff.changed("LZ09.java", 13, 21));
+	}
+
+	@Test
+	@DisplayName("Only cognitive complex methods changed by the diff are kept")
+	void testFilter() throws Exception {
+		Map<String, List<CognitiveComplexMethod>> methodsWithIssues = new TreeMap<>();
+		methodsWithIssues.put("LZ09.java",
+				CognitiveComplexityScanner.scanFile("LZ09", "LZ09.java", resourceDirectory.resolve("LZ09.java")));
+		assertTrue(methodsWithIssues.get("LZ09.java").size() > 1);
+
+		// Line in method objective
+		Map<String, List<CognitiveComplexMethod>> result = DiffScope.filter(methodsWithIssues,
+				diff("@@ -250 +250 @@\n-a\n+b"), resourceDirectory);
+		assertEquals(1, result.get("LZ09.java").size());
+		assertEquals(223, result.get("LZ09.java").get(0).getTextRange().getStartLine());
+
+		// Lines removed in method objective
+		result = DiffScope.filter(methodsWithIssues, diff("@@ -280,2 +279,0 @@\n-a\n-b"), resourceDirectory);
+		assertEquals(1, result.get("LZ09.java").size());
+		assertEquals(223, result.get("LZ09.java").get(0).getTextRange().getStartLine());
+
+		// Line out of methods
+		assertTrue(DiffScope.filter(methodsWithIssues, diff("@@ -26 +26 @@\n-a\n+b"), resourceDirectory)
+				.isEmpty());
+	}
+}
@@ -0,0 +1,214 @@
+package test.neo.reducecognitivecomplexity.jdt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import neo.reducecognitivecomplexity.Constants;
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.jdt.BlockMetrics;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityVisitor;
+import neo.reducecognitivecomplexity.jdt.ComplexityTable;
+import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.refactoringcache.SentencesSelectorVisitor;
+
+class CognitiveComplexityVisitorTest {
+	static ArrayList<MethodDeclaration> methods = new ArrayList<>();
+	static ArrayList<List<ASTNode>> contributors = new ArrayList<>();
+	static ArrayList<Integer> complexity = new ArrayList<>();
+	static ArrayList<Integer> expectedComplexity = new ArrayList<>();
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		Path resourceDirectory = Paths.get("src", "test", "resources");
+		String absolutePath = resourceDirectory.toFile().getAbsolutePath() + File.separatorChar;
+
+		ArrayList<String> javaFileName = new ArrayList<>();
+		ArrayList<String> methodName = new ArrayList<>();
+
+		// Cognitive complexity reported by SONAR for these methods
+		javaFileName.add("EZInjection.java");
+		methodName.add("execute");
+		expectedComplexity.add(131);
+
+		javaFileName.add("ResourceDecompiling.java");
+		methodName.add("decompileSaveAll");
+		expectedComplexity.add(79);
+
+		javaFileName.add("ResourceDecompiling.java");
+		methodName.add("decompileSaveOpenedOnly");
+		expectedComplexity.add(140);
+
+		javaFileName.add("Ebes.java");
+		methodName.add("EBEsReadDataFile");
+		expectedComplexity.add(126);
+
+		javaFileName.add("Ebes.java");
+		methodName.add("Variable_Position");
+		expectedComplexity.add(16);
+
+		javaFileName.add("LZ09.java");
+		methodName.add("objective");
+		expectedComplexity.add(42);
+
+		for (int i = 0; i < javaFileName.size(); i++) {
+			CompilationUnit cu = Utils.createCompilationUnitFromFile(absolutePath + javaFileName.get(i));
+			String name = methodName.get(i);
+			cu.accept(new ASTVisitor() {
+				@Override
+				public boolean visit(MethodDeclaration node) {
+					if (node.getName().getIdentifier().equals(name)) {
+						methods.add(node);
+					}
+					return false;
+				}
+			});
+		}
+
+		for (MethodDeclaration method : methods) {
+			List<ASTNode> nodes = new ArrayList<>();
+			complexity.add(CognitiveComplexityVisitor.annotate(method, nodes));
+			contributors.add(nodes);
+		}
+	}
+
+	@Test
+	@DisplayName("Cognitive complexity is the one reported by SONAR")
+	void testComplexity() {
+		assertEquals(expectedComplexity.size(), methods.size());
+		for (int i = 0; i < methods.size(); i++) {
+			assertEquals(expectedComplexity.get(i), complexity.get(i));
+		}
+	}
+
+	@Test
+	@DisplayName("Contributions of annotated nodes add up to the cognitive complexity")
+	void testAnnotatedContributions() {
+		for (int i = 0; i < methods.size(); i++) {
+			int total = 0;
+			int previousOffset = -1;
+			for (ASTNode node : contributors.get(i)) {
+				assertTrue(node.getStartPosition() >= previousOffset);
+				previousOffset = node.getStartPosition();
+				total += Utils.getIntegerPropertyOfNode(node, Constants.CONTRIBUTION_TO_COMPLEXITY);
+			}
+			assertEquals(expectedComplexity.get(i), total);
+		}
+	}
+
+	@Test
+	@DisplayName("Accumulated components of complexity add up to the cognitive complexity")
+	void testAccumulatedComplexity() {
+		for (int i = 0; i < methods.size(); i++) {
+			MethodDeclaration method = methods.get(i);
+			assertEquals(expectedComplexity.get(i), Utils.computeAndAnnotateAccumulativeCognitiveComplexity(method));
+			assertEquals(expectedComplexity.get(i), ComplexityTable.getComplexityWhenExtracting(method));
+
+			int total = 0;
+			for (Object statement : method.getBody().statements()) {
+				total += ComplexityTable.getAccumulatedComplexity((ASTNode) statement);
+			}
+			assertEquals(expectedComplexity.get(i), total);
+		}
+	}
+
+	@Test
+	@DisplayName("Nesting computed in the complexity table is the nesting of each node")
+	void testNesting() {
+		for (MethodDeclaration method : methods) {
+			Utils.computeAndAnnotateAccumulativeCognitiveComplexity(method);
+			method.accept(new ASTVisitor() {
+				@Override
+				public void preVisit(ASTNode node) {
+					assertEquals(Utils.computeNesting(node), ComplexityTable.getNesting(node), node.toString());
+				}
+			});
+		}
+	}
+
+	@Test
+	@DisplayName("A switch expression increases the nesting of the structures inside it")
+	void testSwitchExpression() {
+		Map<String, String> options = JavaCore.getOptions();
+		JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), options);
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setCompilerOptions(options);
+		parser.setSource(("class C { int m(int a) { int r = switch (a) { case 1 -> { if (a > 0) { yield 1; } yield 2; }"
+				+ " default -> 0; }; return r; } }").toCharArray());
+		CompilationUnit compilationUnit = (CompilationUnit) parser.createAST(null);
+
+		List<MethodDeclaration> method = new ArrayList<>();
+		List<IfStatement> ifStatement = new ArrayList<>();
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration node) {
+				method.add(node);
+				return true;
+			}
+
+			@Override
+			public boolean visit(IfStatement node) {
+				ifStatement.add(node);
+				return true;
+			}
+		});
+
+		// switch (+1) and if nested in the switch expression (+1 +1 by nesting)
+		assertEquals(3, CognitiveComplexityVisitor.annotate(method.get(0), new ArrayList<>()));
+		assertEquals(1, Utils.getIntegerPropertyOfNode(ifStatement.get(0), Constants.CONTRIBUTION_TO_COMPLEXITY_BY_NESTING));
+		assertEquals(1, Utils.computeNesting(ifStatement.get(0)));
+
+		// The nesting component is the same when computed from the complexity table
+		assertEquals(3, Utils.computeAndAnnotateAccumulativeCognitiveComplexity(method.get(0)));
+		assertEquals(1, ComplexityTable.getNesting(ifStatement.get(0)));
+		ASTNode declaration = (ASTNode) method.get(0).getBody().statements().get(0);
+		assertEquals(1, ComplexityTable.getAccumulatedNestingComponent(declaration));
+	}
+
+	@Test
+	@DisplayName("Metrics of sequences computed from the prefix sums of their block are the sum of their sentences")
+	void testBlockMetrics() {
+		for (MethodDeclaration method : methods) {
+			Utils.computeAndAnnotateAccumulativeCognitiveComplexity(method);
+			SentencesSelectorVisitor visitor = new SentencesSelectorVisitor((CompilationUnit) method.getRoot());
+			method.accept(visitor);
+
+			for (Sequence block : visitor.getSentencesToIterate()) {
+				List<ASTNode> sentences = block.getSiblingNodes();
+				for (int from = 0; from < sentences.size(); from++) {
+					for (int to = from + 1; to <= sentences.size(); to++) {
+						List<ASTNode> range = sentences.subList(from, to);
+						Sequence sequence = new Sequence((CompilationUnit) method.getRoot(), range);
+						assertNotNull(BlockMetrics.getRange(range));
+						assertEquals(range.stream().mapToInt(ComplexityTable::getAccumulatedComplexity).sum(),
+								sequence.getAccumulatedCognitiveComplexity());
+						assertEquals(range.stream().mapToInt(ComplexityTable::getAccumulatedInherentComponent).sum(),
+								sequence.getAccumulatedInherentComponent());
+						assertEquals(range.stream().mapToInt(ComplexityTable::getAccumulatedNestingComponent).sum(),
+								sequence.getAccumulatedNestingComponent());
+						assertEquals(range.stream().mapToInt(ComplexityTable::getNumberNestingContributors).sum(),
+								sequence.getNumberNestingContributors());
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package test.neo.reducecognitivecomplexity.jdt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Paths;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.dom.Statement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import neo.reducecognitivecomplexity.jdt.OffsetIndex;
+import neo.reducecognitivecomplexity.jdt.Utils;
+
+class OffsetIndexTest {
+
+	@Test
+	@DisplayName("Nodes located by the index are the nodes located traversing the AST")
+	void testSameNodesAsTraversal() throws Exception {
+		String path = Paths.get("src", "test", "resources").toFile().getAbsolutePath() + File.separatorChar
+				+ "ResourceDecompiling.java";
+		CompilationUnit compilationUnit = Utils.createCompilationUnitFromFile(path);
+		OffsetIndex index = OffsetIndex.of(compilationUnit);
+		assertSame(index, OffsetIndex.of(compilationUnit));
+
+		int length = compilationUnit.getStartPosition() + compilationUnit.getLength();
+		for (int offset = -1; offset <= length + 1; offset++) {
+			assertSame(new NodeFinder(compilationUnit, offset, 0).getCoveringNode(), index.getCoveringNode(offset));
+		}
+
+		// Selections of the sequences of statements (as loaded from solutions)
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public void preVisit(ASTNode node) {
+				if (node instanceof Statement && node.getParent() instanceof Statement) {
+					int start = node.getStartPosition();
+					int end = node.getParent().getStartPosition() + node.getParent().getLength() - 1;
+					assertEquals(new Utils.NodeFinderVisitorForGivenSelection(compilationUnit, start, end - start)
+							.getNodes(), index.getSiblingNodes(start, end - start));
+				}
+			}
+		});
+	}
+}
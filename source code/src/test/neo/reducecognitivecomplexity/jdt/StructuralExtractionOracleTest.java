@@ -0,0 +1,156 @@
+package test.neo.reducecognitivecomplexity.jdt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import neo.reducecognitivecomplexity.algorithms.Sequence;
+import neo.reducecognitivecomplexity.core.Pair;
+import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
+import neo.reducecognitivecomplexity.jdt.StructuralExtractionOracle;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+
+class StructuralExtractionOracleTest {
+	private static final Path RESOURCES = Paths.get("src", "test", "resources").toAbsolutePath();
+
+	private final StructuralExtractionOracle oracle = new StructuralExtractionOracle();
+
+	@Test
+	@DisplayName("Feasibility agrees with the refactoring caches recorded with Eclipse")
+	void testRecordedRefactoringCaches() throws Exception {
+		assertAgreesWithRecorded("EZInjection.java",
+				"bytecode-viewer-ILP-src.main.java.the.bytecode.club.bytecodeviewer.plugin.preinstalled.EZInjection.java.execute.csv");
+		assertAgreesWithRecorded("ResourceDecompiling.java",
+				"bytecode-viewer-ILP-src.main.java.the.bytecode.club.bytecodeviewer.resources.ResourceDecompiling.java.decompileSaveAll.csv");
+		assertAgreesWithRecorded("ResourceDecompiling.java",
+				"bytecode-viewer-ILP-src.main.java.the.bytecode.club.bytecodeviewer.resources.ResourceDecompiling.java.decompileSaveOpenedOnly.csv");
+		assertAgreesWithRecorded("LZ09.java",
+				"jmetal-problem-ILP-src.main.java.org.uma.jmetal.problem.multiobjective.lz09.LZ09.java.objective.csv");
+	}
+
+	@Test
+	@DisplayName("A return statement can only be extracted when the selection ends the body")
+	void testReturn() {
+		List<Statement> statements = parseBody(
+				"int x = a; if (x > 0) { return 1; } x++; return x;");
+		assertFalse(oracle.evaluate(statements.get(1), statements.get(1)).isFeasible());
+		assertFalse(oracle.evaluate(statements.get(1), statements.get(2)).isFeasible());
+		assertTrue(oracle.evaluate(statements.get(1), statements.get(3)).isFeasible());
+		assertTrue(oracle.evaluate(statements.get(2), statements.get(3)).isFeasible());
+	}
+
+	@Test
+	@DisplayName("A jump can only be extracted with its target")
+	void testJump() {
+		List<Statement> statements = parseBody(
+				"int x = 0; for (int i = 0; i < a; i++) { if (i > x) { break; } x++; } System.out.println(x);");
+		List<?> loopBody = ((Block) ((ForStatement) statements.get(1)).getBody()).statements();
+		assertFalse(oracle.evaluate((Statement) loopBody.get(0), (Statement) loopBody.get(0)).isFeasible());
+		assertTrue(oracle.evaluate(statements.get(1), statements.get(1)).isFeasible());
+	}
+
+	@Test
+	@DisplayName("A call to another constructor can not be extracted")
+	void testConstructorInvocation() {
+		MethodDeclaration constructor = parseMethod("class C { C() { } C(int a) { this(); System.out.println(a); } }", 1);
+		List<?> statements = constructor.getBody().statements();
+		assertFalse(oracle.evaluate((Statement) statements.get(0), (Statement) statements.get(0)).isFeasible());
+		assertTrue(oracle.evaluate((Statement) statements.get(1), (Statement) statements.get(1)).isFeasible());
+	}
+
+	@Test
+	@DisplayName("At most one local variable can be returned by the extracted method")
+	void testReturnedLocals() {
+		List<Statement> statements = parseBody("int x = a; int y = 2 * a; System.out.println(x + y);");
+		assertTrue(oracle.evaluate(statements.get(0), statements.get(0)).isFeasible());
+		assertFalse(oracle.evaluate(statements.get(0), statements.get(1)).isFeasible());
+		assertTrue(oracle.evaluate(statements.get(0), statements.get(2)).isFeasible());
+	}
+
+	/**
+	 * Check the feasibility given by the oracle for each code extraction of a
+	 * recorded refactoring cache (the file is parsed resolving bindings).
+	 */
+	private void assertAgreesWithRecorded(String fileName, String refactoringCacheFileName) throws Exception {
+		CompilationUnit compilationUnit = parseWithBindings(RESOURCES.resolve(fileName));
+		RefactoringCache recorded = new RefactoringCache(RESOURCES.toString() + File.separatorChar,
+				refactoringCacheFileName, compilationUnit);
+		assertFalse(recorded.cache.isEmpty());
+
+		for (Map.Entry<Pair, CodeExtractionMetrics> entry : recorded.cache.entrySet()) {
+			Sequence sequence = new Sequence(compilationUnit, entry.getKey());
+			assertEquals(entry.getValue().isFeasible(), oracle.evaluate(sequence).isFeasible(),
+					fileName + ": code extraction " + entry.getKey());
+		}
+	}
+
+	private static CompilationUnit parseWithBindings(Path file) {
+		Map<String, String> options = JavaCore.getOptions();
+		JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), options);
+
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setCompilerOptions(options);
+		parser.setResolveBindings(true);
+		parser.setBindingsRecovery(true);
+		parser.setEnvironment(new String[0], new String[] { RESOURCES.toString() }, null, true);
+
+		List<CompilationUnit> result = new ArrayList<>();
+		parser.createASTs(new String[] { file.toString() }, null, new String[0], new FileASTRequestor() {
+			@Override
+			public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
+				result.add(compilationUnit);
+			}
+		}, null);
+		return result.get(0);
+	}
+
+	/**
+	 * Parse the statements of the body of a method with an int parameter a.
+	 */
+	private static List<Statement> parseBody(String body) {
+		List<Statement> result = new ArrayList<>();
+		for (Object statement : parseMethod("class C { int m(int a) { " + body + " } }", 0).getBody().statements()) {
+			result.add((Statement) statement);
+		}
+		return result;
+	}
+
+	/**
+	 * Parse the method (or constructor) of a class in the given position.
+	 */
+	private static MethodDeclaration parseMethod(String source, int index) {
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setSource(source.toCharArray());
+		CompilationUnit compilationUnit = (CompilationUnit) parser.createAST(null);
+
+		List<MethodDeclaration> result = new ArrayList<>();
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration node) {
+				result.add(node);
+				return false;
+			}
+		});
+		return result.get(index);
+	}
+}
@@ -0,0 +1,55 @@
+package test.neo.reducecognitivecomplexity.journal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import neo.reducecognitivecomplexity.journal.ProgressJournal;
+
+class ProgressJournalTest {
+	@TempDir
+	Path folder;
+
+	@Test
+	@DisplayName("Completed methods are kept when resuming and a partial last line is discarded")
+	void testResume() throws Exception {
+		Path file = folder.resolve("journal.txt");
+		String first = ProgressJournal.key("ES-LSF", "src/A.java", 10);
+		String second = ProgressJournal.key("ES-LSF", "src/A.java", 40);
+
+		try (ProgressJournal journal = new ProgressJournal(file, false)) {
+			journal.completed(first, "LONG_SEQUENCE_FIRST;src/A.java;m;20;...\n");
+		}
+		// Process killed while writing the next line
+		Files.write(file, (second + "\tLONG_SEQ").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+		try (ProgressJournal journal = new ProgressJournal(file, true)) {
+			assertTrue(journal.isCompleted(first));
+			assertFalse(journal.isCompleted(second));
+			assertEquals(Arrays.asList("LONG_SEQUENCE_FIRST;src/A.java;m;20;..."), new ArrayList<>(journal.getRows()));
+
+			journal.completed(second, "LONG_SEQUENCE_FIRST;src/A.java;n;30;...");
+		}
+
+		try (ProgressJournal journal = new ProgressJournal(file, true)) {
+			assertTrue(journal.isCompleted(first));
+			assertTrue(journal.isCompleted(second));
+			assertEquals(2, journal.getRows().size());
+		}
+
+		// Not resuming starts the journal again
+		try (ProgressJournal journal = new ProgressJournal(file, false)) {
+			assertFalse(journal.isCompleted(first));
+		}
+		assertEquals(0, Files.size(file));
+	}
+}
@@ -0,0 +1,92 @@
+package test.neo.reducecognitivecomplexity.refactoringcache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import neo.reducecognitivecomplexity.jdt.CodeExtractionMetrics;
+import neo.reducecognitivecomplexity.jdt.CognitiveComplexityVisitor;
+import neo.reducecognitivecomplexity.jdt.Utils;
+import neo.reducecognitivecomplexity.refactoringcache.OracleRecording;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCache;
+import neo.reducecognitivecomplexity.refactoringcache.RefactoringCacheFiller;
+import neo.reducecognitivecomplexity.refactoringcache.ReplayOracle;
+
+class OracleRecordingTest {
+	@TempDir
+	Path folder;
+
+	@Test
+	@DisplayName("Replaying a recording gives the recorded answers of the oracle")
+	void testReplay() throws Exception {
+		Path file = Paths.get("src", "test", "resources").toAbsolutePath().resolve("LZ09.java");
+		String source = new String(Files.readAllBytes(file));
+		CompilationUnit compilationUnit = Utils.createCompilationUnitFromFile(file.toString());
+		MethodDeclaration method = findMethod(compilationUnit, "objective");
+		CognitiveComplexityVisitor.annotate(method, new ArrayList<>());
+		int complexity = Utils.computeAndAnnotateAccumulativeCognitiveComplexity(method);
+
+		// Oracle whose answers depend on the code extraction
+		RefactoringCache recorded = new RefactoringCache(compilationUnit,
+				sequence -> new CodeExtractionMetrics(sequence.getSiblingNodes().size() % 2 == 1, "", false,
+						sequence.getSiblingNodes().size(), 1, new ArrayList<>(), new ArrayList<>()));
+		RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(recorded, method, new NullProgressMonitor());
+		assertFalse(recorded.cache.isEmpty());
+
+		Path recordingFile = folder.resolve("objective" + OracleRecording.EXTENSION);
+		OracleRecording.record("LZ09.java", source, method, complexity, recorded).write(recordingFile);
+
+		// Replay on a new AST parsed from the recording
+		OracleRecording recording = OracleRecording.read(recordingFile);
+		CompilationUnit replayedCompilationUnit = recording.parse();
+		List<ASTNode> contributors = new ArrayList<>();
+		MethodDeclaration replayedMethod = recording.annotate(replayedCompilationUnit, contributors);
+		assertNotNull(replayedMethod);
+		assertFalse(contributors.isEmpty());
+		assertEquals(complexity, Utils.computeAndAnnotateAccumulativeCognitiveComplexity(replayedMethod));
+		assertTrue(Arrays.deepEquals(recording.getBlocks().toArray(),
+				OracleRecording.getBlocks(replayedMethod).toArray()));
+
+		ReplayOracle oracle = new ReplayOracle(recording);
+		RefactoringCache replayed = new RefactoringCache(replayedCompilationUnit, oracle);
+		RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(replayed, replayedMethod, new NullProgressMonitor());
+		assertEquals(0, oracle.getMisses());
+		assertEquals(recorded.cache.keySet(), replayed.cache.keySet());
+		recorded.cache.forEach((pair, metrics) -> {
+			assertEquals(metrics.isFeasible(), replayed.cache.get(pair).isFeasible());
+			assertEquals(metrics.getNumberOfExtractedLinesOfCode(),
+					replayed.cache.get(pair).getNumberOfExtractedLinesOfCode());
+			assertEquals(metrics.getReductionOfCognitiveComplexity(),
+					replayed.cache.get(pair).getReductionOfCognitiveComplexity());
+		});
+	}
+
+	private static MethodDeclaration findMethod(CompilationUnit compilationUnit, String name) {
+		List<MethodDeclaration> result = new ArrayList<>();
+		compilationUnit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration node) {
+				if (node.getName().getIdentifier().equals(name)) {
+					result.add(node);
+				}
+				return false;
+			}
+		});
+		return result.get(0);
+	}
+}
@@ -4,9 +4,9 @@ import java.util.Stack;
 
 import org.junit.Test;
 
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator;
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator.APPROACH;
-import neo.reducecognitivecomplexity.refactoringcache.ConsecutiveSequenceIterator.SentenceSequenceInfo;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.APPROACH;
+import neo.reducecognitivecomplexity.core.ConsecutiveSequenceIterator.SentenceSequenceInfo;
 
 
 class SentenceSequenceIteratorTest {
@@ -0,0 +1,54 @@
+package test.neo.reducecognitivecomplexity.sharding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import neo.reducecognitivecomplexity.sharding.Shard;
+import neo.reducecognitivecomplexity.sharding.ShardMerger;
+
+class ShardTest {
+	@TempDir
+	Path folder;
+
+	@Test
+	@DisplayName("Each class belongs to exactly one shard")
+	void testPartition() {
+		for (int i = 0; i < 200; i++) {
+			String classWithIssues = "src/main/java/p" + (i % 7) + "/C" + i + ".java";
+			int shards = 0;
+			for (int j = 0; j < 4; j++) {
+				if (Shard.parse(j + "/4").contains(classWithIssues)) {
+					shards++;
+				}
+			}
+			assertEquals(1, shards, classWithIssues);
+			assertEquals(Shard.parse("1/4").contains(classWithIssues),
+					Shard.parse("1/4").contains("/" + classWithIssues.replace('/', '\\')));
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> Shard.parse("4/4"));
+		assertThrows(IllegalArgumentException.class, () -> Shard.parse("1"));
+	}
+
+	@Test
+	@DisplayName("Results files of shards are merged with a single header")
+	void testMerge() throws Exception {
+		Files.write(folder.resolve("demo-ES-LSF-shard1of2-results.txt"), Arrays.asList("header", "row2", "row3"));
+		Files.write(folder.resolve("demo-ES-LSF-shard0of2-results.txt"), Arrays.asList("header", "row1"));
+		Files.write(folder.resolve("other-ES-LSF-shard0of2-results.txt"), Arrays.asList("header", "other"));
+
+		Path result = ShardMerger.merge(folder, "demo-ES-LSF");
+
+		assertEquals(folder.resolve("demo-ES-LSF-results.txt"), result);
+		List<String> lines = Files.readAllLines(result);
+		assertEquals(Arrays.asList("header", "row1", "row2", "row3"), lines);
+	}
+}